@@ -0,0 +1,164 @@
+package ru.practicum.shareit.bench;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public final class LoadBenchmark {
+
+    private static final String X_SHARER_USER_ID = "X-Sharer-User-Id";
+    private static final Pattern METRIC_VALUE = Pattern.compile("\"value\"\\s*:\\s*([0-9.]+)");
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final int NOT_MODIFIED = 304;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final HttpRequest request;
+    private final HttpRequest connectionsRequest;
+    private final Duration warmup;
+    private final Duration duration;
+
+    private LoadBenchmark(final HttpRequest request, final HttpRequest connectionsRequest,
+                          final Duration warmup, final Duration duration) {
+        this.request = request;
+        this.connectionsRequest = connectionsRequest;
+        this.warmup = warmup;
+        this.duration = duration;
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final String url = System.getProperty("bench.url", "http://localhost:8080/users?size=20");
+        final String userId = System.getProperty("bench.user-id", "1");
+        final String label = System.getProperty("bench.label", "platform");
+        final int[] levels = Arrays.stream(System.getProperty("bench.concurrency", "16,64,256,1024").split(","))
+                .map(String::strip)
+                .mapToInt(Integer::parseInt)
+                .toArray();
+
+        final HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header(X_SHARER_USER_ID, userId)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+        final HttpRequest connectionsRequest = HttpRequest.newBuilder(URI.create(System.getProperty("bench.connections-url",
+                        "http://localhost:8080/actuator/metrics/reactor.netty.connection.provider.total.connections")))
+                .GET()
+                .build();
+        final LoadBenchmark benchmark = new LoadBenchmark(request, connectionsRequest,
+                Duration.parse(System.getProperty("bench.warmup", "PT5S")),
+                Duration.parse(System.getProperty("bench.duration", "PT20S")));
+
+        System.out.printf("Режим: %s, адрес: %s%n", label, url);
+        // пропускная способность и задержки считаются только по успешным ответам (2xx и 304);
+        // отказы лимитера (429) выводятся отдельно: на шлюзе для замера лимит нужно выключить (профиль bench)
+        System.out.printf("%-12s %12s %10s %10s %10s %8s %8s %11s%n",
+                "конкурентн.", "запросов/с", "p50, мс", "p99, мс", "max, мс", "429", "ошибки", "соединений");
+        for (final int level : levels) {
+            benchmark.run(level, benchmark.warmup);
+            final Result result = benchmark.run(level, benchmark.duration);
+            System.out.printf(Locale.ROOT, "%-12d %12.1f %10.2f %10.2f %10.2f %8d %8d %11s%n",
+                    level, result.throughput(), result.percentile(0.50), result.percentile(0.99),
+                    result.percentile(1.0), result.rejected(), result.errors(), benchmark.connections());
+            if (result.rejected() > 0) {
+                System.out.println("Часть запросов отклонена лимитером шлюза: результаты несопоставимы, "
+                                   + "запустите шлюз с профилем bench");
+            }
+        }
+    }
+
+    private String connections() {
+        try {
+            final String body = client.send(connectionsRequest, HttpResponse.BodyHandlers.ofString()).body();
+            final Matcher matcher = METRIC_VALUE.matcher(body);
+            return matcher.find() ? matcher.group(1) : "-";
+        } catch (Exception e) {
+            return "-";
+        }
+    }
+
+    private Result run(final int concurrency, final Duration period) throws Exception {
+        final long deadline = System.nanoTime() + period.toNanos();
+        final List<Future<Worker>> futures = new ArrayList<>(concurrency);
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                futures.add(workers.submit(() -> new Worker().loop(deadline)));
+            }
+        }
+
+        long[] latencies = new long[0];
+        long rejected = 0;
+        long errors = 0;
+        for (final Future<Worker> future : futures) {
+            final Worker worker = future.get();
+            final int offset = latencies.length;
+            latencies = Arrays.copyOf(latencies, offset + worker.count);
+            System.arraycopy(worker.latencies, 0, latencies, offset, worker.count);
+            rejected += worker.rejected;
+            errors += worker.errors;
+        }
+        Arrays.sort(latencies);
+        return new Result(latencies, rejected, errors, period);
+    }
+
+    private final class Worker {
+
+        private long[] latencies = new long[1024];
+        private int count;
+        private long rejected;
+        private long errors;
+
+        private Worker loop(final long deadline) {
+            while (System.nanoTime() < deadline) {
+                final long start = System.nanoTime();
+                try {
+                    final int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    if (status / 100 == 2 || status == NOT_MODIFIED) {
+                        record(System.nanoTime() - start);
+                    } else if (status == TOO_MANY_REQUESTS) {
+                        rejected++;
+                    } else {
+                        errors++;
+                    }
+                } catch (Exception e) {
+                    errors++;
+                }
+            }
+            return this;
+        }
+
+        private void record(final long latency) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latency;
+        }
+    }
+
+    private record Result(long[] latencies, long rejected, long errors, Duration period) {
+
+        double throughput() {
+            return latencies.length / (period.toNanos() / 1_000_000_000.0);
+        }
+
+        double percentile(final double quantile) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            final int index = (int) Math.min(latencies.length - 1, Math.ceil(quantile * latencies.length) - 1);
+            return latencies[Math.max(index, 0)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package ru.practicum.shareit.batch;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.batch.dto.BatchResult;
+import ru.practicum.shareit.batch.dto.BatchSubRequest;
+
+import java.util.List;
+
+import static ru.practicum.shareit.booking.BookingController.X_SHARER_USER_ID;
+
+@Slf4j
+@Validated
+@RestController
+@RequestMapping(path = "/batch")
+@RequiredArgsConstructor
+public class BatchController {
+
+    private final BatchService batchService;
+
+    @PostMapping
+    public Mono<List<BatchResult>> execute(@RequestHeader(X_SHARER_USER_ID) final Long userId,
+                                           @RequestBody @NotEmpty(message = "Пакет не должен быть пустым")
+                                           final List<@Valid BatchSubRequest> requests) {
+        log.debug("Получен POST-запрос к эндпоинту: '/batch' на {} подзапросов от пользователя с ID={}",
+                requests.size(), userId);
+        return batchService.execute(userId, requests);
+    }
+}
@@ -0,0 +1,108 @@
+package ru.practicum.shareit.batch;
+
+import ru.practicum.shareit.booking.dto.RequestBookingStatus;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
+
+// GET-маршруты шлюза, доступные в пакете: параметры проверяются так же, как в контроллерах,
+// а метрики и ограничения считаются по шаблону, а не по каждому пути
+enum BatchRoute {
+
+    USERS("/users", Map.of("afterId", range(0, Long.MAX_VALUE), "size", range(1, 1000))),
+    USER("/users/{id}", Map.of()),
+    ITEMS("/items", Map.of("from", range(0, Integer.MAX_VALUE), "size", range(1, Integer.MAX_VALUE),
+            "fields", any())),
+    ITEM_SEARCH("/items/search", Map.of("text", any(), "from", range(0, Integer.MAX_VALUE),
+            "size", range(1, Integer.MAX_VALUE), "fields", any()), Set.of("text")),
+    ITEM("/items/{id}", Map.of("fields", any())),
+    BOOKINGS("/bookings", Map.of("state", state(), "from", range(0, Integer.MAX_VALUE),
+            "size", range(1, Integer.MAX_VALUE), "fields", any())),
+    OWNER_BOOKINGS("/bookings/owner", Map.of("state", state(), "from", range(0, Integer.MAX_VALUE),
+            "size", range(1, Integer.MAX_VALUE), "fields", any())),
+    BOOKING("/bookings/{id}", Map.of()),
+    REQUESTS("/requests", Map.of("from", range(0, Integer.MAX_VALUE), "size", range(1, Integer.MAX_VALUE))),
+    ALL_REQUESTS("/requests/all", Map.of("from", range(0, Integer.MAX_VALUE), "size", range(1, Integer.MAX_VALUE))),
+    REQUEST("/requests/{id}", Map.of());
+
+    private static final String ID = "{id}";
+    private static final Pattern ID_PATTERN = Pattern.compile("\\d{1,18}");
+
+    private final String template;
+    private final List<String> segments;
+    // значение параметра после проверки или null, если оно недопустимо
+    private final Map<String, UnaryOperator<String>> parameters;
+    private final Set<String> required;
+
+    BatchRoute(final String template, final Map<String, UnaryOperator<String>> parameters) {
+        this(template, parameters, Set.of());
+    }
+
+    BatchRoute(final String template, final Map<String, UnaryOperator<String>> parameters, final Set<String> required) {
+        this.template = template;
+        this.segments = List.of(template.substring(1).split("/"));
+        this.parameters = parameters;
+        this.required = required;
+    }
+
+    public static BatchRoute match(final List<String> segments) {
+        for (final BatchRoute route : values()) {
+            if (route.matches(segments)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    public String getTemplate() {
+        return template;
+    }
+
+    public boolean isRequired(final String parameter) {
+        return required.contains(parameter);
+    }
+
+    public Set<String> parameterNames() {
+        return parameters.keySet();
+    }
+
+    public String normalize(final String parameter, final String value) {
+        final UnaryOperator<String> rule = parameters.get(parameter);
+        return rule != null ? rule.apply(value) : null;
+    }
+
+    private boolean matches(final List<String> path) {
+        if (path.size() != segments.size()) {
+            return false;
+        }
+        for (int i = 0; i < path.size(); i++) {
+            final String segment = segments.get(i);
+            if (ID.equals(segment) ? !ID_PATTERN.matcher(path.get(i)).matches() : !segment.equals(path.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static UnaryOperator<String> range(final long min, final long max) {
+        return value -> {
+            try {
+                final long number = Long.parseLong(value);
+                return number >= min && number <= max ? String.valueOf(number) : null;
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        };
+    }
+
+    private static UnaryOperator<String> state() {
+        return value -> RequestBookingStatus.from(value).map(Enum::name).orElse(null);
+    }
+
+    private static UnaryOperator<String> any() {
+        return UnaryOperator.identity();
+    }
+}
@@ -0,0 +1,162 @@
+package ru.practicum.shareit.batch;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.batch.dto.BatchResult;
+import ru.practicum.shareit.batch.dto.BatchSubRequest;
+import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.exception.ErrorResponse;
+import ru.practicum.shareit.exception.ServiceUnavailableException;
+import ru.practicum.shareit.ratelimit.RateLimiterRegistry;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class BatchService {
+
+    private final List<BaseClient> clients;
+    private final RateLimiterRegistry rateLimiterRegistry;
+    private final ObjectMapper objectMapper;
+    private final boolean rateLimitEnabled;
+    private final int maxSize;
+    private final int maxConcurrency;
+
+    public BatchService(final List<BaseClient> clients,
+                        final RateLimiterRegistry rateLimiterRegistry,
+                        final ObjectMapper objectMapper,
+                        @Value("${shareit.rate-limit.enabled:true}") final boolean rateLimitEnabled,
+                        @Value("${shareit.batch.max-size:20}") final int maxSize,
+                        @Value("${shareit.batch.max-concurrency:10}") final int maxConcurrency) {
+        this.clients = clients;
+        this.rateLimiterRegistry = rateLimiterRegistry;
+        this.objectMapper = objectMapper;
+        this.rateLimitEnabled = rateLimitEnabled;
+        this.maxSize = maxSize;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public Mono<List<BatchResult>> execute(final Long userId, final List<BatchSubRequest> requests) {
+        if (requests.size() > maxSize) {
+            throw new IllegalArgumentException("Пакет не может содержать больше " + maxSize + " запросов");
+        }
+        // подзапросы собираются в потоке контроллера: замер времени шлюза привязан к атрибутам этого запроса
+        final List<Mono<BatchResult>> calls = requests.stream()
+                .map(request -> executeOne(userId, request))
+                .toList();
+        // подзапросы уходят параллельно, а ответы возвращаются в порядке запросов
+        return Flux.fromIterable(calls)
+                .flatMapSequential(Function.identity(), maxConcurrency)
+                .collectList();
+    }
+
+    private Mono<BatchResult> executeOne(final Long userId, final BatchSubRequest request) {
+        // изменяющие запросы в пакете не принимаются: они прошли бы мимо проверок DTO в контроллерах шлюза
+        if (!HttpMethod.GET.name().equalsIgnoreCase(request.getMethod())) {
+            return Mono.just(error(HttpStatus.METHOD_NOT_ALLOWED, "В пакете поддерживаются только GET-запросы"));
+        }
+        final UriComponents uri;
+        try {
+            uri = UriComponentsBuilder.fromUriString(request.getPath()).build();
+        } catch (IllegalArgumentException e) {
+            return Mono.just(error(HttpStatus.BAD_REQUEST, "Недопустимый путь подзапроса: " + request.getPath()));
+        }
+        final BatchRoute route = request.getPath().startsWith("/") ? BatchRoute.match(uri.getPathSegments()) : null;
+        final String path = "/" + String.join("/", uri.getPathSegments());
+        final BaseClient client = route != null ? clientFor(path) : null;
+        if (client == null) {
+            return Mono.just(error(HttpStatus.BAD_REQUEST, "Недопустимый путь подзапроса: " + request.getPath()));
+        }
+
+        final Map<String, Object> parameters = new TreeMap<>();
+        for (final Map.Entry<String, List<String>> parameter : uri.getQueryParams().entrySet()) {
+            final String value = parameter.getValue().size() == 1 ? decode(parameter.getValue().get(0)) : null;
+            final String normalized = value != null ? route.normalize(parameter.getKey(), value) : null;
+            if (normalized == null) {
+                return Mono.just(error(HttpStatus.BAD_REQUEST,
+                        "Недопустимый параметр подзапроса: " + parameter.getKey()));
+            }
+            parameters.put(parameter.getKey(), normalized);
+        }
+        for (final String name : route.parameterNames()) {
+            if (route.isRequired(name) && !parameters.containsKey(name)) {
+                return Mono.just(error(HttpStatus.BAD_REQUEST, "Не указан параметр подзапроса: " + name));
+            }
+        }
+        if (rateLimitEnabled && rateLimiterRegistry.tryAcquire("user:" + userId, route.getTemplate()) > 0) {
+            return Mono.just(error(HttpStatus.TOO_MANY_REQUESTS, "Слишком много запросов, повторите позже"));
+        }
+
+        // значения параметров уходят переменными шаблона URI, а в путь попадают только сегменты шаблона и числа
+        final String query = parameters.keySet().stream()
+                .map(name -> name + "={" + name + "}")
+                .collect(Collectors.joining("&", parameters.isEmpty() ? "" : "?", ""));
+        return client.forwardGet(path.substring(client.getRoute().length()) + query, userId, parameters)
+                .map(BatchService::toResult)
+                .onErrorResume(e -> Mono.just(toError(path, e)));
+    }
+
+    private BaseClient clientFor(final String path) {
+        for (final BaseClient client : clients) {
+            final String route = client.getRoute();
+            if (path.startsWith(route) && (path.length() == route.length() || path.charAt(route.length()) == '/')) {
+                return client;
+            }
+        }
+        return null;
+    }
+
+    private static String decode(final String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return UriUtils.decode(value, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static BatchResult toResult(final ResponseEntity<byte[]> response) {
+        final byte[] body = response.getBody();
+        return new BatchResult(response.getStatusCode().value(),
+                body != null && body.length > 0 ? new String(body, StandardCharsets.UTF_8) : null);
+    }
+
+    private BatchResult toError(final String path, final Throwable e) {
+        if (e instanceof ServiceUnavailableException || e instanceof WebClientRequestException) {
+            return error(HttpStatus.SERVICE_UNAVAILABLE, "Сервер временно недоступен");
+        }
+        if (e instanceof TimeoutException) {
+            return error(HttpStatus.GATEWAY_TIMEOUT, "Сервер не ответил в отведённое время");
+        }
+        log.error("Ошибка подзапроса {} в пакете", path, e);
+        return error(HttpStatus.INTERNAL_SERVER_ERROR, "Ошибка выполнения подзапроса");
+    }
+
+    private BatchResult error(final HttpStatus status, final String message) {
+        try {
+            return new BatchResult(status.value(), objectMapper.writeValueAsString(new ErrorResponse(message)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.batch.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class BatchResult {
+
+    private final int status;
+
+    // тело ответа сервера вставляется как есть, без повторного разбора JSON
+    @JsonRawValue
+    private final String body;
+}
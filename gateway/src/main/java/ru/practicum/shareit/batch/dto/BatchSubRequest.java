@@ -0,0 +1,22 @@
+package ru.practicum.shareit.batch.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Setter
+@Getter
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchSubRequest {
+
+    @NotBlank(message = "Метод подзапроса не должен быть пустым")
+    private String method;
+
+    @NotBlank(message = "Путь подзапроса не должен быть пустым")
+    private String path;
+}
@@ -2,57 +2,122 @@ package ru.practicum.shareit.booking;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClientRequest;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.RequestBookingStatus;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.HedgingPolicy;
+import ru.practicum.shareit.client.LoadBalancingFilter;
+import ru.practicum.shareit.client.RequestCoalescer;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.RouteGuardRegistry;
+import ru.practicum.shareit.client.ServerBalancer;
+import ru.practicum.shareit.client.ServerInstance;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
+import static ru.practicum.shareit.booking.BookingController.X_SHARER_USER_ID;
+
 @Service
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> SSE_TYPE =
+            new ParameterizedTypeReference<>() {
+            };
+
+    private final Duration streamTimeout;
+    private final ServerBalancer balancer;
+
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") final String serverUrl, final RestTemplateBuilder builder) {
-        super(builder.uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
-                .build()
-        );
+    public BookingClient(@Value("${shareit-server.url}") final String serverUrl,
+                         @Value("${shareit-server.booking-stream-timeout:30m}") final Duration streamTimeout,
+                         final WebClient.Builder builder,
+                         final RequestCoalescer coalescer,
+                         final RouteGuardRegistry routeGuards,
+                         final ResponseCache cache,
+                         final HedgingPolicy hedging,
+                         final ServerBalancer balancer) {
+        super(API_PREFIX, builder.baseUrl(serverUrl + API_PREFIX).build(), coalescer, routeGuards, cache, hedging);
+        this.streamTimeout = streamTimeout;
+        this.balancer = balancer;
     }
 
-    public ResponseEntity<Object> getById(final Long userId, final Long bookingId) {
+    public Mono<ResponseEntity<byte[]>> getById(final Long userId, final Long bookingId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> getAllByState(final Long userId, final RequestBookingStatus state, final Integer from, final Integer size) {
+    public Mono<ResponseEntity<byte[]>> getAllByState(final Long userId, final RequestBookingStatus state, final Integer from, final Integer size, final String fields) {
         final Map<String, Object> parameters = Map.of(
                 "state", state.name(),
                 "from", from,
                 "size", size
         );
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+        return getWithFields("?state={state}&from={from}&size={size}", userId, parameters, fields);
     }
 
-    public ResponseEntity<Object> getAllByStateForOwner(final Long userId, final RequestBookingStatus state, final Integer from, final Integer size) {
+    public Mono<ResponseEntity<byte[]>> getAllByStateForOwner(final Long userId, final RequestBookingStatus state, final Integer from, final Integer size, final String fields) {
         final Map<String, Object> parameters = Map.of(
                 "state", state.name(),
                 "from", from,
                 "size", size
         );
-        return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
+        return getWithFields("/owner?state={state}&from={from}&size={size}", userId, parameters, fields);
     }
 
-    public ResponseEntity<Object> create(final Long userId, final BookingRequestDto requestDto) {
+    public Mono<ResponseEntity<byte[]>> create(final Long userId, final BookingRequestDto requestDto) {
         return post("", userId, requestDto);
     }
 
-    public ResponseEntity<Object> approve(final Long userId, final Long bookingId, final boolean approved) {
+    public Mono<ResponseEntity<byte[]>> approve(final Long userId, final Long bookingId, final boolean approved) {
         final Map<String, Object> parameters = Map.of("approved", approved);
         return patch("/" + bookingId + "?approved={approved}", userId, parameters, null);
     }
+
+    // событие публикует тот экземпляр, который провёл бронирование, поэтому при нескольких экземплярах
+    // шлюз подписывается на каждый и сводит потоки в один; служебные комментарии берутся только из первого
+    public SseEmitter stream(final Long userId) {
+        final SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        final Flux<ServerSentEvent<String>> events;
+        if (balancer.isBalanced()) {
+            final List<Flux<ServerSentEvent<String>>> streams = new ArrayList<>();
+            for (final ServerInstance instance : balancer.getInstances()) {
+                final Flux<ServerSentEvent<String>> stream = events(userId, instance);
+                streams.add(streams.isEmpty() ? stream : stream.filter(event -> event.comment() == null));
+            }
+            events = Flux.merge(streams);
+        } else {
+            events = events(userId, null);
+        }
+        events.subscribe(new BookingEventRelay(emitter));
+        return emitter;
+    }
+
+    private Flux<ServerSentEvent<String>> events(final Long userId, @Nullable final ServerInstance instance) {
+        return webClient.get()
+                .uri("/stream")
+                .header(X_SHARER_USER_ID, String.valueOf(userId))
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .attributes(attributes -> {
+                    if (instance != null) {
+                        attributes.put(LoadBalancingFilter.TARGET_INSTANCE, instance);
+                    }
+                })
+                .httpRequest(request -> request.<HttpClientRequest>getNativeRequest().responseTimeout(streamTimeout))
+                .retrieve()
+                .bodyToFlux(SSE_TYPE);
+    }
 }
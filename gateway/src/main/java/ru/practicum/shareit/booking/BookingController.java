@@ -4,6 +4,7 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -15,8 +16,11 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.RequestBookingStatus;
+import ru.practicum.shareit.client.BaseClient;
 
 
 @RestController
@@ -29,49 +33,58 @@ public class BookingController {
     private final BookingClient bookingClient;
 
     @PostMapping
-    public ResponseEntity<Object> create(@RequestHeader(X_SHARER_USER_ID) final Long userId,
-                                         @Valid @RequestBody final BookingRequestDto bookingRequestDto) {
+    public Mono<ResponseEntity<byte[]>> create(@RequestHeader(X_SHARER_USER_ID) final Long userId,
+                                               @Valid @RequestBody final BookingRequestDto bookingRequestDto) {
         log.info("Получен POST-запрос к эндпоинту: '/bookings' " +
                  "на создание бронирования от пользователя с ID={}", userId);
         return bookingClient.create(userId, bookingRequestDto);
     }
 
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> update(@RequestHeader(X_SHARER_USER_ID) final Long userId,
-                                         @PathVariable final Long bookingId,
-                                         @RequestParam final boolean approved) {
+    public Mono<ResponseEntity<byte[]>> update(@RequestHeader(X_SHARER_USER_ID) final Long userId,
+                                               @PathVariable final Long bookingId,
+                                               @RequestParam final boolean approved) {
         log.info("Получен PATCH-запрос к эндпоинту: '/bookings' на обновление статуса бронирования с ID={}", bookingId);
         return bookingClient.approve(userId, bookingId, approved);
     }
 
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> getBookingById(@RequestHeader(X_SHARER_USER_ID) final Long userId,
-                                                 @PathVariable final Long bookingId) {
+    public Mono<ResponseEntity<byte[]>> getBookingById(@RequestHeader(X_SHARER_USER_ID) final Long userId,
+                                                       @PathVariable final Long bookingId) {
         log.info("Получен GET-запрос к эндпоинту: '/bookings' на получение бронирования с ID={}", bookingId);
         return bookingClient.getById(userId, bookingId);
     }
 
     @GetMapping()
-    public ResponseEntity<Object> getAllByState(@RequestHeader(X_SHARER_USER_ID) final Long userId,
-                                                @RequestParam(defaultValue = "ALL") final String state,
-                                                @Valid @RequestParam(name = "from", defaultValue = "0") @Min(0) final int from,
-                                                @Valid @RequestParam(name = "size", defaultValue = "20") @Min(1) final int size) {
+    public Mono<ResponseEntity<byte[]>> getAllByState(@RequestHeader(X_SHARER_USER_ID) final Long userId,
+                                                      @RequestParam(defaultValue = "ALL") final String state,
+                                                      @Valid @RequestParam(name = "from", defaultValue = "0") @Min(0) final int from,
+                                                      @Valid @RequestParam(name = "size", defaultValue = "20") @Min(1) final int size,
+                                                      @RequestParam(name = BaseClient.FIELDS_PARAM, required = false) final String fields) {
         final RequestBookingStatus status = RequestBookingStatus.from(state)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + state));
         log.info("Получен GET-запрос к эндпоинту: '/bookings' на получение " +
                  "списка всех бронирований пользователя с ID={} с параметром STATE={}", userId, status);
-        return bookingClient.getAllByState(userId, status, from, size);
+        return bookingClient.getAllByState(userId, status, from, size, fields);
     }
 
     @GetMapping("/owner")
-    public ResponseEntity<Object> getBookingsOwner(@RequestHeader(X_SHARER_USER_ID) final Long userId,
-                                                   @RequestParam(required = false, defaultValue = "ALL") final String state,
-                                                   @Valid @RequestParam(value = "from", defaultValue = "0") @Min(0) final int from,
-                                                   @Valid @RequestParam(value = "size", defaultValue = "20") @Min(1) final int size) {
+    public Mono<ResponseEntity<byte[]>> getBookingsOwner(@RequestHeader(X_SHARER_USER_ID) final Long userId,
+                                                         @RequestParam(required = false, defaultValue = "ALL") final String state,
+                                                         @Valid @RequestParam(value = "from", defaultValue = "0") @Min(0) final int from,
+                                                         @Valid @RequestParam(value = "size", defaultValue = "20") @Min(1) final int size,
+                                                         @RequestParam(name = BaseClient.FIELDS_PARAM, required = false) final String fields) {
         final RequestBookingStatus status = RequestBookingStatus.from(state)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + state));
         log.info("Получен GET-запрос к эндпоинту: '/bookings/owner' на получение " +
                  "списка всех бронирований вещей пользователя с ID={} с параметром STATE={}", userId, status);
-        return bookingClient.getAllByStateForOwner(userId, status, from, size);
+        return bookingClient.getAllByStateForOwner(userId, status, from, size, fields);
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader(X_SHARER_USER_ID) final Long userId) {
+        log.info("Получен GET-запрос к эндпоинту: '/bookings/stream' на подписку на события бронирований " +
+                 "пользователя с ID={}", userId);
+        return bookingClient.stream(userId);
     }
 }
@@ -0,0 +1,65 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Subscription;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.publisher.BaseSubscriber;
+
+import java.io.IOException;
+
+@Slf4j
+class BookingEventRelay extends BaseSubscriber<ServerSentEvent<String>> {
+
+    private final SseEmitter emitter;
+
+    public BookingEventRelay(final SseEmitter emitter) {
+        super();
+        this.emitter = emitter;
+    }
+
+    @Override
+    protected void hookOnSubscribe(final Subscription subscription) {
+        emitter.onCompletion(this::dispose);
+        emitter.onError(e -> dispose());
+        emitter.onTimeout(() -> {
+            dispose();
+            emitter.complete();
+        });
+        requestUnbounded();
+    }
+
+    @Override
+    protected void hookOnNext(final ServerSentEvent<String> event) {
+        final SseEmitter.SseEventBuilder builder = SseEmitter.event();
+        if (event.comment() != null) {
+            builder.comment(event.comment());
+        }
+        if (event.id() != null) {
+            builder.id(event.id());
+        }
+        if (event.event() != null) {
+            builder.name(event.event());
+        }
+        if (event.data() != null) {
+            builder.data(event.data());
+        }
+        try {
+            emitter.send(builder);
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Клиент отключился от потока событий бронирований: {}", e.getMessage());
+            dispose();
+        }
+    }
+
+    @Override
+    protected void hookOnError(final Throwable throwable) {
+        log.debug("Поток событий бронирований прерван: {}", throwable.getMessage());
+        emitter.completeWithError(throwable);
+    }
+
+    @Override
+    protected void hookOnComplete() {
+        emitter.complete();
+    }
+}
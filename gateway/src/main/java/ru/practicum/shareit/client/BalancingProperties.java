@@ -0,0 +1,29 @@
+package ru.practicum.shareit.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-server.balancing")
+public class BalancingProperties {
+
+    private Strategy strategy = Strategy.POWER_OF_TWO;
+    private Affinity affinity = Affinity.NONE;
+    private int failureThreshold = 3;               //подряд идущих ошибок до исключения экземпляра
+    private Duration ejectDuration = Duration.ofSeconds(30);
+    private int maxEjectedPercent = 50;             //доля экземпляров, которую можно исключить одновременно
+
+    public enum Strategy {
+        POWER_OF_TWO,       //из двух случайных экземпляров выбирается менее загруженный
+        LEAST_OUTSTANDING   //экземпляр с наименьшим числом незавершённых запросов
+    }
+
+    public enum Affinity {
+        NONE,
+        ITEM                //запросы к /items/{id} одной вещи идут на один экземпляр
+    }
+}
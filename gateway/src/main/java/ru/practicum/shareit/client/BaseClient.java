@@ -1,32 +1,81 @@
 package ru.practicum.shareit.client;
 
-import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.Nullable;
 import org.springframework.util.MultiValueMap;
-import org.springframework.web.client.HttpStatusCodeException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.config.GatewayTiming;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static ru.practicum.shareit.booking.BookingController.X_SHARER_USER_ID;
 
 public class BaseClient {
-    protected final RestTemplate rest;
+    public static final String REQUEST_TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+    public static final String FIELDS_PARAM = "fields";
 
-    public BaseClient(final RestTemplate rest) {
-        this.rest = rest;
+    private static final List<String> PASS_THROUGH_HEADERS = List.of(
+            HttpHeaders.CONTENT_TYPE,
+            HttpHeaders.LOCATION,
+            HttpHeaders.ETAG,
+            HttpHeaders.LAST_MODIFIED,
+            HttpHeaders.CACHE_CONTROL,
+            HttpHeaders.RETRY_AFTER,
+            GatewayTiming.HEADER
+    );
+
+    // условные заголовки клиента уходят на сервер, чтобы тот мог ответить 304 или 412
+    private static final List<String> CONDITIONAL_HEADERS = List.of(
+            HttpHeaders.IF_NONE_MATCH,
+            HttpHeaders.IF_MATCH
+    );
+
+    protected final WebClient webClient;
+    private final String route;
+    private final RequestCoalescer coalescer;
+    private final RouteGuardRegistry routeGuards;
+    private final ResponseCache cache;
+    private final HedgingPolicy hedging;
+
+    public BaseClient(final String route, final WebClient webClient, final RequestCoalescer coalescer,
+                      final RouteGuardRegistry routeGuards, final ResponseCache cache, final HedgingPolicy hedging) {
+        this.route = route;
+        this.webClient = webClient;
+        this.coalescer = coalescer;
+        this.routeGuards = routeGuards;
+        this.cache = cache;
+        this.hedging = hedging;
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(final ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
-        }
+    public String getRoute() {
+        return route;
+    }
+
+    // подзапрос пакета: путь относительно префикса клиента, проверенный вызывающей стороной;
+    // условные заголовки и Accept пакетного запроса к подзапросам не относятся: тела вкладываются в JSON
+    public Mono<ResponseEntity<byte[]>> forwardGet(final String path, final Long userId,
+                                                   final Map<String, Object> parameters) {
+        return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null, new HttpHeaders(), false);
+    }
 
+    private static ResponseEntity<byte[]> prepareGatewayResponse(final ResponseEntity<byte[]> response) {
         final ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
+        PASS_THROUGH_HEADERS.forEach(header -> {
+            final List<String> values = response.getHeaders().get(header);
+            if (values != null) {
+                responseBuilder.header(header, values.toArray(String[]::new));
+            }
+        });
 
         if (response.hasBody()) {
             return responseBuilder.body(response.getBody());
@@ -35,86 +84,245 @@ public class BaseClient {
         return responseBuilder.build();
     }
 
-    protected ResponseEntity<Object> get(final String path) {
+    protected Mono<ResponseEntity<byte[]>> get(final String path) {
         return get(path, null, null);
     }
 
-    protected ResponseEntity<Object> get(final String path, final Long userId) {
+    protected Mono<ResponseEntity<byte[]>> get(final String path, final Long userId) {
         return get(path, userId, null);
     }
 
-    protected ResponseEntity<Object> get(final String path, final Long userId, @Nullable final Map<String, Object> parameters) {
+    protected Mono<ResponseEntity<byte[]>> get(final String path, final Long userId, @Nullable final Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
-    protected <T> ResponseEntity<Object> post(final String path, final T body) {
+    // fields= уходит на сервер, только если клиент его указал, чтобы не дробить ключи склейки запросов
+    protected Mono<ResponseEntity<byte[]>> getWithFields(final String path, final Long userId,
+                                                         final Map<String, Object> parameters, @Nullable final String fields) {
+        if (fields == null || fields.isBlank()) {
+            return get(path, userId, parameters);
+        }
+        final Map<String, Object> withFields = new HashMap<>(parameters);
+        withFields.put(FIELDS_PARAM, fields);
+        return get(path + (path.contains("?") ? "&" : "?") + FIELDS_PARAM + "={" + FIELDS_PARAM + "}", userId, withFields);
+    }
+
+    protected <T> Mono<ResponseEntity<byte[]>> post(final String path, final T body) {
         return post(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(final String path, final Long userId, final T body) {
+    protected <T> Mono<ResponseEntity<byte[]>> post(final String path, final Long userId, final T body) {
         return post(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(final String path, final Long userId, @Nullable final Map<String, Object> parameters, final T body) {
+    protected <T> Mono<ResponseEntity<byte[]>> post(final String path, final Long userId, @Nullable final Map<String, Object> parameters, final T body) {
         return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> put(final String path, final Long userId, final T body) {
+    protected <T> Mono<ResponseEntity<byte[]>> put(final String path, final Long userId, final T body) {
         return put(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> put(final String path, final Long userId, @Nullable final Map<String, Object> parameters, final T body) {
+    protected <T> Mono<ResponseEntity<byte[]>> put(final String path, final Long userId, @Nullable final Map<String, Object> parameters, final T body) {
         return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(final String path, final T body) {
+    protected <T> Mono<ResponseEntity<byte[]>> patch(final String path, final T body) {
         return patch(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(final String path, final Long userId) {
+    protected <T> Mono<ResponseEntity<byte[]>> patch(final String path, final Long userId) {
         return patch(path, userId, null, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(final String path, final Long userId, final T body) {
+    protected <T> Mono<ResponseEntity<byte[]>> patch(final String path, final Long userId, final T body) {
         return patch(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(final String path, final Long userId, @Nullable final Map<String, Object> parameters, final T body) {
+    protected <T> Mono<ResponseEntity<byte[]>> patch(final String path, final Long userId, @Nullable final Map<String, Object> parameters, final T body) {
         return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
     }
 
-    protected ResponseEntity<Object> delete(final String path) {
+    protected Mono<ResponseEntity<byte[]>> delete(final String path) {
         return delete(path, null, null);
     }
 
-    protected ResponseEntity<Object> delete(final String path, final Long userId) {
+    protected Mono<ResponseEntity<byte[]>> delete(final String path, final Long userId) {
         return delete(path, userId, null);
     }
 
-    protected ResponseEntity<Object> delete(final String path, final Long userId, @Nullable final Map<String, Object> parameters) {
+    protected Mono<ResponseEntity<byte[]>> delete(final String path, final Long userId, @Nullable final Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
-    private <T> ResponseEntity<Object> makeAndSendRequest(final HttpMethod method, final String path, final Long userId, @Nullable final Map<String, Object> parameters, @Nullable final T body) {
-        final HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+    private <T> Mono<ResponseEntity<byte[]>> makeAndSendRequest(final HttpMethod method, final String path, final Long userId, @Nullable final Map<String, Object> parameters, @Nullable final T body) {
+        return makeAndSendRequest(method, path, userId, parameters, body, conditionalHeaders(), acceptsSmile());
+    }
+
+    private <T> Mono<ResponseEntity<byte[]>> makeAndSendRequest(final HttpMethod method, final String path, final Long userId,
+                                                                @Nullable final Map<String, Object> parameters,
+                                                                @Nullable final T body, final MultiValueMap<String, String> conditional,
+                                                                final boolean smile) {
+        final GatewayTiming timing = GatewayTiming.current();
+        final Mono<ResponseEntity<byte[]>> call = routeAndSend(method, path, userId, parameters, body, conditional, smile)
+                .contextWrite(context -> context.put(SmileToJsonFilter.PASS_THROUGH, smile));
+        if (timing == null) {
+            return call;
+        }
+        return call.doOnSubscribe(subscription -> timing.upstreamStarted())
+                .doFinally(signal -> timing.upstreamFinished());
+    }
 
-        final ResponseEntity<Object> shareitServerResponse;
-        try {
-            if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
-            } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
+    private <T> Mono<ResponseEntity<byte[]>> routeAndSend(final HttpMethod method, final String path, final Long userId, @Nullable final Map<String, Object> parameters, @Nullable final T body, final MultiValueMap<String, String> conditional, final boolean smile) {
+        final RouteGuard routeGuard = routeGuards.forRoute(routeOf(path));
+        if (method == HttpMethod.GET) {
+            // условные запросы клиента сервер обрабатывает сам, кеш шлюза в них не участвует
+            if (cache.isEnabled() && conditional.isEmpty()) {
+                return cachedGet(path, userId, parameters, routeGuard, smile);
             }
-        } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+            return coalescer.coalesce(coalescingKey(path, userId, parameters, conditional, smile),
+                    () -> routeGuard.protect(exchange(method, path, userId, parameters, null, conditional, routeGuard)));
+        }
+        return routeGuard.protect(exchange(method, path, userId, parameters, body, conditional, routeGuard))
+                // при ошибке или обрыве изменение могло всё равно примениться на сервере
+                .doFinally(signal -> {
+                    if (cache.isEnabled()) {
+                        cache.invalidate(resourceOf(path));
+                    }
+                });
+    }
+
+    // ключ включает пользователя: владелец и остальные видят вещь по-разному
+    private Mono<ResponseEntity<byte[]>> cachedGet(final String path, final Long userId,
+                                                   @Nullable final Map<String, Object> parameters,
+                                                   final RouteGuard routeGuard, final boolean smile) {
+        final String key = coalescingKey(path, userId, parameters, HttpHeaders.EMPTY, smile);
+        final String resource = resourceOf(path);
+        final ResponseCache.Entry cached = cache.lookup(key);
+        if (cached != null && cache.isFresh(cached)) {
+            return Mono.just(cache.onFreshHit(cached));
         }
-        return prepareGatewayResponse(shareitServerResponse);
+        // изменение ресурса, пришедшееся на время запроса, не даст положить в кеш устаревший ответ
+        final long ticket = cache.ticket(resource);
+        final MultiValueMap<String, String> revalidation = new HttpHeaders();
+        if (cached != null) {
+            revalidation.set(HttpHeaders.IF_NONE_MATCH, cached.getETag());
+        }
+        return coalescer.coalesce(coalescingKey(path, userId, parameters, revalidation, smile),
+                        () -> routeGuard.protect(exchange(HttpMethod.GET, path, userId, parameters, null, revalidation, routeGuard)))
+                .map(response -> cache.onResponse(key, resource, ticket, cached, response));
+    }
+
+    private <T> Mono<ResponseEntity<byte[]>> exchange(final HttpMethod method, final String path, final Long userId, @Nullable final Map<String, Object> parameters, @Nullable final T body, final MultiValueMap<String, String> conditional, final RouteGuard routeGuard) {
+        final Mono<ResponseEntity<byte[]>> call = method == HttpMethod.GET && hedging.isActive() ?
+                hedged(path, userId, parameters, conditional, routeGuard) :
+                send(method, path, userId, parameters, body, conditional, routeGuard, Map.of());
+        return call.timeout(routeGuard.getTimeout())
+                .map(BaseClient::prepareGatewayResponse);
+    }
+
+    // если ответа нет дольше квантиля задержки маршрута, тот же GET уходит на другой экземпляр; побеждает первый ответ
+    private Mono<ResponseEntity<byte[]>> hedged(final String path, final Long userId, @Nullable final Map<String, Object> parameters,
+                                                final MultiValueMap<String, String> conditional, final RouteGuard routeGuard) {
+        return Mono.defer(() -> {
+            hedging.onRequest();
+            final AtomicReference<ServerInstance> primaryInstance = new AtomicReference<>();
+            final Mono<ResponseEntity<byte[]>> primary = send(HttpMethod.GET, path, userId, parameters, null, conditional,
+                    routeGuard, Map.of(LoadBalancingFilter.CHOSEN_INSTANCE, primaryInstance));
+            final Duration delay = hedging.delay(routeGuard.getLatencies());
+            if (delay == null) {
+                return primary;
+            }
+            final Mono<ResponseEntity<byte[]>> hedge = Mono.delay(delay)
+                    .flatMap(tick -> {
+                        final ServerInstance excluded = primaryInstance.get();
+                        if (excluded == null || !hedging.tryAcquire()) {
+                            return Mono.never();
+                        }
+                        return send(HttpMethod.GET, path, userId, parameters, null, conditional, routeGuard,
+                                Map.of(LoadBalancingFilter.EXCLUDED_INSTANCE, excluded))
+                                .doOnNext(response -> hedging.onHedgeWon());
+                    });
+            return Mono.firstWithSignal(primary, hedge);
+        });
+    }
+
+    private <T> Mono<ResponseEntity<byte[]>> send(final HttpMethod method, final String path, final Long userId,
+                                                  @Nullable final Map<String, Object> parameters, @Nullable final T body,
+                                                  final MultiValueMap<String, String> conditional, final RouteGuard routeGuard,
+                                                  final Map<String, Object> attributes) {
+        final WebClient.RequestBodySpec request = webClient.method(method)
+                .uri(path, parameters != null ? parameters : Map.of())
+                .headers(headers -> {
+                    headers.addAll(defaultHeaders(userId));
+                    headers.addAll(conditional);
+                })
+                .header(REQUEST_TIMEOUT_HEADER, String.valueOf(routeGuard.serverBudgetMillis()))
+                .attributes(attrs -> attrs.putAll(attributes));
+
+        final WebClient.RequestHeadersSpec<?> requestWithBody = body != null ? request.bodyValue(body) : request;
+        return requestWithBody.exchangeToMono(response -> response.toEntity(byte[].class));
+    }
+
+    // /bookings/owner и /bookings/{id} ограничиваются раздельно, чтобы медленный маршрут не занимал чужой предел
+    private String routeOf(final String path) {
+        if (!path.startsWith("/")) {
+            return route;
+        }
+        final String segment = firstSegment(path);
+        return route + (isId(segment) ? "/{id}" : "/" + segment);
+    }
+
+    // ответы о конкретной сущности относятся к /items/5, списки и поиск - к коллекции /items;
+    // изменение /items/5/comment затрагивает /items/5
+    private String resourceOf(final String path) {
+        final String segment = firstSegment(path);
+        return !segment.isEmpty() && isId(segment) ? route + "/" + segment : route;
+    }
+
+    private static String firstSegment(final String path) {
+        if (!path.startsWith("/")) {
+            return "";
+        }
+        int end = 1;
+        while (end < path.length() && path.charAt(end) != '/' && path.charAt(end) != '?') {
+            end++;
+        }
+        return path.substring(1, end);
+    }
+
+    private static boolean isId(final String segment) {
+        return segment.chars().allMatch(Character::isDigit);
+    }
+
+    private String coalescingKey(final String path, final Long userId, @Nullable final Map<String, Object> parameters,
+                                 final MultiValueMap<String, String> conditional, final boolean smile) {
+        return route + ' ' + path + '|' + (parameters != null ? new TreeMap<>(parameters) : "") + '|' + userId +
+               '|' + conditional.getFirst(HttpHeaders.IF_NONE_MATCH) + (smile ? "|smile" : "");
+    }
+
+    // читается в потоке контроллера, до подписки на запрос к серверу
+    private static MultiValueMap<String, String> conditionalHeaders() {
+        final MultiValueMap<String, String> headers = new HttpHeaders();
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            CONDITIONAL_HEADERS.forEach(name -> {
+                final String value = attributes.getRequest().getHeader(name);
+                if (value != null) {
+                    headers.set(name, value);
+                }
+            });
+        }
+        return headers;
+    }
+
+    // клиент, явно принимающий Smile, получает ответ сервера без перекодирования в JSON
+    private static boolean acceptsSmile() {
+        return RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes &&
+               SmileToJsonFilter.accepts(attributes.getRequest().getHeader(HttpHeaders.ACCEPT));
     }
 
     private MultiValueMap<String, String> defaultHeaders(final Long userId) {
         final MultiValueMap<String, String> headers = new HttpHeaders();
-        headers.set(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
-        headers.set(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);
         if (userId != null) {
             headers.set(X_SHARER_USER_ID, String.valueOf(userId));
         }
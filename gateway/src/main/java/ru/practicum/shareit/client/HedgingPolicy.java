@@ -0,0 +1,76 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+// каждый GET пополняет бюджет на budget-percent запроса, каждый повтор тратит один запрос целиком
+@Component
+@EnableConfigurationProperties(HedgingProperties.class)
+public class HedgingPolicy {
+
+    private static final long TOKEN = 10_000;
+
+    private final HedgingProperties properties;
+    private final boolean active;
+    private final long deposit;
+    private final long maxTokens;
+    private final AtomicLong tokens = new AtomicLong();
+    private final Counter sent;
+    private final Counter rejected;
+    private final Counter won;
+
+    public HedgingPolicy(final HedgingProperties properties, final ServerBalancer balancer,
+                         final MeterRegistry meterRegistry) {
+        this.properties = properties;
+        // повтор на тот же экземпляр не помогает при его паузе, поэтому нужен хотя бы второй
+        this.active = properties.isEnabled() && balancer.isBalanced();
+        this.deposit = Math.round(TOKEN * properties.getBudgetPercent() / 100);
+        this.maxTokens = TOKEN * properties.getMaxBurst();
+        this.sent = Counter.builder("shareit.gateway.hedge.requests").tag("result", "sent").register(meterRegistry);
+        this.rejected = Counter.builder("shareit.gateway.hedge.requests").tag("result", "budget_exhausted").register(meterRegistry);
+        this.won = Counter.builder("shareit.gateway.hedge.requests").tag("result", "won").register(meterRegistry);
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public LatencyWindow newWindow() {
+        return new LatencyWindow(properties.getWindowSize(), properties.getMinSamples(), properties.getQuantile());
+    }
+
+    // null, если для маршрута ещё нет статистики
+    public Duration delay(final LatencyWindow window) {
+        final long quantileNanos = window.getQuantileNanos();
+        if (quantileNanos == 0) {
+            return null;
+        }
+        return Duration.ofNanos(Math.max(quantileNanos, properties.getMinDelay().toNanos()));
+    }
+
+    public void onRequest() {
+        tokens.updateAndGet(current -> Math.min(maxTokens, current + deposit));
+    }
+
+    public boolean tryAcquire() {
+        long current = tokens.get();
+        while (current >= TOKEN) {
+            if (tokens.compareAndSet(current, current - TOKEN)) {
+                sent.increment();
+                return true;
+            }
+            current = tokens.get();
+        }
+        rejected.increment();
+        return false;
+    }
+
+    public void onHedgeWon() {
+        won.increment();
+    }
+}
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-server.hedging")
+public class HedgingProperties {
+
+    private boolean enabled = false;
+    private double budgetPercent = 5;               //доля дополнительных запросов от числа GET
+    private int maxBurst = 10;                      //запас повторов, накопленный в спокойное время
+    private double quantile = 0.95;                 //повтор уходит, если ответа нет дольше этого квантиля
+    private int windowSize = 1024;                  //замеров задержки маршрута в окне
+    private int minSamples = 100;                   //до набора замеров повторы не отправляются
+    private Duration minDelay = Duration.ofMillis(10);
+}
@@ -0,0 +1,38 @@
+package ru.practicum.shareit.client;
+
+import java.util.Arrays;
+
+// скользящее окно последних задержек маршрута; квантиль пересчитывается раз в RECOMPUTE_EVERY замеров
+public class LatencyWindow {
+
+    private static final int RECOMPUTE_EVERY = 64;
+
+    private final long[] samples;
+    private final int minSamples;
+    private final double quantile;
+    private int next;
+    private int count;
+    private volatile long quantileNanos;
+
+    public LatencyWindow(final int size, final int minSamples, final double quantile) {
+        this.samples = new long[size];
+        this.minSamples = minSamples;
+        this.quantile = quantile;
+    }
+
+    public synchronized void record(final long latencyNanos) {
+        samples[next] = latencyNanos;
+        next = (next + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+        if (count >= minSamples && next % RECOMPUTE_EVERY == 0) {
+            final long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            quantileNanos = sorted[Math.min(count - 1, (int) Math.ceil(quantile * count) - 1)];
+        }
+    }
+
+    // 0, пока замеров недостаточно
+    public long getQuantileNanos() {
+        return quantileNanos;
+    }
+}
@@ -0,0 +1,118 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static ru.practicum.shareit.booking.BookingController.X_SHARER_USER_ID;
+
+// подставляет в запрос адрес выбранного экземпляра сервера вместо базового shareit-server.url
+public class LoadBalancingFilter implements ExchangeFilterFunction {
+
+    // AtomicReference<ServerInstance>, в которую записывается выбранный экземпляр
+    public static final String CHOSEN_INSTANCE = LoadBalancingFilter.class.getName() + ".chosen";
+    // экземпляр, на который запрос отправлять не нужно (повтор медленного запроса)
+    public static final String EXCLUDED_INSTANCE = LoadBalancingFilter.class.getName() + ".excluded";
+
+    // экземпляр, на который запрос нужно отправить без выбора (подписка на события каждого экземпляра)
+    public static final String TARGET_INSTANCE = LoadBalancingFilter.class.getName() + ".target";
+
+    private static final Pattern ITEM_PATH = Pattern.compile("^/items/(\\d{1,18})(?:/|$)");
+    private static final Pattern USER_PATH = Pattern.compile("^/users/(\\d{1,18})(?:/|$)");
+    private static final String BOOKINGS_PATH = "/bookings";
+
+    private final ServerBalancer balancer;
+
+    public LoadBalancingFilter(final ServerBalancer balancer) {
+        this.balancer = balancer;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Mono<ClientResponse> filter(final ClientRequest request, final ExchangeFunction next) {
+        return Mono.defer(() -> {
+            final ServerInstance instance = choose(request);
+            request.attribute(CHOSEN_INSTANCE)
+                    .ifPresent(holder -> ((AtomicReference<ServerInstance>) holder).set(instance));
+            final URI target = UriComponentsBuilder.fromUri(request.url())
+                    .scheme(instance.getUri().getScheme())
+                    .host(instance.getUri().getHost())
+                    .port(instance.getUri().getPort())
+                    .build(true)
+                    .toUri();
+            instance.acquire();
+            return next.exchange(ClientRequest.from(request).url(target).build())
+                    .doOnNext(response -> {
+                        if (isInstanceFailure(response)) {
+                            balancer.onFailure(instance);
+                        } else {
+                            balancer.onSuccess(instance);
+                        }
+                    })
+                    .doOnError(e -> balancer.onFailure(instance))
+                    .doFinally(signal -> instance.release());
+        });
+    }
+
+    private ServerInstance choose(final ClientRequest request) {
+        final Object target = request.attribute(TARGET_INSTANCE).orElse(null);
+        if (target != null) {
+            return (ServerInstance) target;
+        }
+        // повтор медленного запроса уходит на тот же экземпляр: на другом кеш пользователей может быть устаревшим
+        final Long userId = pinnedUserOf(request);
+        if (userId != null) {
+            return balancer.chooseForUser(userId);
+        }
+        return balancer.choose(itemIdOf(request.url()), (ServerInstance) request.attribute(EXCLUDED_INSTANCE).orElse(null));
+    }
+
+    // сервер помнит существующих пользователей в памяти экземпляра (UserExistenceCache): удаление пользователя
+    // и все запросы, которые это проверяют (бронирования и создание записей), идут на один экземпляр,
+    // иначе другой экземпляр ещё до истечения срока считал бы удалённого пользователя существующим
+    private static Long pinnedUserOf(final ClientRequest request) {
+        final String path = request.url().getRawPath();
+        if (path == null) {
+            return null;
+        }
+        final boolean write = request.method() != HttpMethod.GET;
+        final Matcher user = USER_PATH.matcher(path);
+        if (write && user.find()) {
+            return Long.valueOf(user.group(1));
+        }
+        final String header = request.headers().getFirst(X_SHARER_USER_ID);
+        if (header == null || !write && !path.startsWith(BOOKINGS_PATH)) {
+            return null;
+        }
+        try {
+            return Long.valueOf(header);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // 500 и 504 относятся к конкретному запросу, а не к состоянию экземпляра
+    private static boolean isInstanceFailure(final ClientResponse response) {
+        return response.statusCode().isSameCodeAs(HttpStatus.BAD_GATEWAY) ||
+               response.statusCode().isSameCodeAs(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    private static Long itemIdOf(final URI url) {
+        final String path = url.getRawPath();
+        if (path == null) {
+            return null;
+        }
+        final Matcher matcher = ITEM_PATH.matcher(path);
+        return matcher.find() ? Long.valueOf(matcher.group(1)) : null;
+    }
+}
@@ -0,0 +1,50 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+@Component
+public class RequestCoalescer {
+
+    private final Map<String, Mono<ResponseEntity<byte[]>>> inFlight = new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private final Duration maxWait;
+
+    public RequestCoalescer(@Value("${shareit-server.coalescing.enabled:true}") final boolean enabled,
+                            @Value("${shareit-server.coalescing.max-wait:2s}") final Duration maxWait) {
+        this.enabled = enabled;
+        this.maxWait = maxWait;
+    }
+
+    public Mono<ResponseEntity<byte[]>> coalesce(final String key, final Supplier<Mono<ResponseEntity<byte[]>>> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        return Mono.defer(() -> {
+            final AtomicReference<Mono<ResponseEntity<byte[]>>> self = new AtomicReference<>();
+            final Mono<ResponseEntity<byte[]>> leader = call.get()
+                    .doFinally(signal -> inFlight.remove(key, self.get()))
+                    .cache();
+            self.set(leader);
+
+            final Mono<ResponseEntity<byte[]>> existing = inFlight.putIfAbsent(key, leader);
+            if (existing == null) {
+                return leader;
+            }
+            // не ждём чужой запрос дольше отведённого времени, а идём на сервер сами
+            return existing.timeout(maxWait, Mono.defer(call));
+        });
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,35 @@
+package ru.practicum.shareit.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-server.resilience")
+public class ResilienceProperties {
+
+    private int initialLimit = 20;                  //стартовый предел одновременных запросов маршрута
+    private int minLimit = 2;
+    private int maxLimit = 200;
+    private double backoffRatio = 0.9;              //множитель уменьшения предела при перегрузке
+    private Duration latencyThreshold = Duration.ofMillis(500);
+    private Map<String, Duration> latencyThresholds = new LinkedHashMap<>(); //маршрут -> свой порог
+    private int failureThreshold = 5;               //подряд идущих ошибок до размыкания цепи
+    private Duration openDuration = Duration.ofSeconds(10);
+    private Duration timeout = Duration.ofSeconds(5);   //срок выполнения запроса к серверу
+    private Map<String, Duration> timeouts = new LinkedHashMap<>();          //маршрут -> свой срок
+    private Duration deadlineMargin = Duration.ofMillis(100); //запас на сеть: сервер сдаётся раньше шлюза
+
+    public Duration latencyThresholdFor(final String route) {
+        return latencyThresholds.getOrDefault(route, latencyThreshold);
+    }
+
+    public Duration timeoutFor(final String route) {
+        return timeouts.getOrDefault(route, timeout);
+    }
+}
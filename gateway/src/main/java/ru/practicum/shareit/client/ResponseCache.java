@@ -0,0 +1,274 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import ru.practicum.shareit.config.GatewayTiming;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BooleanSupplier;
+
+// общий для всех пользователей LRU-кеш ответов сервера с ETag, ограниченный по занимаемым байтам;
+// разбит на части со своими блокировками, чтобы запросы к разным ключам не ждали друг друга
+@Slf4j
+@Component
+@EnableConfigurationProperties(ResponseCacheProperties.class)
+public class ResponseCache {
+
+    private static final int ENTRY_OVERHEAD = 128; //объекты записи, ответа и узлов карт
+    private static final int GENERATION_STRIPES = 64;
+
+    private final List<Segment> segments;
+    // поколение ресурса растёт при каждом его изменении; ответ, запрошенный до изменения, в кеш не попадает
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final ResponseCacheProperties properties;
+    private final Counter hits;
+    private final Counter revalidated;
+    private final Counter misses;
+
+    public ResponseCache(final ResponseCacheProperties properties, final MeterRegistry meterRegistry) {
+        this.properties = properties;
+        final int count = Math.max(1, properties.getSegments());
+        final long segmentBytes = properties.getMaxSize().toBytes() / count;
+        this.segments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            segments.add(new Segment(segmentBytes));
+        }
+        this.hits = Counter.builder("shareit.gateway.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.revalidated = Counter.builder("shareit.gateway.cache.requests").tag("result", "revalidated").register(meterRegistry);
+        this.misses = Counter.builder("shareit.gateway.cache.requests").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("shareit.gateway.cache.size", this, ResponseCache::sizeInBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public Entry lookup(final String key) {
+        return segmentOf(key).get(key);
+    }
+
+    public boolean isFresh(final Entry entry) {
+        return System.nanoTime() - entry.storedAt < properties.getFreshFor().toNanos();
+    }
+
+    // берётся до отправки запроса на сервер и сверяется при сохранении ответа
+    public long ticket(final String resource) {
+        return generations.get(stripeOf(resource));
+    }
+
+    // ответ сервера на запрос с кешированной версией или без неё; возвращает то, что уйдёт клиенту
+    public ResponseEntity<byte[]> onResponse(final String key, final String resource, final long ticket,
+                                             final Entry cached, final ResponseEntity<byte[]> response) {
+        if (cached != null && response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+            revalidated.increment();
+            segmentOf(key).touch(key, cached);
+            return cached.response;
+        }
+        misses.increment();
+        final String eTag = response.getHeaders().getETag();
+        if (response.getStatusCode().isSameCodeAs(HttpStatus.OK) && eTag != null && !isNoStore(response)) {
+            store(key, resource, ticket, eTag, response);
+        } else if (cached != null) {
+            segmentOf(key).remove(key);
+        }
+        return response;
+    }
+
+    public ResponseEntity<byte[]> onFreshHit(final Entry cached) {
+        hits.increment();
+        return cached.response;
+    }
+
+    // изменение /items/5 затрагивает и коллекцию /items: её списки и результаты поиска
+    public void invalidate(final String resource) {
+        String current = resource;
+        while (!current.isEmpty()) {
+            generations.incrementAndGet(stripeOf(current));
+            int removed = 0;
+            for (final Segment segment : segments) {
+                removed += segment.removeResource(current);
+            }
+            log.debug("Из кеша ответов удалено {} записей ресурса {}", removed, current);
+            current = current.substring(0, current.lastIndexOf('/'));
+        }
+    }
+
+    public long sizeInBytes() {
+        long total = 0;
+        for (final Segment segment : segments) {
+            total += segment.sizeInBytes();
+        }
+        return total;
+    }
+
+    private void store(final String key, final String resource, final long ticket, final String eTag,
+                       final ResponseEntity<byte[]> response) {
+        final Segment segment = segmentOf(key);
+        final long size = sizeOf(key, response);
+        if (size > properties.getMaxEntrySize().toBytes()) {
+            segment.remove(key);
+            return;
+        }
+        final Entry entry = new Entry(eTag, resource, withoutTiming(response), size, System.nanoTime());
+        if (!segment.put(key, entry, () -> generations.get(stripeOf(resource)) == ticket)) {
+            log.debug("Ответ по ключу {} не сохранён в кеш: ресурс {} изменился во время запроса", key, resource);
+        }
+    }
+
+    private Segment segmentOf(final String key) {
+        return segments.get(Math.floorMod(key.hashCode(), segments.size()));
+    }
+
+    private static int stripeOf(final String resource) {
+        return Math.floorMod(resource.hashCode(), GENERATION_STRIPES);
+    }
+
+    // разбивка времени относится к запросу, который положил ответ в кеш, а не к тем, кто его прочтёт
+    private static ResponseEntity<byte[]> withoutTiming(final ResponseEntity<byte[]> response) {
+        if (!response.getHeaders().containsKey(GatewayTiming.HEADER)) {
+            return response;
+        }
+        final MultiValueMap<String, String> headers = new HttpHeaders();
+        headers.putAll(response.getHeaders());
+        headers.remove(GatewayTiming.HEADER);
+        return new ResponseEntity<>(response.getBody(), headers, response.getStatusCode());
+    }
+
+    private static boolean isNoStore(final ResponseEntity<byte[]> response) {
+        final String cacheControl = response.getHeaders().getCacheControl();
+        return cacheControl != null && (cacheControl.contains("no-store") || cacheControl.contains("private"));
+    }
+
+    private static long sizeOf(final String key, final ResponseEntity<byte[]> response) {
+        long size = ENTRY_OVERHEAD + 2L * key.length();
+        for (final Map.Entry<String, List<String>> header : response.getHeaders().entrySet()) {
+            size += 2L * header.getKey().length();
+            for (final String value : header.getValue()) {
+                size += 2L * value.length();
+            }
+        }
+        final byte[] body = response.getBody();
+        return body != null ? size + body.length : size;
+    }
+
+    private static final class Segment {
+        private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private final Map<String, Set<String>> keysByResource = new HashMap<>();
+        private final long maxBytes;
+        private long bytes;
+
+        private Segment(final long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        private synchronized Entry get(final String key) {
+            return entries.get(key);
+        }
+
+        private synchronized void touch(final String key, final Entry cached) {
+            if (cached.equals(entries.get(key))) {
+                cached.storedAt = System.nanoTime();
+            }
+        }
+
+        // условие проверяется под блокировкой части, поэтому не разойдётся с параллельной очисткой ресурса
+        private synchronized boolean put(final String key, final Entry entry, final BooleanSupplier precondition) {
+            if (!precondition.getAsBoolean()) {
+                return false;
+            }
+            final Entry previous = entries.put(key, entry);
+            if (previous != null) {
+                bytes -= previous.size;
+                unindex(key, previous.resource);
+            }
+            bytes += entry.size;
+            keysByResource.computeIfAbsent(entry.resource, r -> new HashSet<>()).add(key);
+            shrink();
+            return true;
+        }
+
+        private synchronized void remove(final String key) {
+            final Entry removed = entries.remove(key);
+            if (removed != null) {
+                bytes -= removed.size;
+                unindex(key, removed.resource);
+            }
+        }
+
+        private synchronized int removeResource(final String resource) {
+            final Set<String> keys = keysByResource.remove(resource);
+            if (keys == null) {
+                return 0;
+            }
+            keys.forEach(key -> {
+                final Entry removed = entries.remove(key);
+                if (removed != null) {
+                    bytes -= removed.size;
+                }
+            });
+            return keys.size();
+        }
+
+        private synchronized long sizeInBytes() {
+            return bytes;
+        }
+
+        // самые давно запрошенные записи удаляются первыми
+        private void shrink() {
+            final Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (bytes > maxBytes && eldest.hasNext()) {
+                final Map.Entry<String, Entry> entry = eldest.next();
+                eldest.remove();
+                bytes -= entry.getValue().size;
+                unindex(entry.getKey(), entry.getValue().resource);
+            }
+        }
+
+        private void unindex(final String key, final String resource) {
+            final Set<String> keys = keysByResource.get(resource);
+            if (keys != null && keys.remove(key) && keys.isEmpty()) {
+                keysByResource.remove(resource);
+            }
+        }
+    }
+
+    public static final class Entry {
+        private final String eTag;
+        private final String resource;
+        private final ResponseEntity<byte[]> response;
+        private final long size;
+        private volatile long storedAt;
+
+        private Entry(final String eTag, final String resource, final ResponseEntity<byte[]> response,
+                      final long size, final long storedAt) {
+            this.eTag = eTag;
+            this.resource = resource;
+            this.response = response;
+            this.size = size;
+            this.storedAt = storedAt;
+        }
+
+        public String getETag() {
+            return eTag;
+        }
+    }
+
+}
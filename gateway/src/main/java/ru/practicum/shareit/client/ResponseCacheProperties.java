@@ -0,0 +1,20 @@
+package ru.practicum.shareit.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-server.cache")
+public class ResponseCacheProperties {
+
+    private boolean enabled = true;
+    private DataSize maxSize = DataSize.ofMegabytes(64);      //суммарный объём тел, заголовков и ключей
+    private DataSize maxEntrySize = DataSize.ofKilobytes(256); //крупные ответы не вытесняют остальные
+    private Duration freshFor = Duration.ZERO;                 //ответ отдаётся без перепроверки на сервере
+    private int segments = 16;                                 //частей со своей блокировкой, каждой - доля max-size
+}
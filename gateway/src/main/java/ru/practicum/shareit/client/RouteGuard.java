@@ -0,0 +1,159 @@
+package ru.practicum.shareit.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import ru.practicum.shareit.exception.ServiceUnavailableException;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.DoubleUnaryOperator;
+
+@Slf4j
+public class RouteGuard {
+
+    private static final long PROBE_RETRY_SECONDS = 1;
+
+    private final String route;
+    private final ResilienceProperties properties;
+    private final long latencyThresholdNanos;
+    private final Duration timeout;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong limitBits;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicReference<Circuit> circuit = new AtomicReference<>(Circuit.CLOSED);
+    private final LatencyWindow latencies;
+
+    public RouteGuard(final String route, final ResilienceProperties properties, final LatencyWindow latencies) {
+        this.route = route;
+        this.properties = properties;
+        this.latencies = latencies;
+        this.latencyThresholdNanos = properties.latencyThresholdFor(route).toNanos();
+        this.timeout = properties.timeoutFor(route);
+        this.limitBits = new AtomicLong(Double.doubleToRawLongBits(properties.getInitialLimit()));
+    }
+
+    public Mono<ResponseEntity<byte[]>> protect(final Mono<ResponseEntity<byte[]>> call) {
+        return Mono.defer(() -> {
+            final long retryAfterSeconds = admit(System.nanoTime());
+            if (retryAfterSeconds > 0) {
+                return Mono.error(new ServiceUnavailableException(
+                        "Сервер недоступен, маршрут " + route + " временно отключён", retryAfterSeconds));
+            }
+            if (inFlight.incrementAndGet() > limit()) {
+                inFlight.decrementAndGet();
+                return Mono.error(new ServiceUnavailableException("Маршрут " + route + " перегружен", 1));
+            }
+
+            final long start = System.nanoTime();
+            return call
+                    .doOnNext(response -> onResult(isRouteFailure(response.getStatusCode()), System.nanoTime() - start))
+                    .doOnError(e -> onResult(e instanceof WebClientRequestException || e instanceof TimeoutException, System.nanoTime() - start))
+                    .doFinally(signal -> {
+                        inFlight.decrementAndGet();
+                        if (signal == SignalType.CANCEL) {
+                            // пробный запрос отменён клиентом: разрешаем следующий
+                            circuit.compareAndSet(Circuit.HALF_OPEN, new Circuit(State.OPEN, System.nanoTime()));
+                        }
+                    });
+        });
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    // бюджет, который получает сервер: меньше срока шлюза, чтобы сервер успел ответить сам
+    public long serverBudgetMillis() {
+        return Math.max(1, timeout.minus(properties.getDeadlineMargin()).toMillis());
+    }
+
+    public LatencyWindow getLatencies() {
+        return latencies;
+    }
+
+    public double limit() {
+        return Double.longBitsToDouble(limitBits.get());
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public boolean isOpen() {
+        return circuit.get().state() != State.CLOSED;
+    }
+
+    private long admit(final long now) {
+        final Circuit current = circuit.get();
+        return switch (current.state()) {
+            case CLOSED -> 0;
+            case HALF_OPEN -> PROBE_RETRY_SECONDS;
+            case OPEN -> {
+                if (now - current.openUntil() < 0) {
+                    yield Math.max(1, TimeUnit.NANOSECONDS.toSeconds(current.openUntil() - now));
+                }
+                // время размыкания истекло: пропускаем один пробный запрос
+                yield circuit.compareAndSet(current, Circuit.HALF_OPEN) ? 0 : PROBE_RETRY_SECONDS;
+            }
+        };
+    }
+
+    // 500 означает ошибку в обработке конкретного запроса (например, неверные параметры одного пользователя),
+    // а не недоступность маршрута: цепь размыкают только сбои соединения, таймауты и 502/503/504
+    private static boolean isRouteFailure(final HttpStatusCode status) {
+        return status.isSameCodeAs(HttpStatus.BAD_GATEWAY) ||
+               status.isSameCodeAs(HttpStatus.SERVICE_UNAVAILABLE) ||
+               status.isSameCodeAs(HttpStatus.GATEWAY_TIMEOUT);
+    }
+
+    private void onResult(final boolean failed, final long latencyNanos) {
+        if (failed) {
+            updateLimit(limit -> limit * properties.getBackoffRatio());
+            if (circuit.get().state() == State.HALF_OPEN ||
+                consecutiveFailures.incrementAndGet() >= properties.getFailureThreshold()) {
+                circuit.set(new Circuit(State.OPEN, System.nanoTime() + properties.getOpenDuration().toNanos()));
+                consecutiveFailures.set(0);
+                log.warn("Цепь маршрута {} разомкнута на {} с", route, properties.getOpenDuration().toSeconds());
+            }
+            return;
+        }
+
+        consecutiveFailures.set(0);
+        latencies.record(latencyNanos);
+        if (circuit.compareAndSet(Circuit.HALF_OPEN, Circuit.CLOSED)) {
+            log.info("Цепь маршрута {} замкнута", route);
+        }
+        if (latencyNanos > latencyThresholdNanos) {
+            updateLimit(limit -> limit * properties.getBackoffRatio());
+        } else {
+            updateLimit(limit -> limit + 1 / limit);
+        }
+    }
+
+    private void updateLimit(final DoubleUnaryOperator operator) {
+        limitBits.updateAndGet(bits -> {
+            final double next = operator.applyAsDouble(Double.longBitsToDouble(bits));
+            return Double.doubleToRawLongBits(Math.clamp(next, properties.getMinLimit(), properties.getMaxLimit()));
+        });
+    }
+
+    private enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private record Circuit(State state, long openUntil) {
+        private static final Circuit CLOSED = new Circuit(State.CLOSED, 0);
+        private static final Circuit HALF_OPEN = new Circuit(State.HALF_OPEN, 0);
+    }
+}
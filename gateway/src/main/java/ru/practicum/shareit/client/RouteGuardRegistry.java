@@ -0,0 +1,44 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@EnableConfigurationProperties(ResilienceProperties.class)
+public class RouteGuardRegistry {
+
+    private final Map<String, RouteGuard> guards = new ConcurrentHashMap<>();
+    private final ResilienceProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final HedgingPolicy hedging;
+
+    public RouteGuardRegistry(final ResilienceProperties properties, final MeterRegistry meterRegistry,
+                              final HedgingPolicy hedging) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.hedging = hedging;
+    }
+
+    public RouteGuard forRoute(final String route) {
+        return guards.computeIfAbsent(route, this::create);
+    }
+
+    private RouteGuard create(final String route) {
+        final RouteGuard guard = new RouteGuard(route, properties, hedging.newWindow());
+        Gauge.builder("shareit.gateway.route.concurrency.limit", guard, RouteGuard::limit)
+                .tag("route", route)
+                .register(meterRegistry);
+        Gauge.builder("shareit.gateway.route.in.flight", guard, RouteGuard::getInFlight)
+                .tag("route", route)
+                .register(meterRegistry);
+        Gauge.builder("shareit.gateway.route.circuit.open", guard, g -> g.isOpen() ? 1 : 0)
+                .tag("route", route)
+                .register(meterRegistry);
+        return guard;
+    }
+}
@@ -0,0 +1,157 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// выбор экземпляра сервера для очередного запроса шлюза и пассивное исключение неисправных
+@Slf4j
+@Component
+@EnableConfigurationProperties(BalancingProperties.class)
+public class ServerBalancer {
+
+    private static final int SINGLE = 1;
+
+    private final List<ServerInstance> instances;
+    private final BalancingProperties properties;
+
+    public ServerBalancer(@Value("${shareit-server.urls:${shareit-server.url}}") final List<String> urls,
+                          final BalancingProperties properties,
+                          final MeterRegistry meterRegistry) {
+        this.instances = urls.stream()
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .distinct()
+                .map(url -> new ServerInstance(URI.create(url)))
+                .toList();
+        if (instances.isEmpty()) {
+            throw new IllegalStateException("Не задан ни один адрес сервера в shareit-server.urls");
+        }
+        this.properties = properties;
+        instances.forEach(instance -> {
+            Gauge.builder("shareit.gateway.server.outstanding", instance, ServerInstance::getOutstanding)
+                    .tag("instance", instance.toString())
+                    .register(meterRegistry);
+            Gauge.builder("shareit.gateway.server.ejected", instance, i -> i.isEjected(System.nanoTime()) ? 1 : 0)
+                    .tag("instance", instance.toString())
+                    .register(meterRegistry);
+        });
+        log.info("Экземпляры сервера: {}, стратегия {}, привязка {}", instances, properties.getStrategy(),
+                properties.getAffinity());
+    }
+
+    public boolean isBalanced() {
+        return instances.size() > 1;
+    }
+
+    public int size() {
+        return instances.size();
+    }
+
+    public List<ServerInstance> getInstances() {
+        return instances;
+    }
+
+    public ServerInstance choose(final Long itemId, final ServerInstance excluded) {
+        final List<ServerInstance> available = available(System.nanoTime());
+        if (excluded != null && available.size() > 1) {
+            available.remove(excluded);
+        }
+        if (available.size() == SINGLE) {
+            return available.getFirst();
+        }
+        if (excluded == null && itemId != null && properties.getAffinity() == BalancingProperties.Affinity.ITEM) {
+            return byRendezvousHash(available, itemId);
+        }
+        return properties.getStrategy() == BalancingProperties.Strategy.LEAST_OUTSTANDING ?
+                leastOutstanding(available) :
+                powerOfTwo(available);
+    }
+
+    // запросы одного пользователя, зависящие от состояния в памяти экземпляра, всегда идут на один экземпляр
+    public ServerInstance chooseForUser(final long userId) {
+        final List<ServerInstance> available = available(System.nanoTime());
+        return available.size() == SINGLE ? available.getFirst() : byRendezvousHash(available, userId);
+    }
+
+    public void onSuccess(final ServerInstance instance) {
+        instance.onSuccess();
+    }
+
+    public void onFailure(final ServerInstance instance) {
+        if (instance.onFailure() < properties.getFailureThreshold()) {
+            return;
+        }
+        final long now = System.nanoTime();
+        final long ejected = instances.stream().filter(i -> i.isEjected(now)).count();
+        if ((ejected + 1) * 100 > (long) instances.size() * properties.getMaxEjectedPercent()) {
+            log.warn("Экземпляр сервера {} не исключён: достигнута доля исключённых {}%", instance,
+                    properties.getMaxEjectedPercent());
+            return;
+        }
+        instance.eject(now + properties.getEjectDuration().toNanos());
+        log.warn("Экземпляр сервера {} исключён из балансировки на {}", instance, properties.getEjectDuration());
+    }
+
+    // если исключены все, запросы идут на все экземпляры, а не отклоняются
+    private List<ServerInstance> available(final long now) {
+        final List<ServerInstance> healthy = new ArrayList<>(instances.size());
+        for (final ServerInstance instance : instances) {
+            if (!instance.isEjected(now)) {
+                healthy.add(instance);
+            }
+        }
+        return healthy.isEmpty() ? new ArrayList<>(instances) : healthy;
+    }
+
+    private static ServerInstance powerOfTwo(final List<ServerInstance> available) {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final int first = random.nextInt(available.size());
+        final int second = (first + 1 + random.nextInt(available.size() - 1)) % available.size();
+        final ServerInstance a = available.get(first);
+        final ServerInstance b = available.get(second);
+        return a.getOutstanding() <= b.getOutstanding() ? a : b;
+    }
+
+    private static ServerInstance leastOutstanding(final List<ServerInstance> available) {
+        ServerInstance best = available.getFirst();
+        for (final ServerInstance instance : available) {
+            if (instance.getOutstanding() < best.getOutstanding()) {
+                best = instance;
+            }
+        }
+        return best;
+    }
+
+    // при исключении экземпляра на другие переезжают только его вещи и пользователи
+    private static ServerInstance byRendezvousHash(final List<ServerInstance> available, final long key) {
+        ServerInstance best = null;
+        long bestWeight = Long.MIN_VALUE;
+        for (final ServerInstance instance : available) {
+            final long weight = mix(key * 31 + instance.getUri().hashCode());
+            if (best == null || weight > bestWeight) {
+                best = instance;
+                bestWeight = weight;
+            }
+        }
+        return best;
+    }
+
+    private static long mix(final long value) {
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,54 @@
+package ru.practicum.shareit.client;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ServerInstance {
+
+    private final URI uri;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile long ejectedUntil;
+
+    public ServerInstance(final URI uri) {
+        this.uri = uri;
+    }
+
+    public URI getUri() {
+        return uri;
+    }
+
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    public boolean isEjected(final long now) {
+        return ejectedUntil - now > 0;
+    }
+
+    public void acquire() {
+        outstanding.incrementAndGet();
+    }
+
+    public void release() {
+        outstanding.decrementAndGet();
+    }
+
+    public void onSuccess() {
+        consecutiveFailures.set(0);
+    }
+
+    public int onFailure() {
+        return consecutiveFailures.incrementAndGet();
+    }
+
+    public void eject(final long until) {
+        ejectedUntil = until;
+        consecutiveFailures.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return uri.toString();
+    }
+}
@@ -0,0 +1,88 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.config.WireFormat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+// внешние клиенты получают JSON: ответ сервера в Smile перекодируется потоком токенов, без привязки к DTO;
+// клиенту, который сам принимает Smile, ответ уходит как есть
+public class SmileToJsonFilter implements ExchangeFilterFunction {
+
+    public static final String PASS_THROUGH = SmileToJsonFilter.class.getName() + ".PASS_THROUGH";
+
+    private static final SmileFactory SMILE_FACTORY = new SmileFactory();
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    @Override
+    public Mono<ClientResponse> filter(final ClientRequest request, final ExchangeFunction next) {
+        return Mono.deferContextual(context -> {
+            final Mono<ClientResponse> response = next.exchange(request);
+            if (context.getOrDefault(PASS_THROUGH, false)) {
+                return response;
+            }
+            return response.flatMap(SmileToJsonFilter::transcode);
+        });
+    }
+
+    // */* и application/* не в счёт: такие клиенты рассчитывают на JSON
+    public static boolean accepts(@Nullable final String accept) {
+        if (accept == null || accept.isBlank()) {
+            return false;
+        }
+        try {
+            return MediaType.parseMediaTypes(accept).stream()
+                    .anyMatch(mediaType -> !mediaType.isWildcardSubtype() && mediaType.getQualityValue() > 0 &&
+                                           mediaType.isCompatibleWith(WireFormat.SMILE.getContentType()));
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    private static Mono<ClientResponse> transcode(final ClientResponse response) {
+        final boolean smile = response.headers().contentType()
+                .map(WireFormat.SMILE.getContentType()::isCompatibleWith)
+                .orElse(false);
+        if (!smile) {
+            return Mono.just(response);
+        }
+        return response.bodyToMono(byte[].class)
+                .map(SmileToJsonFilter::toJson)
+                .defaultIfEmpty(new byte[0])
+                .map(json -> response.mutate()
+                        .headers(headers -> {
+                            headers.setContentType(MediaType.APPLICATION_JSON);
+                            headers.remove("Content-Length");
+                        })
+                        .body(json.length == 0 ? Flux.empty() : Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(json)))
+                        .build());
+    }
+
+    private static byte[] toJson(final byte[] smile) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(smile.length * 2);
+        try (JsonParser parser = SMILE_FACTORY.createParser(smile);
+             JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+            while (parser.nextToken() != null) {
+                generator.copyCurrentEvent(parser);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось перекодировать ответ сервера из Smile в JSON", e);
+        }
+        return out.toByteArray();
+    }
+}
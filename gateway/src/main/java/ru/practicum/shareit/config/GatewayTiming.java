@@ -0,0 +1,73 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Locale;
+
+// время запроса в шлюзе: ожидание сервера и всё остальное; хранится в атрибуте запроса, а не в потоке,
+// потому что ответ сервера приходит в потоке Reactor Netty
+public class GatewayTiming {
+
+    public static final String HEADER = "Server-Timing";
+
+    private static final String ATTRIBUTE = GatewayTiming.class.getName();
+
+    private final long startNanos = System.nanoTime();
+    private int inFlight;
+    private long activeSince;
+    private long upstreamTotalNanos;
+    private volatile boolean written;
+
+    public static GatewayTiming start(final RequestAttributes attributes) {
+        final GatewayTiming timing = new GatewayTiming();
+        attributes.setAttribute(ATTRIBUTE, timing, RequestAttributes.SCOPE_REQUEST);
+        return timing;
+    }
+
+    public static GatewayTiming get(final RequestAttributes attributes) {
+        return (GatewayTiming) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+    }
+
+    public static GatewayTiming current() {
+        final RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes != null ? get(attributes) : null;
+    }
+
+    // параллельные запросы пакета учитываются один раз: считается время, когда ждали хотя бы один ответ
+    public synchronized void upstreamStarted() {
+        if (inFlight == 0) {
+            activeSince = System.nanoTime();
+        }
+        inFlight++;
+    }
+
+    public synchronized void upstreamFinished() {
+        inFlight--;
+        if (inFlight == 0) {
+            upstreamTotalNanos += System.nanoTime() - activeSince;
+        }
+    }
+
+    public synchronized long upstreamNanos() {
+        return inFlight > 0 ? upstreamTotalNanos + System.nanoTime() - activeSince : upstreamTotalNanos;
+    }
+
+    public long totalNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    public long overheadNanos() {
+        return Math.max(0, totalNanos() - upstreamNanos());
+    }
+
+    public boolean isWritten() {
+        return written;
+    }
+
+    public String headerValue() {
+        written = true;
+        return String.format(Locale.ROOT, "gw;dur=%.2f;desc=\"gateway\", upstream;dur=%.2f",
+                overheadNanos() / 1_000_000.0, upstreamNanos() / 1_000_000.0);
+    }
+}
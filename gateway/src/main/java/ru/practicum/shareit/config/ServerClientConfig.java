@@ -0,0 +1,77 @@
+package ru.practicum.shareit.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.util.unit.DataSize;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.Http2AllocationStrategy;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import ru.practicum.shareit.client.LoadBalancingFilter;
+import ru.practicum.shareit.client.ServerBalancer;
+import ru.practicum.shareit.client.SmileToJsonFilter;
+
+@Configuration
+@EnableConfigurationProperties(ServerPoolProperties.class)
+public class ServerClientConfig {
+
+    private static final String POOL_NAME = "shareit-server";
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider serverConnectionProvider(final ServerPoolProperties pool,
+                                                       @Value("${shareit-server.protocol:http1}") final ServerProtocol protocol) {
+        final ConnectionProvider.Builder builder = ConnectionProvider.builder(POOL_NAME)
+                .maxConnections(pool.getMaxConnections());
+        if (protocol == ServerProtocol.H2C) {
+            builder.allocationStrategy(Http2AllocationStrategy.builder()
+                    .maxConnections(pool.getH2MaxConnections())
+                    .maxConcurrentStreams(pool.getMaxConcurrentStreams())
+                    .build());
+        }
+        return builder
+                .pendingAcquireMaxCount(pool.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(pool.getPendingAcquireTimeout())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .maxLifeTime(pool.getMaxLifeTime())
+                .evictInBackground(pool.getEvictionInterval())
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public HttpClient serverHttpClient(final ConnectionProvider serverConnectionProvider,
+                                       final ServerPoolProperties pool,
+                                       @Value("${shareit-server.protocol:http1}") final ServerProtocol protocol) {
+        return HttpClient.create(serverConnectionProvider)
+                .protocol(protocol == ServerProtocol.H2C ? HttpProtocol.H2C : HttpProtocol.HTTP11)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) pool.getConnectTimeout().toMillis())
+                .responseTimeout(pool.getResponseTimeout())
+                .keepAlive(true);
+    }
+
+    @Bean
+    public WebClientCustomizer serverWebClientCustomizer(final HttpClient serverHttpClient,
+                                                         @Value("${shareit-server.wire-format:json}") final WireFormat wireFormat,
+                                                         @Value("${shareit-server.max-response-size:16MB}") final DataSize maxResponseSize,
+                                                         final ServerBalancer balancer) {
+        return builder -> {
+            // ответ сервера целиком читается в память; стандартного предела в 256 КБ не хватает длинным спискам
+            builder.clientConnector(new ReactorClientHttpConnector(serverHttpClient))
+                    .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(Math.toIntExact(maxResponseSize.toBytes())))
+                    .defaultHeader(HttpHeaders.CONTENT_TYPE, wireFormat.getContentType().toString())
+                    .defaultHeader(HttpHeaders.ACCEPT, wireFormat.getAccept());
+            if (wireFormat == WireFormat.SMILE) {
+                builder.filter(new SmileToJsonFilter());
+            }
+            if (balancer.isBalanced()) {
+                builder.filter(new LoadBalancingFilter(balancer));
+            }
+        };
+    }
+}
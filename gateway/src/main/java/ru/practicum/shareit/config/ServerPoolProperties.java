@@ -0,0 +1,25 @@
+package ru.practicum.shareit.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-server.pool")
+public class ServerPoolProperties {
+
+    private int maxConnections = 200;               //предел соединений к одному адресу сервера
+    private int pendingAcquireMaxCount = 1000;      //сколько запросов может ждать свободное соединение
+    private Duration pendingAcquireTimeout = Duration.ofSeconds(2);
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+    private Duration maxLifeTime = Duration.ofMinutes(10);
+    private Duration evictionInterval = Duration.ofSeconds(30);
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    private Duration responseTimeout = Duration.ofSeconds(10);
+    private int warmupConnections = 8;              //сколько соединений открыть при старте
+    private int h2MaxConnections = 4;               //соединений HTTP/2, между которыми делятся потоки
+    private long maxConcurrentStreams = 100;        //одновременных потоков на одно соединение HTTP/2
+}
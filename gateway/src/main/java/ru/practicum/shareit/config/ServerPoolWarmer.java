@@ -0,0 +1,49 @@
+package ru.practicum.shareit.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import ru.practicum.shareit.client.ServerBalancer;
+
+@Slf4j
+@Component
+public class ServerPoolWarmer {
+
+    private final HttpClient serverHttpClient;
+    private final WebClient webClient;
+    private final int connections;
+
+    public ServerPoolWarmer(@Value("${shareit-server.url}") final String serverUrl,
+                            final HttpClient serverHttpClient,
+                            final WebClient.Builder builder,
+                            final ServerPoolProperties pool,
+                            final ServerBalancer balancer) {
+        this.serverHttpClient = serverHttpClient;
+        this.webClient = builder.baseUrl(serverUrl).build();
+        // запросы прогрева распределяются балансировщиком, поэтому на каждый экземпляр своя доля
+        this.connections = pool.getWarmupConnections() * balancer.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (connections <= 0) {
+            return;
+        }
+        // параллельные запросы заставляют пул открыть сразу несколько соединений
+        serverHttpClient.warmup()
+                .thenMany(Flux.range(0, connections)
+                        .flatMap(i -> webClient.get()
+                                .uri("/actuator/health")
+                                .retrieve()
+                                .toBodilessEntity()
+                                .onErrorResume(e -> Mono.empty()), connections))
+                .doOnComplete(() -> log.info("Пул соединений к серверу прогрет: {} соединений", connections))
+                .subscribe();
+    }
+}
@@ -0,0 +1,6 @@
+package ru.practicum.shareit.config;
+
+public enum ServerProtocol {
+    HTTP1,
+    H2C
+}
@@ -0,0 +1,54 @@
+package ru.practicum.shareit.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Locale;
+
+// журнал доступа с той же разбивкой времени, что уходит клиенту в Server-Timing
+@Slf4j(topic = "shareit.access")
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+                                    final FilterChain filterChain) throws ServletException, IOException {
+        final ServletRequestAttributes attributes = new ServletRequestAttributes(request);
+        GatewayTiming timing = GatewayTiming.get(attributes);
+        if (timing == null) {
+            timing = GatewayTiming.start(attributes);
+        }
+        filterChain.doFilter(request, response);
+        // ответ Mono дописывается при повторной асинхронной диспетчеризации
+        if (request.isAsyncStarted()) {
+            return;
+        }
+        if (!response.isCommitted() && !timing.isWritten()) {
+            response.addHeader(GatewayTiming.HEADER, timing.headerValue());
+        }
+        if (log.isInfoEnabled()) {
+            log.info("{} {} {} {} мс: шлюз {} мс, сервер {} мс; {}", request.getMethod(), request.getRequestURI(),
+                    response.getStatus(), millis(timing.totalNanos()), millis(timing.overheadNanos()),
+                    millis(timing.upstreamNanos()), String.join(", ", response.getHeaders(GatewayTiming.HEADER)));
+        }
+    }
+
+    private static String millis(final long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.http.MediaType;
+
+public enum WireFormat {
+    JSON(MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE),
+    SMILE("application/x-jackson-smile", "application/x-jackson-smile, " + MediaType.APPLICATION_JSON_VALUE + ";q=0.9");
+
+    private final MediaType contentType;
+    private final String accept;
+
+    WireFormat(final String contentType, final String accept) {
+        this.contentType = MediaType.parseMediaType(contentType);
+        this.accept = accept;
+    }
+
+    public MediaType getContentType() {
+        return contentType;
+    }
+
+    public String getAccept() {
+        return accept;
+    }
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.exception;
+
+import lombok.Getter;
+
+import java.io.Serial;
+
+@Getter
+public class ServiceUnavailableException extends RuntimeException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterSeconds;
+
+    public ServiceUnavailableException(final String message, final long retryAfterSeconds) {
+        super(message, null, false, false);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
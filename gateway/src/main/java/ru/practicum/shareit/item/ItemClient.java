@@ -1,12 +1,15 @@
 package ru.practicum.shareit.item;
 
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.HedgingPolicy;
+import ru.practicum.shareit.client.RequestCoalescer;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.RouteGuardRegistry;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
@@ -16,46 +19,49 @@ import java.util.Map;
 public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
-    public ItemClient(@Value("${shareit-server.url}") final String serverUrl, final RestTemplateBuilder builder) {
-        super(builder.uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
-                .build());
+    public ItemClient(@Value("${shareit-server.url}") final String serverUrl,
+                      final WebClient.Builder builder,
+                      final RequestCoalescer coalescer,
+                      final RouteGuardRegistry routeGuards,
+                      final ResponseCache cache,
+                      final HedgingPolicy hedging) {
+        super(API_PREFIX, builder.baseUrl(serverUrl + API_PREFIX).build(), coalescer, routeGuards, cache, hedging);
     }
 
-    public ResponseEntity<Object> getById(final Long userId, final Long itemId) {
-        return get("/" + itemId, userId);
+    public Mono<ResponseEntity<byte[]>> getById(final Long userId, final Long itemId, final String fields) {
+        return getWithFields("/" + itemId, userId, Map.of(), fields);
     }
 
-    public ResponseEntity<Object> getAllByOwnerId(final Long userId, final Integer from, final Integer size) {
+    public Mono<ResponseEntity<byte[]>> getAllByOwnerId(final Long userId, final Integer from, final Integer size, final String fields) {
         final Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size
         );
-        return get("?from={from}&size={size}", userId, parameters);
+        return getWithFields("?from={from}&size={size}", userId, parameters, fields);
     }
 
-    public ResponseEntity<Object> getAllBySearchText(final Long userId, final String text, final Integer from, final Integer size) {
+    public Mono<ResponseEntity<byte[]>> getAllBySearchText(final Long userId, final String text, final Integer from, final Integer size, final String fields) {
         final Map<String, Object> parameters = Map.of(
                 "text", text,
                 "from", from,
                 "size", size
         );
-        return get("/search?text={text}&from={from}&size={size}", userId, parameters);
+        return getWithFields("/search?text={text}&from={from}&size={size}", userId, parameters, fields);
     }
 
-    public ResponseEntity<Object> create(final Long userId, final ItemDto requestDto) {
+    public Mono<ResponseEntity<byte[]>> create(final Long userId, final ItemDto requestDto) {
         return post("", userId, requestDto);
     }
 
-    public ResponseEntity<Object> createComment(final Long userId, final Long itemId, final CommentDto requestDto) {
+    public Mono<ResponseEntity<byte[]>> createComment(final Long userId, final Long itemId, final CommentDto requestDto) {
         return post("/" + itemId + "/comment", userId, requestDto);
     }
 
-    public ResponseEntity<Object> update(final Long userId, final Long itemId, final ItemDto itemDto) {
+    public Mono<ResponseEntity<byte[]>> update(final Long userId, final Long itemId, final ItemDto itemDto) {
         return patch("/" + itemId, userId, null, itemDto);
     }
 
-    public void delete(final Long itemId) {
-        delete("/" + itemId);
+    public Mono<ResponseEntity<byte[]>> delete(final Long itemId) {
+        return delete("/" + itemId);
     }
 }
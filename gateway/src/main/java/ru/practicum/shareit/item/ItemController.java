@@ -6,6 +6,8 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
@@ -20,55 +22,58 @@ public class ItemController {
     private final ItemClient itemClient;
 
     @PostMapping
-    public ResponseEntity<Object> create(@RequestHeader(X_SHARER_USER_ID) final Long userId,
-                                         @Valid @RequestBody final ItemDto itemDto) {
+    public Mono<ResponseEntity<byte[]>> create(@RequestHeader(X_SHARER_USER_ID) final Long userId,
+                                               @Valid @RequestBody final ItemDto itemDto) {
         log.debug("Получен POST-запрос к эндпоинту: '/items' на добавление вещи владельцем с ID={}", userId);
         return itemClient.create(userId, itemDto);
     }
 
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> createComment(@RequestHeader(X_SHARER_USER_ID) final Long userId,
-                                                @PathVariable final Long itemId,
-                                                @Valid @RequestBody final CommentDto commentDto) {
+    public Mono<ResponseEntity<byte[]>> createComment(@RequestHeader(X_SHARER_USER_ID) final Long userId,
+                                                      @PathVariable final Long itemId,
+                                                      @Valid @RequestBody final CommentDto commentDto) {
         log.info("Получен POST-запрос к эндпоинту: '/items/comment' на добавление отзыва пользователем с ID={}", userId);
         return itemClient.createComment(userId, itemId, commentDto);
     }
 
     @PatchMapping("/{itemId}")
-    public ResponseEntity<Object> update(@RequestHeader(X_SHARER_USER_ID) final Long userId,
-                                         @PathVariable final Long itemId,
-                                         @RequestBody final ItemDto itemDto) {
+    public Mono<ResponseEntity<byte[]>> update(@RequestHeader(X_SHARER_USER_ID) final Long userId,
+                                               @PathVariable final Long itemId,
+                                               @RequestBody final ItemDto itemDto) {
         log.debug("Получен PATCH-запрос к эндпоинту: '/items' на обновление вещи с ID={}", itemId);
         return itemClient.update(userId, itemId, itemDto);
     }
 
     @DeleteMapping("/{itemId}")
-    public void delete(@PathVariable final Long itemId) {
+    public Mono<ResponseEntity<byte[]>> delete(@PathVariable final Long itemId) {
         log.debug("Получен DELETE-запрос к эндпоинту: '/items' на удаление вещи с ID={}", itemId);
-        itemClient.delete(itemId);
+        return itemClient.delete(itemId);
     }
 
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> getItemById(@RequestHeader(X_SHARER_USER_ID) final Long userId,
-                                              @PathVariable final Long itemId) {
+    public Mono<ResponseEntity<byte[]>> getItemById(@RequestHeader(X_SHARER_USER_ID) final Long userId,
+                                                    @PathVariable final Long itemId,
+                                                    @RequestParam(name = BaseClient.FIELDS_PARAM, required = false) final String fields) {
         log.info("Получен GET-запрос к эндпоинту: '/items' на получение вещи с ID={}", itemId);
-        return itemClient.getById(userId, itemId);
+        return itemClient.getById(userId, itemId, fields);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getItemsByOwnerId(@RequestHeader(X_SHARER_USER_ID) final Long userId,
-                                                    @RequestParam(required = false, defaultValue = "0") @Min(0) final int from,
-                                                    @RequestParam(required = false, defaultValue = "20") @Min(1) final int size) {
+    public Mono<ResponseEntity<byte[]>> getItemsByOwnerId(@RequestHeader(X_SHARER_USER_ID) final Long userId,
+                                                          @RequestParam(required = false, defaultValue = "0") @Min(0) final int from,
+                                                          @RequestParam(required = false, defaultValue = "20") @Min(1) final int size,
+                                                          @RequestParam(name = BaseClient.FIELDS_PARAM, required = false) final String fields) {
         log.info("Получен GET-запрос к эндпоинту: '/items' на получение всех вещей владельца с ID={}", userId);
-        return itemClient.getAllByOwnerId(userId, from, size);
+        return itemClient.getAllByOwnerId(userId, from, size, fields);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> getItemsBySearchQuery(@RequestHeader(X_SHARER_USER_ID) final Long userId,
-                                                        @RequestParam(name = "text") final String text,
-                                                        @RequestParam(required = false, defaultValue = "0") @Min(0) final int from,
-                                                        @RequestParam(required = false, defaultValue = "20") @Min(1) final int size) {
+    public Mono<ResponseEntity<byte[]>> getItemsBySearchQuery(@RequestHeader(X_SHARER_USER_ID) final Long userId,
+                                                              @RequestParam(name = "text") final String text,
+                                                              @RequestParam(required = false, defaultValue = "0") @Min(0) final int from,
+                                                              @RequestParam(required = false, defaultValue = "20") @Min(1) final int size,
+                                                              @RequestParam(name = BaseClient.FIELDS_PARAM, required = false) final String fields) {
         log.info("Получен GET-запрос к эндпоинту: '/items/search' на поиск вещи с текстом={}", text);
-        return itemClient.getAllBySearchText(userId, text, from, size);
+        return itemClient.getAllBySearchText(userId, text, from, size, fields);
     }
 }
@@ -0,0 +1,39 @@
+package ru.practicum.shareit.ratelimit;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import ru.practicum.shareit.exception.TooManyRequestsException;
+
+import java.util.concurrent.TimeUnit;
+
+import static ru.practicum.shareit.booking.BookingController.X_SHARER_USER_ID;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private final RateLimiterRegistry rateLimiterRegistry;
+
+    @Override
+    public boolean preHandle(final HttpServletRequest request, final HttpServletResponse response, final Object handler) {
+        // при асинхронной отдаче ответа запрос проходит через интерцептор повторно - списываем разрешение один раз
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        final String userId = request.getHeader(X_SHARER_USER_ID);
+        final String clientKey = userId != null ? "user:" + userId : "ip:" + request.getRemoteAddr();
+        final long waitNanos = rateLimiterRegistry.tryAcquire(clientKey, request.getRequestURI());
+        if (waitNanos > 0) {
+            final long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+            log.warn("Превышен лимит запросов для {} к {}", clientKey, request.getRequestURI());
+            throw new TooManyRequestsException("Слишком много запросов, повторите позже", retryAfter);
+        }
+        return true;
+    }
+}
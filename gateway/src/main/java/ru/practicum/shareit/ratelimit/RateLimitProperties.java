@@ -0,0 +1,28 @@
+package ru.practicum.shareit.ratelimit;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+    private int maxKeys = 100_000;                  //приблизительный предел числа корзин в памяти
+    private Duration idleTimeout = Duration.ofMinutes(10);
+    private Rule defaultRule = new Rule();
+    private Map<String, Rule> routes = new LinkedHashMap<>(); //префикс пути -> правило
+
+    @Getter
+    @Setter
+    public static class Rule {
+        private double permitsPerSecond = 20;
+        private int burst = 40;
+    }
+}
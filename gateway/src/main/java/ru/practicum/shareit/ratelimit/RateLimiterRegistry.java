@@ -0,0 +1,98 @@
+package ru.practicum.shareit.ratelimit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Slf4j
+@Component
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimiterRegistry {
+
+    private static final String DEFAULT_ROUTE = "*";
+    // после вытеснения остаётся 90% предела, чтобы следующий проход понадобился не раньше чем через 10% новых ключей
+    private static final double SWEEP_TARGET = 0.9;
+
+    // чтение и создание корзин без блокировок; предел числа ключей поддерживается приблизительно проходом вытеснения
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private final RateLimitProperties properties;
+    private final List<Map.Entry<String, RateLimitProperties.Rule>> routes;
+
+    public RateLimiterRegistry(final RateLimitProperties properties) {
+        this.properties = properties;
+        // самый длинный префикс проверяется первым
+        this.routes = properties.getRoutes().entrySet().stream()
+                .sorted(Comparator.comparingInt((Map.Entry<String, RateLimitProperties.Rule> e) -> e.getKey().length())
+                        .reversed())
+                .toList();
+    }
+
+    public long tryAcquire(final String clientKey, final String path) {
+        final Map.Entry<String, RateLimitProperties.Rule> route = resolve(path);
+        final String key = clientKey + '|' + route.getKey();
+        final long now = System.nanoTime();
+
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(route.getValue(), now));
+            if (buckets.size() > properties.getMaxKeys()) {
+                evictOverflow();
+            }
+        }
+        return bucket.tryAcquire(now);
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.rate-limit.eviction-interval-ms:60000}")
+    public void evictIdle() {
+        final long idleBefore = System.nanoTime() - properties.getIdleTimeout().toNanos();
+        final int before = buckets.size();
+        buckets.values().removeIf(bucket -> bucket.lastAccess() - idleBefore < 0);
+        log.debug("Удалено неактивных корзин ограничения запросов: {}", before - buckets.size());
+    }
+
+    // проход делает один поток, остальные не ждут его и продолжают работу: на время прохода предел может
+    // быть превышен на число одновременно созданных корзин
+    private void evictOverflow() {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            final long[] accesses = buckets.values().stream().mapToLong(TokenBucket::lastAccess).toArray();
+            final int excess = accesses.length - (int) (properties.getMaxKeys() * SWEEP_TARGET);
+            if (excess <= 0) {
+                return;
+            }
+            Arrays.sort(accesses);
+            // граница приблизительная: корзины, обращения к которым пришли во время прохода, уже новее неё
+            final long cutoff = accesses[excess - 1];
+            final int before = buckets.size();
+            buckets.values().removeIf(bucket -> bucket.lastAccess() - cutoff <= 0);
+            log.debug("Превышен предел корзин ограничения запросов {}, вытеснено давно не использованных: {}",
+                    properties.getMaxKeys(), before - buckets.size());
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    private Map.Entry<String, RateLimitProperties.Rule> resolve(final String path) {
+        for (final Map.Entry<String, RateLimitProperties.Rule> route : routes) {
+            if (path.startsWith(route.getKey())) {
+                return route;
+            }
+        }
+        return Map.entry(DEFAULT_ROUTE, properties.getDefaultRule());
+    }
+}
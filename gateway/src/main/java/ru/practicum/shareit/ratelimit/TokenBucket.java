@@ -0,0 +1,46 @@
+package ru.practicum.shareit.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+final class TokenBucket {
+
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final double PERMIT = 1;
+
+    private final double permitsPerNano;
+    private final double capacity;
+    private final AtomicReference<State> state;
+    // обновляется и при отказе: клиент, упёршийся в лимит, остаётся активным и не вытесняется со свежей корзиной
+    private volatile long lastAccessAt;
+
+    public TokenBucket(final RateLimitProperties.Rule rule, final long now) {
+        this.permitsPerNano = rule.getPermitsPerSecond() / NANOS_PER_SECOND;
+        this.capacity = rule.getBurst();
+        this.state = new AtomicReference<>(new State(capacity, now));
+        this.lastAccessAt = now;
+    }
+
+    // 0 - разрешение выдано, иначе время в наносекундах до появления следующего
+    public long tryAcquire(final long now) {
+        lastAccessAt = now;
+        while (true) {
+            final State current = state.get();
+            final double refilled = Math.min(capacity,
+                    current.tokens() + Math.max(0, now - current.updatedAt()) * permitsPerNano);
+            if (refilled < PERMIT) {
+                return (long) Math.ceil((PERMIT - refilled) / permitsPerNano);
+            }
+            if (state.compareAndSet(current, new State(refilled - PERMIT, now))) {
+                return 0;
+            }
+        }
+    }
+
+    public long lastAccess() {
+        return lastAccessAt;
+    }
+
+    private record State(double tokens, long updatedAt) {
+    }
+}
@@ -1,12 +1,15 @@
 package ru.practicum.shareit.request;
 
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.HedgingPolicy;
+import ru.practicum.shareit.client.RequestCoalescer;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.RouteGuardRegistry;
 import ru.practicum.shareit.request.dto.ItemRequestCreateDto;
 
 import java.util.Map;
@@ -15,32 +18,34 @@ import java.util.Map;
 public class ItemRequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
-    public ItemRequestClient(@Value("${shareit-server.url}") final String serverUrl, final RestTemplateBuilder builder) {
-        super(builder.uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
-                .build()
-        );
+    public ItemRequestClient(@Value("${shareit-server.url}") final String serverUrl,
+                             final WebClient.Builder builder,
+                             final RequestCoalescer coalescer,
+                             final RouteGuardRegistry routeGuards,
+                             final ResponseCache cache,
+                             final HedgingPolicy hedging) {
+        super(API_PREFIX, builder.baseUrl(serverUrl + API_PREFIX).build(), coalescer, routeGuards, cache, hedging);
     }
 
-    public ResponseEntity<Object> getAllByOwnerId(final Long userId, final Integer from, final Integer size) {
+    public Mono<ResponseEntity<byte[]>> getAllByOwnerId(final Long userId, final Integer from, final Integer size) {
         final Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size);
         return get("?from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getAll(final Long userId, final Integer from, final Integer size) {
+    public Mono<ResponseEntity<byte[]>> getAll(final Long userId, final Integer from, final Integer size) {
         final Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size);
         return get("/all?from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getById(final Long userId, final Long itemRequestId) {
+    public Mono<ResponseEntity<byte[]>> getById(final Long userId, final Long itemRequestId) {
         return get("/" + itemRequestId, userId);
     }
 
-    public ResponseEntity<Object> create(final Long userId, final ItemRequestCreateDto requestDto) {
+    public Mono<ResponseEntity<byte[]>> create(final Long userId, final ItemRequestCreateDto requestDto) {
         return post("", userId, requestDto);
     }
 }
@@ -6,6 +6,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.request.dto.ItemRequestCreateDto;
 
 
@@ -18,28 +19,28 @@ public class ItemRequestController {
     private final ItemRequestClient itemRequestClient;
 
     @GetMapping
-    public ResponseEntity<Object> getAllByOwnerId(@RequestHeader(X_SHARER_USER_ID) final Long userId,
-                                                  @RequestParam(required = false, defaultValue = "0") @Min(0) final int from,
-                                                  @RequestParam(required = false, defaultValue = "20") @Min(1) final int size) {
+    public Mono<ResponseEntity<byte[]>> getAllByOwnerId(@RequestHeader(X_SHARER_USER_ID) final Long userId,
+                                                        @RequestParam(required = false, defaultValue = "0") @Min(0) final int from,
+                                                        @RequestParam(required = false, defaultValue = "20") @Min(1) final int size) {
         return itemRequestClient.getAllByOwnerId(userId, from, size);
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object> getAll(@RequestHeader(X_SHARER_USER_ID) final Long userId,
-                                         @RequestParam(required = false, defaultValue = "0") @Min(0) final int from,
-                                         @RequestParam(required = false, defaultValue = "20") @Min(1) final int size) {
+    public Mono<ResponseEntity<byte[]>> getAll(@RequestHeader(X_SHARER_USER_ID) final Long userId,
+                                               @RequestParam(required = false, defaultValue = "0") @Min(0) final int from,
+                                               @RequestParam(required = false, defaultValue = "20") @Min(1) final int size) {
         return itemRequestClient.getAll(userId, from, size);
     }
 
     @GetMapping("/{itemRequestId}")
-    public ResponseEntity<Object> getById(@RequestHeader(X_SHARER_USER_ID) final Long userId,
-                                          @PathVariable final Long itemRequestId) {
+    public Mono<ResponseEntity<byte[]>> getById(@RequestHeader(X_SHARER_USER_ID) final Long userId,
+                                                @PathVariable final Long itemRequestId) {
         return itemRequestClient.getById(userId, itemRequestId);
     }
 
     @PostMapping
-    public ResponseEntity<Object> create(@RequestHeader(X_SHARER_USER_ID) final Long userId,
-                                         @Valid @RequestBody final ItemRequestCreateDto itemRequestCreateDto) {
+    public Mono<ResponseEntity<byte[]>> create(@RequestHeader(X_SHARER_USER_ID) final Long userId,
+                                               @Valid @RequestBody final ItemRequestCreateDto itemRequestCreateDto) {
         return itemRequestClient.create(userId, itemRequestCreateDto);
     }
 }
@@ -1,41 +1,84 @@
 package ru.practicum.shareit.user;
 
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.HedgingPolicy;
+import ru.practicum.shareit.client.RequestCoalescer;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.RouteGuardRegistry;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
 @Service
 public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
 
-    public UserClient(@Value("${shareit-server.url}") final String serverUrl, final RestTemplateBuilder builder) {
-        super(builder.uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
-                .build());
+    public UserClient(@Value("${shareit-server.url}") final String serverUrl,
+                      final WebClient.Builder builder,
+                      final RequestCoalescer coalescer,
+                      final RouteGuardRegistry routeGuards,
+                      final ResponseCache cache,
+                      final HedgingPolicy hedging) {
+        super(API_PREFIX, builder.baseUrl(serverUrl + API_PREFIX).build(), coalescer, routeGuards, cache, hedging);
+    }
+
+    public Mono<ResponseEntity<byte[]>> getAll(final Long afterId, final Integer size) {
+        final Map<String, Object> parameters = Map.of(
+                "afterId", afterId,
+                "size", size
+        );
+        return get("?afterId={afterId}&size={size}", null, parameters);
     }
 
-    public ResponseEntity<Object> getAll() {
-        return get("");
+    // куски ответа сервера пересылаются клиенту по мере прихода, поток запроса не ждёт окончания выгрузки
+    public ResponseBodyEmitter stream(final Long afterId) {
+        final ResponseBodyEmitter emitter = new ResponseBodyEmitter();
+        final Disposable subscription = webClient.get()
+                .uri("?stream=true&afterId={afterId}", Map.of("afterId", afterId))
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .bodyToFlux(byte[].class)
+                // запись в сокет клиента блокирующая, поэтому не на потоках сетевого клиента
+                .publishOn(Schedulers.boundedElastic())
+                .subscribe(chunk -> send(emitter, chunk), emitter::completeWithError, emitter::complete);
+        emitter.onCompletion(subscription::dispose);
+        emitter.onTimeout(subscription::dispose);
+        emitter.onError(e -> subscription.dispose());
+        return emitter;
     }
 
-    public ResponseEntity<Object> getById(final Long userId) {
+    public Mono<ResponseEntity<byte[]>> getById(final Long userId) {
         return get("/" + userId);
     }
 
-    public ResponseEntity<Object> create(final UserDto requestDto) {
+    public Mono<ResponseEntity<byte[]>> create(final UserDto requestDto) {
         return post("", null, requestDto);
     }
 
-    public ResponseEntity<Object> update(final Long userId, final UserDto userDto) {
+    public Mono<ResponseEntity<byte[]>> update(final Long userId, final UserDto userDto) {
         return patch("/" + userId, userId, null, userDto);
     }
 
-    public void delete(final Long userId) {
-        delete("/" + userId);
+    public Mono<ResponseEntity<byte[]>> delete(final Long userId) {
+        return delete("/" + userId);
+    }
+
+    private static void send(final ResponseBodyEmitter emitter, final byte[] chunk) {
+        try {
+            emitter.send(chunk, MediaType.APPLICATION_JSON);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
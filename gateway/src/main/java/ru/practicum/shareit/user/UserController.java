@@ -1,9 +1,13 @@
 package ru.practicum.shareit.user;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -11,11 +15,15 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.user.dto.UserDto;
 
 
 @Slf4j
+@Validated
 @RestController
 @RequestMapping(path = "/users")
 @RequiredArgsConstructor
@@ -24,31 +32,41 @@ public class UserController {
     private final UserClient userClient;
 
     @PostMapping
-    public ResponseEntity<Object> create(@Valid @RequestBody final UserDto userDto) {
+    public Mono<ResponseEntity<byte[]>> create(@Valid @RequestBody final UserDto userDto) {
         log.debug("Получен POST-запрос к эндпоинту: '/users' на добавление пользователя");
         return userClient.create(userDto);
     }
 
     @PatchMapping("/{userId}")
-    public ResponseEntity<Object> update(@PathVariable final Long userId,
-                                         @RequestBody final UserDto userDto) {
+    public Mono<ResponseEntity<byte[]>> update(@PathVariable final Long userId,
+                                               @RequestBody final UserDto userDto) {
         log.debug("Получен PATCH-запрос к эндпоинту: '/users' на обновление пользователя с ID={}", userId);
         return userClient.update(userId, userDto);
     }
 
     @DeleteMapping("/{userId}")
-    public void delete(@PathVariable final Long userId) {
+    public Mono<ResponseEntity<byte[]>> delete(@PathVariable final Long userId) {
         log.debug("Получен DELETE-запрос к эндпоинту: '/users' на удаление пользователя с ID={}", userId);
-        userClient.delete(userId);
+        return userClient.delete(userId);
     }
 
+    @GetMapping(params = {"size", "stream!=true"})
+    public Mono<ResponseEntity<byte[]>> getUsers(@RequestParam(defaultValue = "0") @Min(0) final Long afterId,
+                                                 @RequestParam @Min(1) @Max(1000) final int size) {
+        return userClient.getAll(afterId, size);
+    }
+
+    // без size, как и раньше, возвращаются все пользователи - потоком
     @GetMapping
-    public ResponseEntity<Object> getUsers() {
-        return userClient.getAll();
+    public ResponseEntity<ResponseBodyEmitter> streamUsers(@RequestParam(defaultValue = "0") @Min(0) final Long afterId) {
+        log.debug("Получен GET-запрос к эндпоинту: '/users' на потоковую выгрузку пользователей после ID={}", afterId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(userClient.stream(afterId));
     }
 
     @GetMapping("/{userId}")
-    public ResponseEntity<Object> getUserById(@PathVariable final Long userId) {
+    public Mono<ResponseEntity<byte[]>> getUserById(@PathVariable final Long userId) {
         return userClient.getById(userId);
     }
 }
@@ -0,0 +1,126 @@
+package ru.practicum.shareit.batch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.batch.dto.BatchResult;
+import ru.practicum.shareit.batch.dto.BatchSubRequest;
+import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.ratelimit.RateLimiterRegistry;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+class BatchServiceTest {
+
+    private final BaseClient itemClient = Mockito.mock(BaseClient.class);
+    private final BaseClient bookingClient = Mockito.mock(BaseClient.class);
+    private final RateLimiterRegistry rateLimiterRegistry = Mockito.mock(RateLimiterRegistry.class);
+    private final BatchService batchService = new BatchService(List.of(itemClient, bookingClient), rateLimiterRegistry,
+            new ObjectMapper(), true, 5, 2);
+
+    @BeforeEach
+    void setUp() {
+        Mockito.when(itemClient.getRoute()).thenReturn("/items");
+        Mockito.when(bookingClient.getRoute()).thenReturn("/bookings");
+        Mockito.when(itemClient.forwardGet(Mockito.anyString(), Mockito.any(), Mockito.any()))
+                .thenReturn(Mono.just(ResponseEntity.ok("{\"id\":1}".getBytes(StandardCharsets.UTF_8))));
+        Mockito.when(bookingClient.forwardGet(Mockito.anyString(), Mockito.any(), Mockito.any()))
+                .thenReturn(Mono.just(ResponseEntity.ok("[]".getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    void execute_NormalizesToRouteTemplates() {
+        final List<BatchResult> results = batchService.execute(1L, List.of(
+                get("/items/5?fields=id,name"),
+                get("/bookings/owner?state=past&size=10"))).block();
+
+        Assertions.assertThat(results).extracting(BatchResult::getStatus).containsExactly(200, 200);
+        Assertions.assertThat(results).extracting(BatchResult::getBody).containsExactly("{\"id\":1}", "[]");
+        Mockito.verify(itemClient).forwardGet("/5?fields={fields}", 1L, Map.of("fields", "id,name"));
+        Mockito.verify(bookingClient).forwardGet("/owner?size={size}&state={state}", 1L,
+                Map.of("state", "PAST", "size", "10"));
+        Mockito.verify(rateLimiterRegistry).tryAcquire("user:1", "/items/{id}");
+        Mockito.verify(rateLimiterRegistry).tryAcquire("user:1", "/bookings/owner");
+    }
+
+    @Test
+    void execute_RejectsUnknownShapes() {
+        final List<BatchResult> results = batchService.execute(1L, List.of(
+                get("/items/abc"),
+                get("/items/5/comment"),
+                get("/bookings/stream"),
+                get("/users?stream=true"),
+                get("items/5"))).block();
+
+        Assertions.assertThat(results).extracting(BatchResult::getStatus).containsOnly(400);
+        Mockito.verify(itemClient, Mockito.never()).forwardGet(Mockito.anyString(), Mockito.any(), Mockito.any());
+        Mockito.verifyNoInteractions(rateLimiterRegistry);
+    }
+
+    @Test
+    void execute_ValidatesParameters() {
+        final List<BatchResult> results = batchService.execute(1L, List.of(
+                get("/items?from=-1"),
+                get("/items?size=0"),
+                get("/bookings?state=unknown"),
+                get("/items/search?from=0"),
+                get("/items/5?from=0"))).block();
+
+        Assertions.assertThat(results).extracting(BatchResult::getStatus).containsOnly(400);
+        Assertions.assertThat(results.get(3).getBody()).contains("text");
+        Mockito.verifyNoInteractions(rateLimiterRegistry);
+    }
+
+    @Test
+    void execute_DecodesQueryValues() {
+        batchService.execute(1L, List.of(get("/items/search?text=%D0%B4%D1%80%D0%B5%D0%BB%D1%8C"))).block();
+
+        Mockito.verify(itemClient).forwardGet("/search?text={text}", 1L, Map.of("text", "дрель"));
+    }
+
+    @Test
+    void execute_AssemblesSubRequestsOnCallerThread() {
+        final Mono<List<BatchResult>> batch = batchService.execute(1L, List.of(
+                get("/items/1"), get("/items/2"), get("/items/3"), get("/items/4")));
+
+        // подписки ещё не было, а все подзапросы уже собраны в текущем потоке
+        Mockito.verify(itemClient, Mockito.times(4)).forwardGet(Mockito.anyString(), Mockito.any(), Mockito.any());
+        Assertions.assertThat(batch.block()).hasSize(4);
+    }
+
+    @Test
+    void execute_OnlyGetAllowed() {
+        final List<BatchResult> results = batchService.execute(1L, List.of(
+                BatchSubRequest.builder().method("DELETE").path("/items/1").build())).block();
+
+        Assertions.assertThat(results).extracting(BatchResult::getStatus).containsExactly(405);
+    }
+
+    @Test
+    void execute_RateLimited() {
+        Mockito.when(rateLimiterRegistry.tryAcquire(Mockito.anyString(), Mockito.anyString())).thenReturn(1L);
+
+        final List<BatchResult> results = batchService.execute(1L, List.of(get("/items/1"))).block();
+
+        Assertions.assertThat(results).extracting(BatchResult::getStatus).containsExactly(429);
+    }
+
+    @Test
+    void execute_TooLarge() {
+        final List<BatchSubRequest> requests = List.of(get("/items/1"), get("/items/2"), get("/items/3"),
+                get("/items/4"), get("/items/5"), get("/items/6"));
+
+        Assertions.assertThatThrownBy(() -> batchService.execute(1L, requests))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static BatchSubRequest get(final String path) {
+        return BatchSubRequest.builder().method("GET").path(path).build();
+    }
+}
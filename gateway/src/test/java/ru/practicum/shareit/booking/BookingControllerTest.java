@@ -0,0 +1,213 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import ru.practicum.shareit.client.BalancingProperties;
+import ru.practicum.shareit.client.HedgingPolicy;
+import ru.practicum.shareit.client.HedgingProperties;
+import ru.practicum.shareit.client.LoadBalancingFilter;
+import ru.practicum.shareit.client.RequestCoalescer;
+import ru.practicum.shareit.client.ResilienceProperties;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ResponseCacheProperties;
+import ru.practicum.shareit.client.RouteGuardRegistry;
+import ru.practicum.shareit.client.ServerBalancer;
+import ru.practicum.shareit.exception.ErrorHandler;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+class BookingControllerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<ClientRequest> requests = new CopyOnWriteArrayList<>();
+
+    @Test
+    void getAllByState_ForwardsStateAndFields() throws Exception {
+        final MockMvc mvc = mvc(request -> Mono.just(json("[]")));
+
+        final MvcResult result = mvc.perform(MockMvcRequestBuilders.get("/bookings/owner")
+                        .header(BookingController.X_SHARER_USER_ID, 1)
+                        .param("state", "waiting")
+                        .param("fields", "id,status"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        mvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().string("[]"));
+
+        Assertions.assertThat(requests).singleElement().satisfies(request -> {
+            Assertions.assertThat(request.url().getPath()).isEqualTo("/bookings/owner");
+            Assertions.assertThat(request.url().getQuery()).isEqualTo("state=WAITING&from=0&size=20&fields=id,status");
+            Assertions.assertThat(request.headers().getFirst(BookingController.X_SHARER_USER_ID)).isEqualTo("1");
+        });
+    }
+
+    @Test
+    void getAllByState_RejectsUnknownState() throws Exception {
+        final MockMvc mvc = mvc(request -> Mono.just(json("[]")));
+
+        mvc.perform(MockMvcRequestBuilders.get("/bookings")
+                        .header(BookingController.X_SHARER_USER_ID, 1)
+                        .param("state", "UNSUPPORTED"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.error").value("Unknown state: UNSUPPORTED"));
+
+        Assertions.assertThat(requests).isEmpty();
+    }
+
+    @Test
+    void update_ForwardsApproval() throws Exception {
+        final MockMvc mvc = mvc(request -> Mono.just(json("{\"id\":3,\"status\":\"APPROVED\"}")));
+
+        final MvcResult result = mvc.perform(MockMvcRequestBuilders.patch("/bookings/3")
+                        .header(BookingController.X_SHARER_USER_ID, 1)
+                        .param("approved", "true"))
+                .andReturn();
+        mvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.status").value("APPROVED"));
+
+        Assertions.assertThat(requests).singleElement().satisfies(request -> {
+            Assertions.assertThat(request.method()).isEqualTo(HttpMethod.PATCH);
+            Assertions.assertThat(request.url().getPath()).isEqualTo("/bookings/3");
+            Assertions.assertThat(request.url().getQuery()).isEqualTo("approved=true");
+        });
+    }
+
+    @Test
+    void create_ForwardsBody() throws Exception {
+        final MockMvc mvc = mvc(request -> Mono.just(ClientResponse.create(HttpStatus.CREATED)
+                .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                .body("{\"id\":1}")
+                .build()));
+
+        final MvcResult result = mvc.perform(MockMvcRequestBuilders.post("/bookings")
+                        .header(BookingController.X_SHARER_USER_ID, 1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"start\":\"2100-01-01T10:00:00\",\"end\":\"2100-01-02T10:00:00\",\"itemId\":5}"))
+                .andReturn();
+        mvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isCreated());
+
+        Assertions.assertThat(requests).singleElement()
+                .satisfies(request -> Assertions.assertThat(request.method()).isEqualTo(HttpMethod.POST));
+    }
+
+    @Test
+    void getBookingById_ForwardsId() throws Exception {
+        final MockMvc mvc = mvc(request -> Mono.just(json("{\"id\":4}")));
+
+        final MvcResult result = mvc.perform(MockMvcRequestBuilders.get("/bookings/4")
+                        .header(BookingController.X_SHARER_USER_ID, 1))
+                .andReturn();
+        mvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(4));
+
+        Assertions.assertThat(requests).singleElement()
+                .satisfies(request -> Assertions.assertThat(request.url().getPath()).isEqualTo("/bookings/4"));
+    }
+
+    @Test
+    void stream_RelaysServerEvents() throws Exception {
+        final Sinks.Many<DataBuffer> upstream = Sinks.many().unicast().onBackpressureBuffer();
+        final MockMvc mvc = mvc(request -> Mono.just(ClientResponse.create(HttpStatus.OK)
+                .header("Content-Type", MediaType.TEXT_EVENT_STREAM_VALUE)
+                .body(upstream.asFlux())
+                .build()));
+
+        final MvcResult result = mvc.perform(MockMvcRequestBuilders.get("/bookings/stream")
+                        .header(BookingController.X_SHARER_USER_ID, 2))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        // событие и комментарий-пульс доходят до клиента без изменений
+        upstream.tryEmitNext(chunk("id:7\nevent:booking\ndata:{\"id\":7}\n\n"));
+        upstream.tryEmitNext(chunk(":ping\n\n"));
+        upstream.tryEmitComplete();
+        result.getAsyncResult(Duration.ofSeconds(5).toMillis());
+
+        Assertions.assertThat(result.getResponse().getContentAsString())
+                .contains("id:7\n", "event:booking\n", "data:{\"id\":7}\n", ":ping\n");
+        Assertions.assertThat(requests).singleElement().satisfies(request -> {
+            Assertions.assertThat(request.url().getPath()).isEqualTo("/bookings/stream");
+            Assertions.assertThat(request.headers().getAccept()).containsExactly(MediaType.TEXT_EVENT_STREAM);
+            Assertions.assertThat(request.headers().getFirst(BookingController.X_SHARER_USER_ID)).isEqualTo("2");
+        });
+    }
+
+    @Test
+    void stream_MergesEventsOfEveryInstance() throws Exception {
+        // бронирование подтверждено на одном экземпляре, создано на другом: подписчик получает оба события
+        final MockMvc mvc = mvc(List.of("http://server-a:9090", "http://server-b:9090"), request ->
+                Mono.just(ClientResponse.create(HttpStatus.OK)
+                        .header("Content-Type", MediaType.TEXT_EVENT_STREAM_VALUE)
+                        .body(":connected\n\nid:" + request.url().getHost() + "\nevent:booking\ndata:{}\n\n")
+                        .build()));
+
+        final MvcResult result = mvc.perform(MockMvcRequestBuilders.get("/bookings/stream")
+                        .header(BookingController.X_SHARER_USER_ID, 2))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult(Duration.ofSeconds(5).toMillis());
+
+        final String content = result.getResponse().getContentAsString();
+        Assertions.assertThat(content).contains("id:server-a\n", "id:server-b\n");
+        Assertions.assertThat(content.split(":connected", -1)).hasSize(2);
+        Assertions.assertThat(requests).extracting(request -> request.url().getHost())
+                .containsExactlyInAnyOrder("server-a", "server-b");
+    }
+
+    private MockMvc mvc(final Function<ClientRequest, Mono<ClientResponse>> server) {
+        return mvc(List.of("http://server"), server);
+    }
+
+    private MockMvc mvc(final List<String> urls, final Function<ClientRequest, Mono<ClientResponse>> server) {
+        final ServerBalancer balancer = new ServerBalancer(urls, new BalancingProperties(), meterRegistry);
+        final HedgingPolicy hedging = new HedgingPolicy(new HedgingProperties(), balancer, meterRegistry);
+        final WebClient.Builder builder = WebClient.builder();
+        if (balancer.isBalanced()) {
+            builder.filter(new LoadBalancingFilter(balancer));
+        }
+        builder.exchangeFunction(request -> {
+            requests.add(request);
+            return server.apply(request);
+        });
+        final BookingClient bookingClient = new BookingClient(urls.getFirst(), Duration.ofMinutes(1), builder,
+                new RequestCoalescer(true, Duration.ofSeconds(2)),
+                new RouteGuardRegistry(new ResilienceProperties(), meterRegistry, hedging),
+                new ResponseCache(new ResponseCacheProperties(), meterRegistry), hedging, balancer);
+        return MockMvcBuilders.standaloneSetup(new BookingController(bookingClient))
+                .setControllerAdvice(new ErrorHandler())
+                .build();
+    }
+
+    private static ClientResponse json(final String body) {
+        return ClientResponse.create(HttpStatus.OK)
+                .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                .body(body)
+                .build();
+    }
+
+    private static DataBuffer chunk(final String value) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
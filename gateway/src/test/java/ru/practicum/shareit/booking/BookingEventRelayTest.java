@@ -0,0 +1,55 @@
+package ru.practicum.shareit.booking;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.io.IOException;
+
+class BookingEventRelayTest {
+
+    private final SseEmitter emitter = Mockito.mock(SseEmitter.class);
+
+    @Test
+    void hookOnError_CompletesEmitterWithError() {
+        final IllegalStateException failure = new IllegalStateException("сервер недоступен");
+        final BookingEventRelay relay = new BookingEventRelay(emitter);
+
+        Flux.<ServerSentEvent<String>>error(failure).subscribe(relay);
+
+        Mockito.verify(emitter).completeWithError(failure);
+        Mockito.verify(emitter, Mockito.never()).complete();
+    }
+
+    @Test
+    void hookOnNext_CancelsUpstreamWhenClientIsGone() throws IOException {
+        Mockito.doThrow(new IOException("Broken pipe")).when(emitter).send(Mockito.any(SseEmitter.SseEventBuilder.class));
+        final Sinks.Many<ServerSentEvent<String>> upstream = Sinks.many().unicast().onBackpressureBuffer();
+        final BookingEventRelay relay = new BookingEventRelay(emitter);
+        upstream.asFlux().subscribe(relay);
+
+        upstream.tryEmitNext(ServerSentEvent.builder("{}").build());
+
+        Assertions.assertThat(relay.isDisposed()).isTrue();
+        Assertions.assertThat(upstream.currentSubscriberCount()).isZero();
+    }
+
+    @Test
+    void hookOnSubscribe_CompletesEmitterOnTimeout() {
+        final Sinks.Many<ServerSentEvent<String>> upstream = Sinks.many().unicast().onBackpressureBuffer();
+        final BookingEventRelay relay = new BookingEventRelay(emitter);
+        upstream.asFlux().subscribe(relay);
+        final ArgumentCaptor<Runnable> onTimeout = ArgumentCaptor.forClass(Runnable.class);
+        Mockito.verify(emitter).onTimeout(onTimeout.capture());
+
+        onTimeout.getValue().run();
+
+        Assertions.assertThat(relay.isDisposed()).isTrue();
+        Mockito.verify(emitter).complete();
+    }
+}
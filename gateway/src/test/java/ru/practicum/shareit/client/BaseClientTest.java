@@ -0,0 +1,206 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+class BaseClientTest {
+
+    private static final String ROUTE = "/items";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final HedgingProperties hedgingProperties = new HedgingProperties();
+    private final ResilienceProperties resilienceProperties = new ResilienceProperties();
+    private final ResponseCacheProperties cacheProperties = new ResponseCacheProperties();
+    private final List<ClientRequest> requests = new CopyOnWriteArrayList<>();
+    private final ResponseCache cache = new ResponseCache(cacheProperties, meterRegistry);
+
+    @Test
+    void get_HedgesSlowRequestToOtherInstance() {
+        hedgingProperties.setEnabled(true);
+        hedgingProperties.setBudgetPercent(100);
+        hedgingProperties.setWindowSize(64);
+        hedgingProperties.setMinSamples(1);
+        final ServerBalancer balancer = new ServerBalancer(List.of("http://server-a:9090", "http://server-b:9090"),
+                new BalancingProperties(), meterRegistry);
+        final HedgingPolicy hedging = new HedgingPolicy(hedgingProperties, balancer, meterRegistry);
+        final RouteGuardRegistry routeGuards = new RouteGuardRegistry(resilienceProperties, meterRegistry, hedging);
+        for (int i = 0; i < 64; i++) {
+            routeGuards.forRoute("/items/{id}").getLatencies().record(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        // первый экземпляр отвечает дольше квантиля, повтор уходит на второй и отвечает сразу
+        final BaseClient client = client(WebClient.builder().filter(new LoadBalancingFilter(balancer)), request ->
+                requests.size() == 1 ?
+                        Mono.delay(Duration.ofSeconds(2)).map(tick -> json("\"slow\"")) :
+                        Mono.just(json("\"fast\"")), routeGuards, hedging);
+
+        final ResponseEntity<byte[]> response = client.get("/5", 1L).block(Duration.ofSeconds(1));
+
+        Assertions.assertThat(new String(response.getBody(), StandardCharsets.UTF_8)).isEqualTo("\"fast\"");
+        Assertions.assertThat(requests).hasSize(2);
+        Assertions.assertThat(requests.get(0).url().getHost()).isNotEqualTo(requests.get(1).url().getHost());
+        Assertions.assertThat(meterRegistry.get("shareit.gateway.hedge.requests").tag("result", "won")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void get_DoesNotHedgeWithoutLatencyStatistics() {
+        hedgingProperties.setEnabled(true);
+        hedgingProperties.setBudgetPercent(100);
+        final ServerBalancer balancer = new ServerBalancer(List.of("http://server-a:9090", "http://server-b:9090"),
+                new BalancingProperties(), meterRegistry);
+        final HedgingPolicy hedging = new HedgingPolicy(hedgingProperties, balancer, meterRegistry);
+        final BaseClient client = client(WebClient.builder().filter(new LoadBalancingFilter(balancer)),
+                request -> Mono.delay(Duration.ofMillis(50)).map(tick -> json("{}")),
+                new RouteGuardRegistry(resilienceProperties, meterRegistry, hedging), hedging);
+
+        client.get("/5", 1L).block();
+
+        Assertions.assertThat(requests).hasSize(1);
+    }
+
+    @Test
+    void get_ForwardsConditionalHeadersPastCache() {
+        final MockHttpServletRequest incoming = new MockHttpServletRequest("GET", "/items/5");
+        incoming.addHeader(HttpHeaders.IF_NONE_MATCH, "\"v1\"");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(incoming));
+        final BaseClient client = client(request -> Mono.just(ClientResponse.create(HttpStatus.NOT_MODIFIED)
+                .header(HttpHeaders.ETAG, "\"v1\"")
+                .build()));
+        try {
+            final ResponseEntity<byte[]> response = client.get("/5", 1L).block();
+
+            Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+            Assertions.assertThat(response.getHeaders().getETag()).isEqualTo("\"v1\"");
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+        Assertions.assertThat(requests).singleElement().satisfies(request -> {
+            Assertions.assertThat(request.headers().getIfNoneMatch()).containsExactly("\"v1\"");
+            Assertions.assertThat(request.headers().getFirst("X-Sharer-User-Id")).isEqualTo("1");
+            Assertions.assertThat(request.headers().getFirst(BaseClient.REQUEST_TIMEOUT_HEADER)).isEqualTo("4900");
+        });
+        Assertions.assertThat(cache.sizeInBytes()).isZero();
+    }
+
+    @Test
+    void patch_ForwardsIfMatch() {
+        final MockHttpServletRequest incoming = new MockHttpServletRequest("PATCH", "/items/5");
+        incoming.addHeader(HttpHeaders.IF_MATCH, "\"v1\"");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(incoming));
+        final BaseClient client = client(request -> Mono.just(ClientResponse.create(HttpStatus.PRECONDITION_FAILED)
+                .build()));
+        try {
+            Assertions.assertThat(client.patch("/5", 1L, Map.of("name", "Дрель")).block().getStatusCode())
+                    .isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+        Assertions.assertThat(requests).singleElement()
+                .satisfies(request -> Assertions.assertThat(request.headers().getIfMatch()).containsExactly("\"v1\""));
+    }
+
+    @Test
+    void get_RevalidatesCachedResponse() {
+        final BaseClient client = client(request -> Mono.just(request.headers().getIfNoneMatch().isEmpty() ?
+                tagged("\"v1\"", "{\"id\":5}") :
+                ClientResponse.create(HttpStatus.NOT_MODIFIED).build()));
+
+        client.get("/5", 1L).block();
+        final ResponseEntity<byte[]> revalidated = client.get("/5", 1L).block();
+
+        Assertions.assertThat(revalidated.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Assertions.assertThat(new String(revalidated.getBody(), StandardCharsets.UTF_8)).isEqualTo("{\"id\":5}");
+        Assertions.assertThat(requests).hasSize(2);
+        Assertions.assertThat(requests.get(1).headers().getIfNoneMatch()).containsExactly("\"v1\"");
+    }
+
+    @Test
+    void patch_InvalidatesEntityAndCollection() {
+        final BaseClient client = client(request -> Mono.just(tagged("\"v1\"", "{}")));
+        client.get("/5", 1L).block();
+        client.get("/search?text={text}", 1L, Map.of("text", "дрель")).block();
+        client.get("/6", 1L).block();
+
+        client.patch("/5", 1L, Map.of("name", "Дрель")).block();
+        requests.clear();
+        client.get("/5", 1L).block();
+        client.get("/search?text={text}", 1L, Map.of("text", "дрель")).block();
+        client.get("/6", 1L).block();
+
+        Assertions.assertThat(requests).extracting(request -> request.headers().getIfNoneMatch())
+                .containsExactly(List.of(), List.of(), List.of("\"v1\""));
+    }
+
+    @Test
+    void get_DoesNotCacheResponseThatRacedWrite() {
+        final Sinks.One<ClientResponse> slowRead = Sinks.one();
+        final BaseClient client = client(request -> request.method() == HttpMethod.GET && requests.size() == 1 ?
+                slowRead.asMono() :
+                Mono.just(tagged("\"v2\"", "{}")));
+        final CompletableFuture<ResponseEntity<byte[]>> read = client.get("/5", 1L).toFuture();
+
+        // ответ на чтение, начатое до изменения, приходит уже после него
+        client.patch("/5", 1L, Map.of("name", "Дрель")).block();
+        slowRead.tryEmitValue(tagged("\"v1\"", "{\"name\":\"старое\"}"));
+        read.join();
+
+        Assertions.assertThat(cache.sizeInBytes()).isZero();
+    }
+
+    private BaseClient client(final ExchangeFunction server) {
+        final HedgingPolicy hedging = new HedgingPolicy(hedgingProperties, Mockito.mock(ServerBalancer.class), meterRegistry);
+        return client(WebClient.builder(), server, new RouteGuardRegistry(resilienceProperties, meterRegistry, hedging),
+                hedging);
+    }
+
+    private BaseClient client(final WebClient.Builder builder, final ExchangeFunction server,
+                              final RouteGuardRegistry routeGuards, final HedgingPolicy hedging) {
+        final WebClient webClient = builder
+                .baseUrl("http://server:9090" + ROUTE)
+                .exchangeFunction(request -> {
+                    requests.add(request);
+                    return server.exchange(request);
+                })
+                .build();
+        return new BaseClient(ROUTE, webClient, new RequestCoalescer(true, Duration.ofSeconds(2)), routeGuards,
+                cache, hedging);
+    }
+
+    private static ClientResponse tagged(final String eTag, final String body) {
+        return ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.ETAG, eTag)
+                .header("Content-Type", "application/json")
+                .body(body)
+                .build();
+    }
+
+    private static ClientResponse json(final String body) {
+        return ClientResponse.create(HttpStatus.OK)
+                .header("Content-Type", "application/json")
+                .body(body)
+                .build();
+    }
+}
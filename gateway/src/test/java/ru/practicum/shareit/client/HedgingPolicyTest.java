@@ -0,0 +1,73 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+class HedgingPolicyTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final HedgingProperties properties = new HedgingProperties();
+    private final ServerBalancer balancer = Mockito.mock(ServerBalancer.class);
+
+    @Test
+    void isActive_RequiresSecondInstance() {
+        properties.setEnabled(true);
+
+        Assertions.assertThat(new HedgingPolicy(properties, balancer, meterRegistry).isActive()).isFalse();
+
+        Mockito.when(balancer.isBalanced()).thenReturn(true);
+        Assertions.assertThat(new HedgingPolicy(properties, balancer, meterRegistry).isActive()).isTrue();
+    }
+
+    @Test
+    void tryAcquire_SpendsBudgetEarnedByRequests() {
+        properties.setBudgetPercent(50);
+        properties.setMaxBurst(1);
+        final HedgingPolicy hedging = new HedgingPolicy(properties, balancer, meterRegistry);
+
+        Assertions.assertThat(hedging.tryAcquire()).isFalse();
+        hedging.onRequest();
+        Assertions.assertThat(hedging.tryAcquire()).isFalse();
+        hedging.onRequest();
+        Assertions.assertThat(hedging.tryAcquire()).isTrue();
+
+        // запас ограничен max-burst повторами
+        for (int i = 0; i < 10; i++) {
+            hedging.onRequest();
+        }
+        Assertions.assertThat(hedging.tryAcquire()).isTrue();
+        Assertions.assertThat(hedging.tryAcquire()).isFalse();
+        Assertions.assertThat(meterRegistry.get("shareit.gateway.hedge.requests").tag("result", "sent")
+                .counter().count()).isEqualTo(2);
+        Assertions.assertThat(meterRegistry.get("shareit.gateway.hedge.requests").tag("result", "budget_exhausted")
+                .counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    void delay_WaitsForSamplesAndRespectsMinimum() {
+        properties.setWindowSize(64);
+        properties.setMinSamples(64);
+        properties.setQuantile(0.5);
+        properties.setMinDelay(Duration.ofMillis(10));
+        final HedgingPolicy hedging = new HedgingPolicy(properties, balancer, meterRegistry);
+        final LatencyWindow window = hedging.newWindow();
+
+        for (int i = 1; i < 64; i++) {
+            window.record(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        Assertions.assertThat(hedging.delay(window)).isNull();
+
+        window.record(TimeUnit.MILLISECONDS.toNanos(64));
+        Assertions.assertThat(window.getQuantileNanos()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(32));
+        Assertions.assertThat(hedging.delay(window)).isEqualTo(Duration.ofMillis(32));
+
+        properties.setMinDelay(Duration.ofMillis(100));
+        Assertions.assertThat(new HedgingPolicy(properties, balancer, meterRegistry).delay(window))
+                .isEqualTo(Duration.ofMillis(100));
+    }
+}
@@ -0,0 +1,131 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static ru.practicum.shareit.booking.BookingController.X_SHARER_USER_ID;
+
+class LoadBalancingFilterTest {
+
+    private final BalancingProperties properties = new BalancingProperties();
+    private final ServerBalancer balancer = new ServerBalancer(List.of("http://server-a:9090", "http://server-b:9091"),
+            properties, new SimpleMeterRegistry());
+    private final LoadBalancingFilter filter = new LoadBalancingFilter(balancer);
+    private final List<URI> sent = new ArrayList<>();
+
+    @Test
+    void filter_RewritesToChosenInstance() {
+        final AtomicReference<ServerInstance> chosen = new AtomicReference<>();
+        final ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("http://server:9090/items?text=%D0%B4"))
+                .attribute(LoadBalancingFilter.CHOSEN_INSTANCE, chosen)
+                .build();
+
+        filter.filter(request, answering(HttpStatus.OK)).block();
+
+        Assertions.assertThat(sent).singleElement().satisfies(uri -> {
+            Assertions.assertThat(uri.getHost()).isEqualTo(chosen.get().getUri().getHost());
+            Assertions.assertThat(uri.getPort()).isEqualTo(chosen.get().getUri().getPort());
+            Assertions.assertThat(uri.getRawPath()).isEqualTo("/items");
+            Assertions.assertThat(uri.getRawQuery()).isEqualTo("text=%D0%B4");
+        });
+        Assertions.assertThat(chosen.get().getOutstanding()).isZero();
+    }
+
+    @Test
+    void filter_AvoidsExcludedInstance() {
+        final ServerInstance excluded = balancer.choose(null, null);
+        final ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("http://server:9090/items/5"))
+                .attribute(LoadBalancingFilter.EXCLUDED_INSTANCE, excluded)
+                .build();
+
+        filter.filter(request, answering(HttpStatus.OK)).block();
+
+        Assertions.assertThat(sent).singleElement()
+                .satisfies(uri -> Assertions.assertThat(uri.getHost()).isNotEqualTo(excluded.getUri().getHost()));
+    }
+
+    @Test
+    void filter_EjectsInstanceOnUnavailableOrIoError() {
+        properties.setFailureThreshold(1);
+        properties.setAffinity(BalancingProperties.Affinity.ITEM);
+        final ServerInstance owner = balancer.choose(7L, null);
+        final ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("http://server:9090/items/7")).build();
+
+        filter.filter(request, answering(HttpStatus.SERVICE_UNAVAILABLE)).block();
+        Assertions.assertThat(owner.isEjected(System.nanoTime())).isTrue();
+
+        final ServerInstance other = balancer.choose(7L, null);
+        properties.setMaxEjectedPercent(100);
+        Assertions.assertThatThrownBy(() -> filter.filter(request, next -> Mono.error(new IOException("обрыв"))).block())
+                .hasCauseInstanceOf(IOException.class);
+        Assertions.assertThat(other.isEjected(System.nanoTime())).isTrue();
+    }
+
+    @Test
+    void filter_RequestErrorsDoNotEject() {
+        properties.setFailureThreshold(1);
+        final ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("http://server:9090/users/1")).build();
+
+        filter.filter(request, answering(HttpStatus.INTERNAL_SERVER_ERROR)).block();
+        filter.filter(request, answering(HttpStatus.GATEWAY_TIMEOUT)).block();
+
+        final ServerInstance first = balancer.choose(null, null);
+        final ServerInstance second = balancer.choose(null, first);
+        Assertions.assertThat(sent).hasSize(2);
+        Assertions.assertThat(first.isEjected(System.nanoTime())).isFalse();
+        Assertions.assertThat(second.isEjected(System.nanoTime())).isFalse();
+    }
+
+    @Test
+    void filter_PinsUserStateToOneInstance() {
+        // удаление пользователя и проверяющие его запросы попадают туда, где лежит его запись в кеше существования
+        for (int i = 0; i < 10; i++) {
+            filter.filter(ClientRequest.create(HttpMethod.DELETE, URI.create("http://server:9090/users/5")).build(),
+                    answering(HttpStatus.NO_CONTENT)).block();
+            filter.filter(ClientRequest.create(HttpMethod.GET, URI.create("http://server:9090/bookings/owner"))
+                    .header(X_SHARER_USER_ID, "5")
+                    .build(), answering(HttpStatus.OK)).block();
+            filter.filter(ClientRequest.create(HttpMethod.POST, URI.create("http://server:9090/items/7/comment"))
+                    .header(X_SHARER_USER_ID, "5")
+                    .build(), answering(HttpStatus.OK)).block();
+        }
+
+        Assertions.assertThat(sent).hasSize(30)
+                .extracting(URI::getPort)
+                .containsOnly(balancer.chooseForUser(5L).getUri().getPort());
+    }
+
+    @Test
+    void filter_SendsToTargetInstance() {
+        final ServerInstance target = balancer.getInstances().getLast();
+        final ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("http://server:9090/bookings/stream"))
+                .header(X_SHARER_USER_ID, "5")
+                .attribute(LoadBalancingFilter.TARGET_INSTANCE, target)
+                .build();
+
+        filter.filter(request, answering(HttpStatus.OK)).block();
+
+        Assertions.assertThat(sent).singleElement()
+                .satisfies(uri -> Assertions.assertThat(uri.getPort()).isEqualTo(target.getUri().getPort()));
+    }
+
+    private ExchangeFunction answering(final HttpStatus status) {
+        return request -> {
+            sent.add(request.url());
+            return Mono.just(ClientResponse.create(status).build());
+        };
+    }
+}
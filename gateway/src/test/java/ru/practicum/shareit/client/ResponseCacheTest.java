@@ -0,0 +1,137 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+import ru.practicum.shareit.config.GatewayTiming;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+class ResponseCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ResponseCacheProperties properties = new ResponseCacheProperties();
+    private final ResponseCache cache = new ResponseCache(properties, meterRegistry);
+
+    @Test
+    void onResponse_StoresAndRevalidates() {
+        final ResponseEntity<byte[]> first = tagged("\"v1\"", "{\"id\":5}");
+        Assertions.assertThat(cache.onResponse("/items/5", "/items/5", cache.ticket("/items/5"), null, first))
+                .isSameAs(first);
+
+        final ResponseCache.Entry cached = cache.lookup("/items/5");
+        Assertions.assertThat(cached.getETag()).isEqualTo("\"v1\"");
+        Assertions.assertThat(cache.isFresh(cached)).isFalse();
+
+        final ResponseEntity<byte[]> revalidated = cache.onResponse("/items/5", "/items/5",
+                cache.ticket("/items/5"), cached, ResponseEntity.status(HttpStatus.NOT_MODIFIED).build());
+        Assertions.assertThat(revalidated.getBody()).isEqualTo(first.getBody());
+        Assertions.assertThat(meterRegistry.get("shareit.gateway.cache.requests").tag("result", "revalidated")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void onResponse_SkipsResponseRequestedBeforeInvalidation() {
+        final long ticket = cache.ticket("/items/5");
+        // ответ на GET, отправленный до PATCH, приходит уже после него
+        cache.invalidate("/items/5");
+
+        cache.onResponse("/items/5", "/items/5", ticket, null, tagged("\"v1\"", "{\"name\":\"старое\"}"));
+
+        Assertions.assertThat(cache.lookup("/items/5")).isNull();
+        Assertions.assertThat(cache.sizeInBytes()).isZero();
+    }
+
+    @Test
+    void invalidate_DropsCollectionEntries() {
+        store("/items 5", "/items/5");
+        store("/items 6", "/items/6");
+        store("/items ?from=0", "/items");
+        store("/items /search?text=дрель", "/items");
+
+        cache.invalidate("/items/5");
+
+        Assertions.assertThat(cache.lookup("/items 5")).isNull();
+        Assertions.assertThat(cache.lookup("/items ?from=0")).isNull();
+        Assertions.assertThat(cache.lookup("/items /search?text=дрель")).isNull();
+        Assertions.assertThat(cache.lookup("/items 6")).isNotNull();
+    }
+
+    @Test
+    void invalidate_SkipsListRequestedBeforeEntityChange() {
+        final long ticket = cache.ticket("/items");
+        cache.invalidate("/items/5");
+
+        cache.onResponse("/items ?from=0", "/items", ticket, null, tagged("\"l1\"", "[]"));
+
+        Assertions.assertThat(cache.lookup("/items ?from=0")).isNull();
+    }
+
+    @Test
+    void onResponse_EvictsLeastRecentlyUsed() {
+        properties.setSegments(1);
+        properties.setMaxSize(DataSize.ofBytes(700));
+        final ResponseCache small = new ResponseCache(properties, meterRegistry);
+        small.onResponse("a", "/items/1", small.ticket("/items/1"), null, tagged("\"1\"", "x".repeat(200)));
+        small.onResponse("b", "/items/2", small.ticket("/items/2"), null, tagged("\"2\"", "x".repeat(200)));
+        small.lookup("a");
+
+        small.onResponse("c", "/items/3", small.ticket("/items/3"), null, tagged("\"3\"", "x".repeat(200)));
+
+        Assertions.assertThat(small.lookup("a")).isNotNull();
+        Assertions.assertThat(small.lookup("b")).isNull();
+        Assertions.assertThat(small.lookup("c")).isNotNull();
+        Assertions.assertThat(small.sizeInBytes()).isLessThanOrEqualTo(700);
+    }
+
+    @Test
+    void onResponse_SkipsUncacheableResponses() {
+        properties.setMaxEntrySize(DataSize.ofBytes(300));
+        final ResponseEntity<byte[]> privateResponse = ResponseEntity.ok()
+                .eTag("\"p\"")
+                .header(HttpHeaders.CACHE_CONTROL, "private")
+                .body(bytes("{}"));
+
+        cache.onResponse("private", "/users/1", cache.ticket("/users/1"), null, privateResponse);
+        cache.onResponse("large", "/items", cache.ticket("/items"), null, tagged("\"l\"", "x".repeat(400)));
+        cache.onResponse("untagged", "/items", cache.ticket("/items"), null, ResponseEntity.ok(bytes("[]")));
+
+        Assertions.assertThat(cache.lookup("private")).isNull();
+        Assertions.assertThat(cache.lookup("large")).isNull();
+        Assertions.assertThat(cache.lookup("untagged")).isNull();
+    }
+
+    @Test
+    void onFreshHit_ServesWithoutTiming() {
+        properties.setFreshFor(Duration.ofMinutes(1));
+        final ResponseEntity<byte[]> response = ResponseEntity.ok()
+                .eTag("\"v1\"")
+                .header(GatewayTiming.HEADER, "upstream;dur=12")
+                .body(bytes("{}"));
+        cache.onResponse("/items/5", "/items/5", cache.ticket("/items/5"), null, response);
+
+        final ResponseCache.Entry cached = cache.lookup("/items/5");
+
+        Assertions.assertThat(cache.isFresh(cached)).isTrue();
+        Assertions.assertThat(cache.onFreshHit(cached).getHeaders().containsKey(GatewayTiming.HEADER)).isFalse();
+        Assertions.assertThat(meterRegistry.get("shareit.gateway.cache.requests").tag("result", "hit")
+                .counter().count()).isEqualTo(1);
+    }
+
+    private void store(final String key, final String resource) {
+        cache.onResponse(key, resource, cache.ticket(resource), null, tagged("\"" + key.length() + "\"", "[]"));
+    }
+
+    private static ResponseEntity<byte[]> tagged(final String eTag, final String body) {
+        return ResponseEntity.ok().eTag(eTag).body(bytes(body));
+    }
+
+    private static byte[] bytes(final String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
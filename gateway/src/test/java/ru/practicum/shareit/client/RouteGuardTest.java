@@ -0,0 +1,160 @@
+package ru.practicum.shareit.client;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.exception.ServiceUnavailableException;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+class RouteGuardTest {
+
+    private static final String ROUTE = "/items/{id}";
+
+    private final ResilienceProperties properties = new ResilienceProperties();
+
+    @Test
+    void protect_GrowsLimitOnFastResponses() {
+        final RouteGuard guard = guard();
+
+        guard.protect(respond(HttpStatus.OK)).block();
+
+        Assertions.assertThat(guard.limit()).isEqualTo(20 + 1.0 / 20);
+        Assertions.assertThat(guard.getInFlight()).isZero();
+        Assertions.assertThat(guard.getLatencies().getQuantileNanos()).isZero();
+    }
+
+    @Test
+    void protect_ShrinksLimitOnSlowResponses() {
+        properties.getLatencyThresholds().put(ROUTE, Duration.ZERO);
+        final RouteGuard guard = guard();
+
+        guard.protect(respond(HttpStatus.OK).delayElement(Duration.ofMillis(5))).block();
+
+        Assertions.assertThat(guard.limit()).isEqualTo(20 * 0.9);
+    }
+
+    @Test
+    void protect_RejectsAboveLimit() {
+        properties.setInitialLimit(1);
+        properties.setMinLimit(1);
+        final RouteGuard guard = guard();
+        final Disposable pending = guard.protect(Mono.never()).subscribe();
+
+        Assertions.assertThatThrownBy(() -> guard.protect(respond(HttpStatus.OK)).block())
+                .isInstanceOf(ServiceUnavailableException.class)
+                .hasMessageContaining("перегружен");
+
+        pending.dispose();
+        Assertions.assertThat(guard.getInFlight()).isZero();
+        Assertions.assertThat(guard.protect(respond(HttpStatus.OK)).block().getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void protect_OpensCircuitAfterConsecutiveFailures() {
+        properties.setFailureThreshold(2);
+        properties.setOpenDuration(Duration.ofMinutes(1));
+        final RouteGuard guard = guard();
+
+        guard.protect(respond(HttpStatus.BAD_GATEWAY)).block();
+        Assertions.assertThat(guard.isOpen()).isFalse();
+        Assertions.assertThatThrownBy(() -> guard.protect(Mono.error(new TimeoutException())).block())
+                .hasCauseInstanceOf(TimeoutException.class);
+
+        Assertions.assertThat(guard.isOpen()).isTrue();
+        Assertions.assertThat(guard.limit()).isEqualTo(20 * 0.9 * 0.9);
+        Assertions.assertThatThrownBy(() -> guard.protect(respond(HttpStatus.OK)).block())
+                .isInstanceOfSatisfying(ServiceUnavailableException.class,
+                        e -> Assertions.assertThat(e.getRetryAfterSeconds()).isBetween(59L, 60L));
+    }
+
+    @Test
+    void protect_ClientErrorsDoNotOpenCircuit() {
+        properties.setFailureThreshold(1);
+        final RouteGuard guard = guard();
+
+        guard.protect(respond(HttpStatus.NOT_FOUND)).block();
+
+        Assertions.assertThat(guard.isOpen()).isFalse();
+    }
+
+    @Test
+    void protect_InternalErrorsDoNotOpenCircuit() {
+        properties.setFailureThreshold(5);
+        final RouteGuard guard = guard();
+
+        // необработанное исключение в запросе одного пользователя не отключает маршрут для всех
+        for (int i = 0; i < 10; i++) {
+            guard.protect(respond(HttpStatus.INTERNAL_SERVER_ERROR)).block();
+        }
+
+        Assertions.assertThat(guard.isOpen()).isFalse();
+        Assertions.assertThat(guard.limit()).isGreaterThan(20);
+    }
+
+    @Test
+    void protect_GatewayTimeoutsOpenCircuit() {
+        properties.setFailureThreshold(2);
+        final RouteGuard guard = guard();
+
+        guard.protect(respond(HttpStatus.GATEWAY_TIMEOUT)).block();
+        guard.protect(respond(HttpStatus.GATEWAY_TIMEOUT)).block();
+
+        Assertions.assertThat(guard.isOpen()).isTrue();
+    }
+
+    @Test
+    void protect_ProbeClosesOrReopensCircuit() {
+        properties.setFailureThreshold(1);
+        properties.setOpenDuration(Duration.ZERO);
+        final RouteGuard guard = guard();
+        guard.protect(respond(HttpStatus.SERVICE_UNAVAILABLE)).block();
+
+        // пробный запрос неудачен: цепь снова разомкнута
+        guard.protect(respond(HttpStatus.SERVICE_UNAVAILABLE)).block();
+        Assertions.assertThat(guard.isOpen()).isTrue();
+
+        guard.protect(respond(HttpStatus.OK)).block();
+        Assertions.assertThat(guard.isOpen()).isFalse();
+    }
+
+    @Test
+    void protect_RejectsWhileProbeInFlight() {
+        properties.setFailureThreshold(1);
+        properties.setOpenDuration(Duration.ZERO);
+        final RouteGuard guard = guard();
+        guard.protect(respond(HttpStatus.SERVICE_UNAVAILABLE)).block();
+        final Disposable probe = guard.protect(Mono.never()).subscribe();
+
+        Assertions.assertThatThrownBy(() -> guard.protect(respond(HttpStatus.OK)).block())
+                .isInstanceOfSatisfying(ServiceUnavailableException.class,
+                        e -> Assertions.assertThat(e.getRetryAfterSeconds()).isEqualTo(1));
+
+        // отменённая проба разрешает следующую
+        probe.dispose();
+        Assertions.assertThat(guard.protect(respond(HttpStatus.OK)).block().getStatusCode()).isEqualTo(HttpStatus.OK);
+        Assertions.assertThat(guard.isOpen()).isFalse();
+    }
+
+    @Test
+    void serverBudgetMillis_LeavesDeadlineMargin() {
+        properties.getTimeouts().put(ROUTE, Duration.ofSeconds(2));
+
+        final RouteGuard guard = guard();
+
+        Assertions.assertThat(guard.getTimeout()).isEqualTo(Duration.ofSeconds(2));
+        Assertions.assertThat(guard.serverBudgetMillis()).isEqualTo(1_900);
+    }
+
+    private RouteGuard guard() {
+        return new RouteGuard(ROUTE, properties, new LatencyWindow(16, 8, 0.95));
+    }
+
+    private static Mono<ResponseEntity<byte[]>> respond(final HttpStatus status) {
+        return Mono.just(ResponseEntity.status(status).body(new byte[0]));
+    }
+}
@@ -0,0 +1,108 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+class ServerBalancerTest {
+
+    private static final List<String> URLS = List.of("http://server-a:9090", " http://server-b:9090 ", "http://server-a:9090");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final BalancingProperties properties = new BalancingProperties();
+
+    @Test
+    void constructor_DeduplicatesAndRequiresUrls() {
+        final ServerBalancer balancer = new ServerBalancer(URLS, properties, meterRegistry);
+
+        Assertions.assertThat(balancer.size()).isEqualTo(2);
+        Assertions.assertThat(balancer.isBalanced()).isTrue();
+        Assertions.assertThat(meterRegistry.find("shareit.gateway.server.outstanding").gauges()).hasSize(2);
+        Assertions.assertThatThrownBy(() -> new ServerBalancer(List.of(" "), properties, meterRegistry))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void choose_SingleInstance() {
+        final ServerBalancer balancer = new ServerBalancer(List.of("http://server:9090"), properties, meterRegistry);
+        final ServerInstance only = balancer.choose(null, null);
+
+        Assertions.assertThat(balancer.isBalanced()).isFalse();
+        Assertions.assertThat(balancer.choose(5L, only)).isSameAs(only);
+    }
+
+    @Test
+    void choose_PrefersLessLoadedInstance() {
+        final ServerBalancer balancer = new ServerBalancer(URLS, properties, meterRegistry);
+        final ServerInstance busy = balancer.choose(null, null);
+        busy.acquire();
+
+        // из двух экземпляров степень двойки всегда сравнивает оба
+        IntStream.range(0, 20).forEach(i -> Assertions.assertThat(balancer.choose(null, null)).isNotSameAs(busy));
+
+        properties.setStrategy(BalancingProperties.Strategy.LEAST_OUTSTANDING);
+        Assertions.assertThat(balancer.choose(null, null)).isNotSameAs(busy);
+        busy.release();
+        Assertions.assertThat(busy.getOutstanding()).isZero();
+    }
+
+    @Test
+    void choose_SkipsExcludedInstance() {
+        final ServerBalancer balancer = new ServerBalancer(URLS, properties, meterRegistry);
+        final ServerInstance first = balancer.choose(null, null);
+
+        IntStream.range(0, 20).forEach(i -> Assertions.assertThat(balancer.choose(null, first)).isNotSameAs(first));
+    }
+
+    @Test
+    void choose_KeepsItemOnOneInstanceUntilEjected() {
+        properties.setAffinity(BalancingProperties.Affinity.ITEM);
+        properties.setFailureThreshold(1);
+        final ServerBalancer balancer = new ServerBalancer(URLS, properties, meterRegistry);
+        final ServerInstance owner = balancer.choose(42L, null);
+
+        IntStream.range(0, 20).forEach(i -> Assertions.assertThat(balancer.choose(42L, null)).isSameAs(owner));
+
+        balancer.onFailure(owner);
+        Assertions.assertThat(balancer.choose(42L, null)).isNotSameAs(owner);
+    }
+
+    @Test
+    void onFailure_RespectsThresholdAndEjectedShare() {
+        properties.setFailureThreshold(2);
+        final ServerBalancer balancer = new ServerBalancer(URLS, properties, meterRegistry);
+        final ServerInstance first = balancer.choose(null, null);
+        final ServerInstance second = balancer.choose(null, first);
+
+        balancer.onFailure(first);
+        balancer.onSuccess(first);
+        balancer.onFailure(first);
+        Assertions.assertThat(first.isEjected(System.nanoTime())).isFalse();
+
+        balancer.onFailure(first);
+        Assertions.assertThat(first.isEjected(System.nanoTime())).isTrue();
+
+        // второй экземпляр не исключается: исключённых было бы больше 50%
+        balancer.onFailure(second);
+        balancer.onFailure(second);
+        Assertions.assertThat(second.isEjected(System.nanoTime())).isFalse();
+        Assertions.assertThat(balancer.choose(null, null)).isSameAs(second);
+    }
+
+    @Test
+    void choose_FallsBackToAllWhenEveryInstanceEjected() {
+        properties.setFailureThreshold(1);
+        properties.setMaxEjectedPercent(100);
+        final ServerBalancer balancer = new ServerBalancer(URLS, properties, meterRegistry);
+        final ServerInstance first = balancer.choose(null, null);
+        final ServerInstance second = balancer.choose(null, first);
+
+        balancer.onFailure(first);
+        balancer.onFailure(second);
+
+        Assertions.assertThat(balancer.choose(null, null)).isIn(first, second);
+    }
+}
@@ -0,0 +1,80 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.config.WireFormat;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+class SmileToJsonFilterTest {
+
+    private final SmileToJsonFilter filter = new SmileToJsonFilter();
+    private final ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("http://server/items/1")).build();
+
+    @Test
+    void filter_TranscodesSmileToJson() throws Exception {
+        final byte[] smile = new ObjectMapper(new SmileFactory()).writeValueAsBytes(Map.of("id", 1));
+
+        final ClientResponse response = filter.filter(request, answering(WireFormat.SMILE.getContentType(), smile)).block();
+
+        Assertions.assertThat(response.headers().contentType()).contains(MediaType.APPLICATION_JSON);
+        Assertions.assertThat(response.bodyToMono(String.class).block()).isEqualTo("{\"id\":1}");
+    }
+
+    @Test
+    void filter_PassesSmileThroughWhenClientAcceptsIt() throws Exception {
+        final byte[] smile = new ObjectMapper(new SmileFactory()).writeValueAsBytes(Map.of("id", 1));
+
+        final ClientResponse response = filter.filter(request, answering(WireFormat.SMILE.getContentType(), smile))
+                .contextWrite(context -> context.put(SmileToJsonFilter.PASS_THROUGH, true))
+                .block();
+
+        Assertions.assertThat(response.headers().contentType()).contains(WireFormat.SMILE.getContentType());
+        Assertions.assertThat(response.bodyToMono(byte[].class).block()).isEqualTo(smile);
+    }
+
+    @Test
+    void filter_LeavesJsonAndEmptyBodies() {
+        final ClientResponse json = filter.filter(request,
+                answering(MediaType.APPLICATION_JSON, "[]".getBytes(StandardCharsets.UTF_8))).block();
+        final ClientResponse empty = filter.filter(request, next -> Mono.just(ClientResponse.create(HttpStatus.OK)
+                .header("Content-Type", WireFormat.SMILE.getContentType().toString())
+                .build())).block();
+
+        Assertions.assertThat(json.bodyToMono(String.class).block()).isEqualTo("[]");
+        Assertions.assertThat(empty.headers().contentType()).contains(MediaType.APPLICATION_JSON);
+        Assertions.assertThat(empty.bodyToMono(String.class).block()).isNull();
+    }
+
+    @Test
+    void accepts_OnlyExplicitSmile() {
+        Assertions.assertThat(SmileToJsonFilter.accepts("application/x-jackson-smile")).isTrue();
+        Assertions.assertThat(SmileToJsonFilter.accepts("application/json;q=0.5, application/x-jackson-smile")).isTrue();
+        Assertions.assertThat(SmileToJsonFilter.accepts("application/x-jackson-smile;q=0")).isFalse();
+        Assertions.assertThat(SmileToJsonFilter.accepts("*/*")).isFalse();
+        Assertions.assertThat(SmileToJsonFilter.accepts("application/*")).isFalse();
+        Assertions.assertThat(SmileToJsonFilter.accepts("application/json")).isFalse();
+        Assertions.assertThat(SmileToJsonFilter.accepts("не тип")).isFalse();
+        Assertions.assertThat(SmileToJsonFilter.accepts(null)).isFalse();
+    }
+
+    private static ExchangeFunction answering(final MediaType contentType, final byte[] body) {
+        return next -> Mono.just(ClientResponse.create(HttpStatus.OK)
+                .header("Content-Type", contentType.toString())
+                .body(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(body)))
+                .build());
+    }
+}
@@ -0,0 +1,93 @@
+package ru.practicum.shareit.config;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.concurrent.locks.LockSupport;
+
+class GatewayTimingTest {
+
+    private final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/items/5");
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void upstreamNanos_CountsOverlappingCallsOnce() {
+        final GatewayTiming timing = GatewayTiming.start(new ServletRequestAttributes(request));
+
+        timing.upstreamStarted();
+        timing.upstreamStarted();
+        LockSupport.parkNanos(2_000_000);
+        timing.upstreamFinished();
+        Assertions.assertThat(timing.upstreamNanos()).isGreaterThanOrEqualTo(2_000_000);
+        timing.upstreamFinished();
+        final long upstream = timing.upstreamNanos();
+
+        LockSupport.parkNanos(1_000_000);
+        Assertions.assertThat(timing.upstreamNanos()).isEqualTo(upstream);
+        Assertions.assertThat(timing.totalNanos()).isGreaterThan(upstream);
+        Assertions.assertThat(timing.overheadNanos()).isPositive();
+    }
+
+    @Test
+    void current_ReadsRequestBoundTiming() {
+        Assertions.assertThat(GatewayTiming.current()).isNull();
+
+        final ServletRequestAttributes attributes = new ServletRequestAttributes(request);
+        RequestContextHolder.setRequestAttributes(attributes);
+        final GatewayTiming timing = GatewayTiming.start(attributes);
+
+        Assertions.assertThat(GatewayTiming.current()).isSameAs(timing);
+        Assertions.assertThat(timing.headerValue()).matches("gw;dur=\\d+\\.\\d{2};desc=\"gateway\", upstream;dur=0\\.00");
+        Assertions.assertThat(timing.isWritten()).isTrue();
+    }
+
+    @Test
+    void filter_AddsHeaderToSynchronousResponse() throws Exception {
+        new ServerTimingFilter().doFilter(request, response, (req, res) -> {
+            final GatewayTiming timing = GatewayTiming.get(new ServletRequestAttributes(request));
+            timing.upstreamStarted();
+            timing.upstreamFinished();
+        });
+
+        Assertions.assertThat(response.getHeader(GatewayTiming.HEADER)).startsWith("gw;dur=");
+    }
+
+    @Test
+    void filter_LeavesAsyncResponseToDispatch() throws Exception {
+        request.setAsyncSupported(true);
+
+        new ServerTimingFilter().doFilter(request, response, (req, res) -> request.startAsync());
+
+        Assertions.assertThat(response.getHeader(GatewayTiming.HEADER)).isNull();
+        Assertions.assertThat(GatewayTiming.get(new ServletRequestAttributes(request)).isWritten()).isFalse();
+    }
+
+    @Test
+    void advice_WritesHeaderOnceBeforeBody() {
+        final ServerTimingAdvice advice = new ServerTimingAdvice();
+        GatewayTiming.start(new ServletRequestAttributes(request));
+        try (ServletServerHttpResponse serverResponse = new ServletServerHttpResponse(response)) {
+            Assertions.assertThat(advice.supports(null, null)).isTrue();
+            final Object body = advice.beforeBodyWrite("{}", null, MediaType.APPLICATION_JSON, null,
+                    new ServletServerHttpRequest(request), serverResponse);
+            advice.beforeBodyWrite("{}", null, MediaType.APPLICATION_JSON, null,
+                    new ServletServerHttpRequest(request), serverResponse);
+
+            Assertions.assertThat(body).isEqualTo("{}");
+            Assertions.assertThat(serverResponse.getHeaders().get(GatewayTiming.HEADER)).hasSize(1);
+        }
+    }
+}
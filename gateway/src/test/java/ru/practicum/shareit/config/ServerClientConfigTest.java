@@ -0,0 +1,93 @@
+package ru.practicum.shareit.config;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.resources.ConnectionProvider;
+import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.HedgingPolicy;
+import ru.practicum.shareit.client.HedgingProperties;
+import ru.practicum.shareit.client.RequestCoalescer;
+import ru.practicum.shareit.client.ResilienceProperties;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ResponseCacheProperties;
+import ru.practicum.shareit.client.RouteGuardRegistry;
+import ru.practicum.shareit.client.ServerBalancer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+class ServerClientConfigTest {
+
+    private static final String ROUTE = "/items";
+    // больше стандартного предела WebClient в 256 КБ
+    private static final byte[] LARGE_BODY = ("[" + "\"x\",".repeat(100_000) + "\"x\"]").getBytes(StandardCharsets.UTF_8);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ServerClientConfig config = new ServerClientConfig();
+    private final ServerPoolProperties pool = new ServerPoolProperties();
+    private final ServerBalancer balancer = Mockito.mock(ServerBalancer.class);
+    private HttpServer server;
+    private ConnectionProvider connectionProvider;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext(ROUTE, exchange -> {
+            exchange.getResponseHeaders().set(HttpHeaders.CONTENT_TYPE, "application/json");
+            exchange.sendResponseHeaders(200, LARGE_BODY.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(LARGE_BODY);
+            }
+        });
+        server.start();
+        connectionProvider = config.serverConnectionProvider(pool, ServerProtocol.HTTP1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionProvider.dispose();
+        server.stop(0);
+    }
+
+    @Test
+    void serverWebClientCustomizer_ForwardsResponseAboveDefaultLimit() {
+        final ResponseEntity<byte[]> response = client(DataSize.ofMegabytes(1))
+                .forwardGet("", 1L, Map.of())
+                .block(Duration.ofSeconds(5));
+
+        Assertions.assertThat(response.getBody()).isEqualTo(LARGE_BODY);
+    }
+
+    @Test
+    void serverWebClientCustomizer_RejectsResponseAboveConfiguredLimit() {
+        final BaseClient client = client(DataSize.ofKilobytes(256));
+
+        Assertions.assertThatThrownBy(() -> client.forwardGet("", 1L, Map.of()).block(Duration.ofSeconds(5)))
+                .isInstanceOf(DataBufferLimitException.class);
+    }
+
+    private BaseClient client(final DataSize maxResponseSize) {
+        final WebClient.Builder builder = WebClient.builder();
+        config.serverWebClientCustomizer(config.serverHttpClient(connectionProvider, pool, ServerProtocol.HTTP1),
+                WireFormat.JSON, maxResponseSize, balancer).customize(builder);
+        final HedgingPolicy hedging = new HedgingPolicy(new HedgingProperties(), balancer, meterRegistry);
+        return new BaseClient(ROUTE, builder.baseUrl("http://localhost:" + server.getAddress().getPort() + ROUTE).build(),
+                new RequestCoalescer(true, Duration.ofSeconds(2)),
+                new RouteGuardRegistry(new ResilienceProperties(), meterRegistry, hedging),
+                new ResponseCache(new ResponseCacheProperties(), meterRegistry), hedging);
+    }
+}
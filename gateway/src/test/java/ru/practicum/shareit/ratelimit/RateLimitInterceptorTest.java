@@ -0,0 +1,50 @@
+package ru.practicum.shareit.ratelimit;
+
+import jakarta.servlet.DispatcherType;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import ru.practicum.shareit.exception.TooManyRequestsException;
+
+import java.util.concurrent.TimeUnit;
+
+class RateLimitInterceptorTest {
+
+    private final RateLimiterRegistry registry = Mockito.mock(RateLimiterRegistry.class);
+    private final RateLimitInterceptor interceptor = new RateLimitInterceptor(registry);
+
+    @Test
+    void preHandle_ChargesUserOnce() {
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/items");
+        request.addHeader("X-Sharer-User-Id", "7");
+
+        Assertions.assertThat(interceptor.preHandle(request, new MockHttpServletResponse(), new Object())).isTrue();
+        request.setDispatcherType(DispatcherType.ASYNC);
+        Assertions.assertThat(interceptor.preHandle(request, new MockHttpServletResponse(), new Object())).isTrue();
+
+        Mockito.verify(registry).tryAcquire("user:7", "/items");
+        Mockito.verifyNoMoreInteractions(registry);
+    }
+
+    @Test
+    void preHandle_AnonymousByAddress() {
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/items");
+
+        interceptor.preHandle(request, new MockHttpServletResponse(), new Object());
+
+        Mockito.verify(registry).tryAcquire("ip:" + request.getRemoteAddr(), "/items");
+    }
+
+    @Test
+    void preHandle_LimitExceeded() {
+        Mockito.when(registry.tryAcquire(Mockito.anyString(), Mockito.anyString()))
+                .thenReturn(TimeUnit.MILLISECONDS.toNanos(1_500));
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/items");
+
+        Assertions.assertThatThrownBy(() -> interceptor.preHandle(request, new MockHttpServletResponse(), new Object()))
+                .isInstanceOf(TooManyRequestsException.class)
+                .extracting("retryAfterSeconds").isEqualTo(2L);
+    }
+}
@@ -0,0 +1,125 @@
+package ru.practicum.shareit.ratelimit;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class RateLimiterRegistryTest {
+
+    @Test
+    void tryAcquire_BurstExhausted() {
+        final RateLimiterRegistry registry = new RateLimiterRegistry(properties(2, 100));
+
+        Assertions.assertThat(registry.tryAcquire("user:1", "/items")).isZero();
+        Assertions.assertThat(registry.tryAcquire("user:1", "/items")).isZero();
+        Assertions.assertThat(registry.tryAcquire("user:1", "/items")).isPositive();
+        Assertions.assertThat(registry.tryAcquire("user:2", "/items")).isZero();
+    }
+
+    @Test
+    void tryAcquire_RouteRuleByLongestPrefix() {
+        final RateLimitProperties properties = properties(5, 100);
+        properties.getRoutes().put("/bookings", rule(1));
+        properties.getRoutes().put("/bookings/owner", rule(3));
+        final RateLimiterRegistry registry = new RateLimiterRegistry(properties);
+
+        Assertions.assertThat(registry.tryAcquire("user:1", "/bookings/1")).isZero();
+        Assertions.assertThat(registry.tryAcquire("user:1", "/bookings/2")).isPositive();
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertThat(registry.tryAcquire("user:1", "/bookings/owner")).isZero();
+        }
+        Assertions.assertThat(registry.tryAcquire("user:1", "/bookings/owner")).isPositive();
+    }
+
+    @Test
+    void tryAcquire_BoundedWithoutSharedOverflowBucket() {
+        final RateLimiterRegistry registry = new RateLimiterRegistry(properties(1, 32));
+
+        for (int i = 0; i < 1_000; i++) {
+            Assertions.assertThat(registry.tryAcquire("ip:" + i, "/items")).isZero();
+        }
+
+        Assertions.assertThat(registry.size()).isLessThanOrEqualTo(32);
+    }
+
+    @Test
+    void tryAcquire_OverflowKeepsRecentlyRejectedClient() {
+        final RateLimiterRegistry registry = new RateLimiterRegistry(properties(1, 10));
+        for (int i = 0; i < 10; i++) {
+            registry.tryAcquire("ip:" + i, "/items");
+        }
+
+        // отказ тоже считается обращением: клиент не теряет корзину и не получает новый запас разрешений
+        Assertions.assertThat(registry.tryAcquire("ip:0", "/items")).isPositive();
+        registry.tryAcquire("ip:10", "/items");
+
+        Assertions.assertThat(registry.size()).isLessThanOrEqualTo(10);
+        Assertions.assertThat(registry.tryAcquire("ip:0", "/items")).isPositive();
+        Assertions.assertThat(registry.tryAcquire("ip:1", "/items")).isZero();
+    }
+
+    @Test
+    void tryAcquire_ConcurrentClientsShareOneBucket() throws Exception {
+        final RateLimiterRegistry registry = new RateLimiterRegistry(properties(100, 64));
+        final AtomicInteger granted = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int thread = 0; thread < 8; thread++) {
+                final int offset = thread;
+                executor.execute(() -> {
+                    awaitQuietly(start);
+                    for (int i = 0; i < 1_000; i++) {
+                        if (registry.tryAcquire("user:1", "/items") == 0) {
+                            granted.incrementAndGet();
+                        }
+                        registry.tryAcquire("ip:" + offset + ':' + i, "/items");
+                    }
+                });
+            }
+            start.countDown();
+        }
+
+        Assertions.assertThat(granted).hasValue(100);
+        Assertions.assertThat(registry.size()).isLessThanOrEqualTo(64 + 8);
+    }
+
+    @Test
+    void evictIdle_RemovesInactiveBuckets() {
+        final RateLimitProperties properties = properties(1, 100);
+        properties.setIdleTimeout(Duration.ZERO);
+        final RateLimiterRegistry registry = new RateLimiterRegistry(properties);
+        registry.tryAcquire("user:1", "/items");
+
+        registry.evictIdle();
+
+        Assertions.assertThat(registry.size()).isZero();
+        Assertions.assertThat(registry.tryAcquire("user:1", "/items")).isZero();
+    }
+
+    private static void awaitQuietly(final CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static RateLimitProperties properties(final int burst, final int maxKeys) {
+        final RateLimitProperties properties = new RateLimitProperties();
+        properties.setMaxKeys(maxKeys);
+        properties.setDefaultRule(rule(burst));
+        return properties;
+    }
+
+    private static RateLimitProperties.Rule rule(final int burst) {
+        final RateLimitProperties.Rule rule = new RateLimitProperties.Rule();
+        rule.setBurst(burst);
+        rule.setPermitsPerSecond(0.001);
+        return rule;
+    }
+}
@@ -0,0 +1,104 @@
+package ru.practicum.shareit.user;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import ru.practicum.shareit.client.HedgingPolicy;
+import ru.practicum.shareit.client.HedgingProperties;
+import ru.practicum.shareit.client.RequestCoalescer;
+import ru.practicum.shareit.client.ResilienceProperties;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ResponseCacheProperties;
+import ru.practicum.shareit.client.RouteGuardRegistry;
+import ru.practicum.shareit.client.ServerBalancer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+class UserClientTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<ClientRequest> requests = new ArrayList<>();
+
+    @Test
+    void delete_PropagatesUpstreamStatus() {
+        final UserClient userClient = client(request -> Mono.just(ClientResponse.create(HttpStatus.NOT_FOUND)
+                .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                .body("{\"error\":\"Пользователь не найден\"}")
+                .build()));
+
+        final ResponseEntity<byte[]> response = userClient.delete(7L).block();
+
+        Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        Assertions.assertThat(new String(response.getBody(), StandardCharsets.UTF_8)).contains("не найден");
+        Assertions.assertThat(requests).singleElement()
+                .satisfies(request -> {
+                    Assertions.assertThat(request.method()).isEqualTo(HttpMethod.DELETE);
+                    Assertions.assertThat(request.url().getPath()).isEqualTo("/users/7");
+                });
+    }
+
+    @Test
+    void stream_ReturnsBeforeUpstreamCompletes() throws Exception {
+        final Sinks.Many<DataBuffer> upstream = Sinks.many().unicast().onBackpressureBuffer();
+        final UserClient userClient = client(request -> Mono.just(ClientResponse.create(HttpStatus.OK)
+                .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                .body(upstream.asFlux())
+                .build()));
+        final MockMvc mvc = MockMvcBuilders.standaloneSetup(new UserController(userClient)).build();
+
+        // при блокирующей записи запрос не вернулся бы, пока сервер не закончит выгрузку
+        final MvcResult result = mvc.perform(MockMvcRequestBuilders.get("/users")
+                        .param("stream", "true")
+                        .param("afterId", "3"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        upstream.tryEmitNext(chunk("[{\"id\":4},"));
+        upstream.tryEmitNext(chunk("{\"id\":5}]"));
+        upstream.tryEmitComplete();
+        result.getAsyncResult(Duration.ofSeconds(5).toMillis());
+
+        Assertions.assertThat(result.getResponse().getContentType()).isEqualTo(MediaType.APPLICATION_JSON_VALUE);
+        Assertions.assertThat(result.getResponse().getContentAsString()).isEqualTo("[{\"id\":4},{\"id\":5}]");
+        Assertions.assertThat(requests).singleElement()
+                .satisfies(request -> Assertions.assertThat(request.url().getQuery()).isEqualTo("stream=true&afterId=3"));
+    }
+
+    private UserClient client(final Function<ClientRequest, Mono<ClientResponse>> server) {
+        final ServerBalancer balancer = Mockito.mock(ServerBalancer.class);
+        final HedgingPolicy hedging = new HedgingPolicy(new HedgingProperties(), balancer, meterRegistry);
+        final WebClient.Builder builder = WebClient.builder()
+                .exchangeFunction(request -> {
+                    requests.add(request);
+                    return server.apply(request);
+                });
+        return new UserClient("http://server", builder, new RequestCoalescer(true, Duration.ofSeconds(2)),
+                new RouteGuardRegistry(new ResilienceProperties(), meterRegistry, hedging),
+                new ResponseCache(new ResponseCacheProperties(), meterRegistry), hedging);
+    }
+
+    private static DataBuffer chunk(final String value) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -7,6 +7,7 @@ import io.swagger.v3.oas.annotations.info.License;
 import io.swagger.v3.oas.annotations.servers.Server;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @OpenAPIDefinition(
         info = @Info(
@@ -35,6 +36,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
                 @Server(url = "http://localhost:8080", description = "Gateway Server (shareIt-gateway)")
         }
 )
+@EnableScheduling
 @SpringBootApplication
 public class ShareItApp {
 
@@ -10,10 +10,12 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.SQLRestriction;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.User;
 
@@ -22,6 +24,7 @@ import java.time.LocalDateTime;
 @Data
 @Entity
 @Table(name = "bookings")
+@SQLRestriction("deleted = false")
 @Builder(toBuilder = true)
 @AllArgsConstructor
 @NoArgsConstructor
@@ -50,4 +53,11 @@ public class Booking {
     @Column(name = "status")
     private Status status;              //статус бронирования
 
+    @Column(name = "deleted", nullable = false)
+    private boolean deleted;            //удалена вещь или пользователь: запись ждёт фоновой очистки
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;               //версия строки: одновременное подтверждение не перезапишет друг друга
+
 }
@@ -8,6 +8,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -17,6 +18,7 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.dto.RequestBookingStatus;
@@ -33,6 +35,7 @@ public class BookingController {
 
     private static final String HEADER = "X-Sharer-User-Id";
     private final BookingService bookingService;
+    private final BookingEventBroadcaster bookingEventBroadcaster;
 
     @Operation(
             summary = "Создать бронирование",
@@ -142,4 +145,19 @@ public class BookingController {
                 .orElseThrow(() -> new UnsupportedStatusException("Unknown state: " + state));
         return bookingService.getAllByStateForOwner(status, userId, from, size);
     }
+
+    @Operation(
+            summary = "Подписаться на события бронирований",
+            description = "Открывает поток server-sent events: владелец получает новые бронирования своих вещей, " +
+                          "автор бронирования — смену статуса на APPROVED/REJECTED",
+            responses = @ApiResponse(responseCode = "200", description = "Поток событий открыт")
+    )
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(
+            @Parameter(description = "ID пользователя", required = true)
+            @RequestHeader(HEADER) final Long userId
+    ) {
+        log.info("GET /bookings/stream — подписка на события бронирований пользователя ID={}", userId);
+        return bookingEventBroadcaster.subscribe(userId);
+    }
 }
@@ -0,0 +1,6 @@
+package ru.practicum.shareit.booking;
+
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+
+public record BookingEvent(Long recipientId, BookingResponseDto booking) {
+}
@@ -0,0 +1,147 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Slf4j
+@Component
+public class BookingEventBroadcaster {
+
+    private static final String EVENT_NAME = "booking";
+    private static final String HEARTBEAT_COMMENT = "heartbeat";
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService dispatcher;
+    private final long timeoutMillis;
+    private final int bufferSize;
+
+    // запись в сокет блокируется, пока клиент не примет данные: каждый подписчик получает события в своём
+    // виртуальном потоке, и медленный или полуоткрытый клиент задерживает только себя
+    public BookingEventBroadcaster(@Value("${shareit.booking-stream.timeout:30m}") final Duration timeout,
+                                   @Value("${shareit.booking-stream.buffer-size:32}") final int bufferSize) {
+        this.timeoutMillis = timeout.toMillis();
+        this.bufferSize = bufferSize;
+        this.dispatcher = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("booking-stream-", 0).factory());
+    }
+
+    public SseEmitter subscribe(final Long userId) {
+        final SseEmitter emitter = new SseEmitter(timeoutMillis);
+        final Subscriber subscriber = new Subscriber(userId, emitter);
+
+        subscribers.compute(userId, (id, current) -> {
+            final Set<Subscriber> target = current == null ? ConcurrentHashMap.newKeySet() : current;
+            target.add(subscriber);
+            return target;
+        });
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        emitter.onTimeout(() -> {
+            remove(subscriber);
+            emitter.complete();
+        });
+
+        subscriber.offer(SseEmitter.event().comment("connected"));
+        log.debug("Пользователь ID={} подписался на события бронирований", userId);
+        return emitter;
+    }
+
+    @TransactionalEventListener
+    public void onBookingEvent(final BookingEvent event) {
+        final Set<Subscriber> recipients = subscribers.get(event.recipientId());
+        if (recipients == null) {
+            return;
+        }
+        recipients.forEach(subscriber -> subscriber.offer(SseEmitter.event()
+                .id(String.valueOf(event.booking().getId()))
+                .name(EVENT_NAME)
+                .data(event.booking(), MediaType.APPLICATION_JSON)));
+    }
+
+    @Scheduled(fixedRateString = "${shareit.booking-stream.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        subscribers.values().forEach(set -> set.forEach(subscriber ->
+                subscriber.offer(SseEmitter.event().comment(HEARTBEAT_COMMENT))));
+    }
+
+    public int subscriberCount() {
+        return subscribers.values().stream()
+                .mapToInt(Set::size)
+                .sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(set -> set.forEach(subscriber -> subscriber.emitter.complete()));
+        subscribers.clear();
+        dispatcher.shutdown();
+    }
+
+    private void remove(final Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.userId, (id, current) -> {
+            current.remove(subscriber);
+            return current.isEmpty() ? null : current;
+        });
+    }
+
+    private final class Subscriber {
+
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final Queue<SseEmitter.SseEventBuilder> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Subscriber(final Long userId, final SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        private void offer(final SseEmitter.SseEventBuilder event) {
+            while (!buffer.offer(event)) {
+                buffer.poll();
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                dispatcher.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                for (SseEmitter.SseEventBuilder event = buffer.poll(); event != null; event = buffer.poll()) {
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Подписчик ID={} отключился: {}", userId, e.getMessage());
+                remove(this);
+                emitter.completeWithError(e);
+                return;
+            } finally {
+                draining.set(false);
+            }
+            if (!buffer.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+    }
+}
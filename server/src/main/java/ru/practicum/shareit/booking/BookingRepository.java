@@ -2,7 +2,9 @@ package ru.practicum.shareit.booking;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -37,4 +39,24 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
            "AND b.status = ru.practicum.shareit.booking.Status.APPROVED " +
            "AND b.end < :currentTime")
     List<Booking> findByItemIdAndUserIdAndExpiredEndDateAndApprovedStatus(Long itemId, Long userId, LocalDateTime currentTime);
+
+    @Modifying
+    @Query(value = "update bookings set deleted = true, version = version + 1 " +
+                   "where item_id = :itemId and deleted = false", nativeQuery = true)
+    int softDeleteAllByItemId(Long itemId);
+
+    // бронирования пользователя и бронирования его вещей
+    @Modifying
+    @Query(value = "update bookings set deleted = true, version = version + 1 " +
+                   "where deleted = false and (booker_id = :userId " +
+                   "or item_id in (select i.item_id from items i where i.owner_id = :userId))", nativeQuery = true)
+    int softDeleteAllOfUser(Long userId);
+
+    @Modifying
+    @Transactional
+    @Query(value = "delete from bookings where booking_id in (" +
+                   "select b.booking_id from bookings b " +
+                   "where b.deleted = true " +
+                   "limit :batchSize)", nativeQuery = true)
+    int purgeOfDeleted(int batchSize);
 }
@@ -2,6 +2,7 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -13,7 +14,7 @@ import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserExistenceCache;
 import ru.practicum.shareit.user.UserRepository;
 
 import java.time.LocalDateTime;
@@ -26,21 +27,21 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
 
-    private static final String USER_NOT_FOUND = "Пользователь не найден";
     private static final String ITEM_NOT_FOUND = "Вещь не найдена";
     private static final String BOOKING_NOT_FOUND = "Бронирование не найдено";
 
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
+    private final UserExistenceCache userExistenceCache;
     private final ItemRepository itemRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional(readOnly = true)
     public BookingResponseDto getById(final Long bookingId, final Long userId) {
         final Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new NotFoundException(BOOKING_NOT_FOUND));
-        userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException(USER_NOT_FOUND));
+        userExistenceCache.requireExists(userId);
 
         if (!(Objects.equals(booking.getUser().getId(), userId) || Objects.equals(booking.getItem().getOwner().getId(), userId))) {
             throw new NotFoundException("Не найдено подходящих бронирований для пользователя " + userId);
@@ -52,8 +53,7 @@ public class BookingServiceImpl implements BookingService {
     @Transactional(readOnly = true)
     public List<BookingResponseDto> getAllByState(final RequestBookingStatus requestBookingStatus, final Long userId,
                                                   final int from, final int size) {
-        userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException(USER_NOT_FOUND));
+        userExistenceCache.requireExists(userId);
         final Pageable pageable = PageRequest.of(from / size, size);
 
         return switch (requestBookingStatus) {
@@ -87,8 +87,7 @@ public class BookingServiceImpl implements BookingService {
     @Transactional(readOnly = true)
     public List<BookingResponseDto> getAllByStateForOwner(final RequestBookingStatus requestBookingStatus, final Long userId,
                                                           final int from, final int size) {
-        userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException(USER_NOT_FOUND));
+        userExistenceCache.requireExists(userId);
         final Pageable pageable = PageRequest.of(from, size);
 
         return switch (requestBookingStatus) {
@@ -122,8 +121,7 @@ public class BookingServiceImpl implements BookingService {
     @Override
     @Transactional
     public BookingResponseDto create(final BookingRequestDto bookingRequestDto, final Long userId) {
-        final User user = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException(USER_NOT_FOUND));
+        userExistenceCache.requireExists(userId);
         final Item item = itemRepository.findById(bookingRequestDto.getItemId())
                 .orElseThrow(() -> new NotFoundException(ITEM_NOT_FOUND));
 
@@ -136,11 +134,13 @@ public class BookingServiceImpl implements BookingService {
         }
 
         final Booking booking = BookingMapper.fromDto(bookingRequestDto);
-        booking.setUser(user);
+        booking.setUser(userRepository.getReferenceById(userId));
         booking.setItem(item);
         booking.setStatus(Status.WAITING);
 
-        return BookingMapper.toDto(bookingRepository.save(booking));
+        final BookingResponseDto created = BookingMapper.toDto(bookingRepository.save(booking));
+        eventPublisher.publishEvent(new BookingEvent(item.getOwner().getId(), created));
+        return created;
     }
 
     @Override
@@ -148,8 +148,7 @@ public class BookingServiceImpl implements BookingService {
     public BookingResponseDto approve(final Long bookingId, final boolean approved, final Long userId) {
         final Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new NotFoundException(BOOKING_NOT_FOUND));
-        userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException(USER_NOT_FOUND));
+        userExistenceCache.requireExists(userId);
         if (!Objects.equals(booking.getItem().getOwner().getId(), userId)) {
             throw new NotFoundException("Подтверждение доступно только для владельца вещи");
         }
@@ -159,6 +158,8 @@ public class BookingServiceImpl implements BookingService {
         }
 
         booking.setStatus(approved ? Status.APPROVED : Status.REJECTED);
-        return BookingMapper.toDto(bookingRepository.save(booking));
+        final BookingResponseDto updated = BookingMapper.toDto(bookingRepository.save(booking));
+        eventPublisher.publishEvent(new BookingEvent(booking.getUser().getId(), updated));
+        return updated;
     }
 }
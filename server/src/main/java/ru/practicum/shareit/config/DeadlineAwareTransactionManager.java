@@ -0,0 +1,30 @@
+package ru.practicum.shareit.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.io.Serial;
+import java.util.OptionalLong;
+
+// ограничивает таймаут транзакции, а с ним и таймаут JDBC-запросов, оставшимся бюджетом запроса
+public class DeadlineAwareTransactionManager extends JpaTransactionManager {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public DeadlineAwareTransactionManager(final EntityManagerFactory entityManagerFactory) {
+        super(entityManagerFactory);
+    }
+
+    @Override
+    protected int determineTimeout(final TransactionDefinition definition) {
+        final int timeout = super.determineTimeout(definition);
+        final OptionalLong remaining = RequestDeadline.remainingMillis();
+        if (remaining.isEmpty()) {
+            return timeout;
+        }
+        final int remainingSeconds = (int) Math.max(0, (remaining.getAsLong() + 999) / 1000);
+        return timeout == TransactionDefinition.TIMEOUT_DEFAULT ? remainingSeconds : Math.min(timeout, remainingSeconds);
+    }
+}
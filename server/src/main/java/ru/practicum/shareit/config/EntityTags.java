@@ -0,0 +1,55 @@
+package ru.practicum.shareit.config;
+
+import ru.practicum.shareit.exception.PreconditionFailedException;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+// строгий ETag вида "v<версия>[-f<хеш полей>]": версия строки плюс вариант представления
+public final class EntityTags {
+
+    private static final String ANY = "*";
+
+    private EntityTags() {
+    }
+
+    public static String forVersion(final long version, final Set<String> fields) {
+        if (fields.isEmpty()) {
+            return "\"v" + version + "\"";
+        }
+        return "\"v" + version + "-f" + Integer.toHexString(new TreeSet<>(fields).toString().hashCode()) + "\"";
+    }
+
+    public static String forVersion(final long version) {
+        return forVersion(version, Set.of());
+    }
+
+    // If-Match сравнивается строго: слабые теги и чужие версии дают 412
+    public static void checkIfMatch(final String ifMatch, final Long currentVersion) {
+        if (ifMatch == null || ifMatch.isBlank() || ANY.equals(ifMatch.strip())) {
+            return;
+        }
+        for (final String tag : ifMatch.split(",")) {
+            final Long version = versionOf(tag.strip());
+            if (version != null && version.equals(currentVersion)) {
+                return;
+            }
+        }
+        throw new PreconditionFailedException("Данные изменились, получите актуальную версию");
+    }
+
+    private static Long versionOf(final String tag) {
+        if (tag.length() < 4 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"' || tag.charAt(1) != 'v') {
+            return null;
+        }
+        int end = 2;
+        while (end < tag.length() - 1 && Character.isDigit(tag.charAt(end))) {
+            end++;
+        }
+        try {
+            return Long.parseLong(tag.substring(2, end));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
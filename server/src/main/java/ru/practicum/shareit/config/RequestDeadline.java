@@ -0,0 +1,30 @@
+package ru.practicum.shareit.config;
+
+import java.util.OptionalLong;
+
+public final class RequestDeadline {
+
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    private RequestDeadline() {
+    }
+
+    public static void start(final long timeoutMillis) {
+        DEADLINE.set(System.nanoTime() + timeoutMillis * 1_000_000);
+    }
+
+    public static void clear() {
+        DEADLINE.remove();
+    }
+
+    // оставшееся время запроса в миллисекундах, если шлюз передал бюджет
+    public static OptionalLong remainingMillis() {
+        final Long deadline = DEADLINE.get();
+        if (deadline == null) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of((deadline - System.nanoTime()) / 1_000_000);
+    }
+}
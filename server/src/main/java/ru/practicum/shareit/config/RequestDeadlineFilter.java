@@ -0,0 +1,47 @@
+package ru.practicum.shareit.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+@Slf4j
+@Component
+public class RequestDeadlineFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+                                    final FilterChain filterChain) throws ServletException, IOException {
+        final String timeout = request.getHeader(RequestDeadline.TIMEOUT_HEADER);
+        if (timeout == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        final long timeoutMillis;
+        try {
+            timeoutMillis = Long.parseLong(timeout);
+        } catch (NumberFormatException e) {
+            log.warn("Некорректный заголовок {}: {}", RequestDeadline.TIMEOUT_HEADER, timeout);
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (timeoutMillis <= 0) {
+            response.sendError(HttpStatus.GATEWAY_TIMEOUT.value(), "Время ожидания запроса истекло");
+            return;
+        }
+
+        RequestDeadline.start(timeoutMillis);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestDeadline.clear();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package ru.practicum.shareit.config;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// разбивка времени текущего запроса для заголовка Server-Timing
+public final class ServerTiming {
+
+    public static final String HEADER = "Server-Timing";
+
+    private static final ThreadLocal<Timings> CURRENT = new ThreadLocal<>();
+    private static final int MAX_DISTINCT_SQL = 50;
+
+    private ServerTiming() {
+    }
+
+    public static void start() {
+        CURRENT.set(new Timings(System.nanoTime()));
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    public static void recordStatement(final long nanos) {
+        final Timings timings = CURRENT.get();
+        if (timings != null) {
+            timings.dbNanos += nanos;
+            timings.statements++;
+        }
+    }
+
+    // текст запроса без параметров; одинаковые запросы в цикле складываются в один со счётчиком
+    public static void recordSql(final String sql) {
+        final Timings timings = CURRENT.get();
+        if (timings != null && (timings.sql.size() < MAX_DISTINCT_SQL || timings.sql.containsKey(sql))) {
+            timings.sql.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    public static int statements() {
+        final Timings timings = CURRENT.get();
+        return timings != null ? timings.statements : 0;
+    }
+
+    public static long dbNanos() {
+        final Timings timings = CURRENT.get();
+        return timings != null ? timings.dbNanos : 0;
+    }
+
+    public static Map<String, Integer> sql() {
+        final Timings timings = CURRENT.get();
+        return timings != null ? Collections.unmodifiableMap(timings.sql) : Map.of();
+    }
+
+    public static void recordEnrichment(final long nanos) {
+        final Timings timings = CURRENT.get();
+        if (timings != null) {
+            timings.enrichmentNanos += nanos;
+        }
+    }
+
+    public static void recordSerialization(final long nanos) {
+        final Timings timings = CURRENT.get();
+        if (timings != null) {
+            timings.serializationNanos += nanos;
+        }
+    }
+
+    public static boolean isWritten() {
+        final Timings timings = CURRENT.get();
+        return timings != null && timings.written;
+    }
+
+    // app - всё время обработки на сервере до записи заголовка, включая остальные метрики;
+    // ser есть, только если тело уже сериализовано; null, если замер не начат или заголовок уже записан
+    public static String headerValue() {
+        final Timings timings = CURRENT.get();
+        if (timings == null || timings.written) {
+            return null;
+        }
+        timings.written = true;
+        final String db = String.format(Locale.ROOT, "db;dur=%.2f;desc=\"%d statements\", enrich;dur=%.2f",
+                millis(timings.dbNanos), timings.statements, millis(timings.enrichmentNanos));
+        final String app = String.format(Locale.ROOT, "app;dur=%.2f", millis(System.nanoTime() - timings.startNanos));
+        return timings.serializationNanos > 0 ?
+                db + ", " + serializationValue(timings.serializationNanos) + ", " + app :
+                db + ", " + app;
+    }
+
+    public static String serializationValue(final long nanos) {
+        return String.format(Locale.ROOT, "ser;dur=%.2f", millis(nanos));
+    }
+
+    private static double millis(final long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static final class Timings {
+        private final long startNanos;
+        private final Map<String, Integer> sql = new LinkedHashMap<>();
+        private long dbNanos;
+        private int statements;
+        private long enrichmentNanos;
+        private long serializationNanos;
+        private boolean written;
+
+        private Timings(final long startNanos) {
+            this.startNanos = startNanos;
+        }
+    }
+}
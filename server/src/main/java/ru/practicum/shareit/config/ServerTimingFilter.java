@@ -0,0 +1,32 @@
+package ru.practicum.shareit.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+                                    final FilterChain filterChain) throws ServletException, IOException {
+        ServerTiming.start();
+        try {
+            filterChain.doFilter(request, response);
+            // ответы с телом получают заголовок в конвертере, здесь остаются 304, 204 и пустые ответы
+            if (!response.isCommitted() && !ServerTiming.isWritten()) {
+                response.addHeader(ServerTiming.HEADER, ServerTiming.headerValue());
+            }
+        } finally {
+            ServerTiming.clear();
+        }
+    }
+}
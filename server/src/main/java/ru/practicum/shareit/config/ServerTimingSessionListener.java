@@ -0,0 +1,35 @@
+package ru.practicum.shareit.config;
+
+import org.hibernate.BaseSessionEventListener;
+
+import java.io.Serial;
+
+// подключается через hibernate.session.events.auto: по экземпляру на сессию, в потоке запроса
+public class ServerTimingSessionListener extends BaseSessionEventListener {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private long statementStart;
+    private long batchStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        ServerTiming.recordStatement(System.nanoTime() - statementStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        ServerTiming.recordStatement(System.nanoTime() - batchStart);
+    }
+}
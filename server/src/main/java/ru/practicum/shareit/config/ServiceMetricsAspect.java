@@ -0,0 +1,55 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// время каждого публичного метода сервисов с гистограммой для перцентилей по всем экземплярам
+@Aspect
+@Component
+public class ServiceMetricsAspect {
+
+    public static final String METRIC = "shareit.service.method";
+
+    private final MeterRegistry meterRegistry;
+
+    public ServiceMetricsAspect(final MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * *(..)) && (" +
+            "within(ru.practicum.shareit.item.ItemService+) || " +
+            "within(ru.practicum.shareit.booking.BookingService+) || " +
+            "within(ru.practicum.shareit.user.UserService+) || " +
+            "within(ru.practicum.shareit.request.ItemRequestService+))")
+    public Object time(final ProceedingJoinPoint joinPoint) throws Throwable {
+        final long start = System.nanoTime();
+        try {
+            final Object result = joinPoint.proceed();
+            record(joinPoint, start, null);
+            return result;
+        } catch (RuntimeException | Error e) {
+            record(joinPoint, start, e);
+            throw e;
+        }
+    }
+
+    private void record(final ProceedingJoinPoint joinPoint, final long start, final Throwable error) {
+        Timer.builder(METRIC)
+                .tag("service", joinPoint.getSignature().getDeclaringType().getSimpleName())
+                .tag("method", joinPoint.getSignature().getName())
+                .tag("outcome", error == null ? "success" : "error")
+                .tag("exception", error == null ? "none" : error.getClass().getSimpleName())
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,29 @@
+package ru.practicum.shareit.config;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public final class SparseFields {
+
+    public static final String PARAM = "fields";
+    public static final String FILTER_ID = "sparseFields";
+
+    private SparseFields() {
+    }
+
+    // пустой набор означает «все поля»
+    public static Set<String> parse(final String fields) {
+        if (fields == null || fields.isBlank()) {
+            return Set.of();
+        }
+        return Arrays.stream(fields.split(","))
+                .map(String::strip)
+                .filter(field -> !field.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    public static boolean includes(final Set<String> fields, final String field) {
+        return fields.isEmpty() || fields.contains(field);
+    }
+}
@@ -0,0 +1,37 @@
+package ru.practicum.shareit.config;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.io.Serial;
+
+// фильтр навешивается только на верхний уровень ответа; без параметра fields сериализуются все поля
+@Component
+public class SparseFieldsModule extends SimpleModule {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public SparseFieldsModule() {
+        super("SparseFieldsModule");
+    }
+
+    @Override
+    public void setupModule(final SetupContext context) {
+        super.setupModule(context);
+        context.setMixInAnnotations(ItemDto.class, SparseFieldsMixin.class);
+        context.setMixInAnnotations(BookingResponseDto.class, SparseFieldsMixin.class);
+        if (context.getOwner() instanceof ObjectMapper mapper && mapper.getSerializationConfig().getFilterProvider() == null) {
+            mapper.setFilterProvider(new SimpleFilterProvider().setFailOnUnknownId(false));
+        }
+    }
+
+    @JsonFilter(SparseFields.FILTER_ID)
+    private interface SparseFieldsMixin {
+    }
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.io.Serial;
+
+// подключается через hibernate.session_factory.statement_inspector; запрос не изменяется
+public class SqlCaptureInspector implements StatementInspector {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public String inspect(final String sql) {
+        ServerTiming.recordSql(sql);
+        return sql;
+    }
+}
@@ -0,0 +1,95 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// число SQL-запросов и время в базе на каждый HTTP-запрос; выполняется внутри ServerTimingFilter
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class StatementBudgetFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+    private final int maxStatements;
+    private final Duration maxDbTime;
+    private final boolean failOnExceed;
+
+    // в срезах @WebMvcTest реестра метрик нет: тогда метрики пишутся в пустой составной реестр
+    public StatementBudgetFilter(final ObjectProvider<MeterRegistry> meterRegistry,
+                                 @Value("${shareit.statement-budget.max-statements:10}") final int maxStatements,
+                                 @Value("${shareit.statement-budget.max-db-time:500ms}") final Duration maxDbTime,
+                                 @Value("${shareit.statement-budget.fail-on-exceed:false}") final boolean failOnExceed) {
+        super();
+        this.meterRegistry = meterRegistry.getIfAvailable(CompositeMeterRegistry::new);
+        this.maxStatements = maxStatements;
+        this.maxDbTime = maxDbTime;
+        this.failOnExceed = failOnExceed;
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+                                    final FilterChain filterChain) throws ServletException, IOException {
+        filterChain.doFilter(request, response);
+
+        final int statements = ServerTiming.statements();
+        final long dbNanos = ServerTiming.dbNanos();
+        final String endpoint = endpointOf(request);
+        DistributionSummary.builder("shareit.db.statements")
+                .tag("method", request.getMethod())
+                .tag("uri", endpoint)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(statements);
+        Timer.builder("shareit.db.time")
+                .tag("method", request.getMethod())
+                .tag("uri", endpoint)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(dbNanos, TimeUnit.NANOSECONDS);
+
+        if (statements <= maxStatements && dbNanos <= maxDbTime.toNanos()) {
+            return;
+        }
+        meterRegistry.counter("shareit.db.budget.exceeded", "method", request.getMethod(), "uri", endpoint)
+                .increment();
+        final String message = String.format("Превышен бюджет запросов к базе: %s %s - %d запросов (не более %d), " +
+                                             "%d мс (не более %d мс)%n%s", request.getMethod(), endpoint, statements,
+                maxStatements, TimeUnit.NANOSECONDS.toMillis(dbNanos), maxDbTime.toMillis(), describe(ServerTiming.sql()));
+        log.warn(message);
+        if (failOnExceed) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+    // шаблон пути, а не сам путь: иначе каждая вещь даст свою серию метрик
+    private static String endpointOf(final HttpServletRequest request) {
+        final Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+
+    private static String describe(final Map<String, Integer> sql) {
+        return sql.entrySet().stream()
+                .map(entry -> entry.getValue() + " x " + entry.getKey())
+                .collect(Collectors.joining(System.lineSeparator()));
+    }
+}
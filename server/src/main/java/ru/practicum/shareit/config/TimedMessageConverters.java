@@ -0,0 +1,90 @@
+package ru.practicum.shareit.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.http.server.ServletServerHttpResponse;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// тело пишется сразу в ответ: Server-Timing уходит до сериализации,
+// а её время - в трейлере, если соединение поддерживает трейлеры
+@Slf4j
+public final class TimedMessageConverters {
+
+    private TimedMessageConverters() {
+    }
+
+    public static MappingJackson2HttpMessageConverter json(final ObjectMapper objectMapper) {
+        return new Json(objectMapper);
+    }
+
+    public static MappingJackson2SmileHttpMessageConverter smile(final ObjectMapper objectMapper) {
+        return new Smile(objectMapper);
+    }
+
+    private static final class Json extends MappingJackson2HttpMessageConverter {
+
+        private Json(final ObjectMapper objectMapper) {
+            super(objectMapper);
+        }
+
+        @Override
+        protected void writeInternal(final Object object, final Type type, final HttpOutputMessage outputMessage)
+                throws IOException {
+            writeTimed(outputMessage, () -> super.writeInternal(object, type, outputMessage));
+        }
+    }
+
+    private static final class Smile extends MappingJackson2SmileHttpMessageConverter {
+
+        private Smile(final ObjectMapper objectMapper) {
+            super(objectMapper);
+        }
+
+        @Override
+        protected void writeInternal(final Object object, final Type type, final HttpOutputMessage outputMessage)
+                throws IOException {
+            writeTimed(outputMessage, () -> super.writeInternal(object, type, outputMessage));
+        }
+    }
+
+    private static void writeTimed(final HttpOutputMessage outputMessage, final BodyWriter writer) throws IOException {
+        // события SSE пишутся вне потока запроса, для них заголовок уже отправлен
+        if (!ServerTiming.isActive() || ServerTiming.isWritten()) {
+            writer.write();
+            return;
+        }
+        outputMessage.getHeaders().add(ServerTiming.HEADER, ServerTiming.headerValue());
+        // трейлер читается контейнером после завершения ответа, когда замер в потоке уже очищен
+        final AtomicLong serializationNanos = new AtomicLong(-1);
+        if (outputMessage instanceof ServletServerHttpResponse) {
+            addTrailer(((ServletServerHttpResponse) outputMessage).getServletResponse(), serializationNanos);
+        }
+        final long start = System.nanoTime();
+        writer.write();
+        serializationNanos.set(System.nanoTime() - start);
+        ServerTiming.recordSerialization(serializationNanos.get());
+    }
+
+    private static void addTrailer(final HttpServletResponse response, final AtomicLong serializationNanos) {
+        try {
+            response.setTrailerFields(() -> serializationNanos.get() < 0 ? Map.of() :
+                    Map.of(ServerTiming.HEADER, ServerTiming.serializationValue(serializationNanos.get())));
+        } catch (IllegalStateException e) {
+            // HTTP/1.0 или ответ уже отправлен: время сериализации останется только в метриках
+            log.debug("Трейлер Server-Timing недоступен: {}", e.getMessage());
+        }
+    }
+
+    @FunctionalInterface
+    private interface BodyWriter {
+        void write() throws IOException;
+    }
+}
@@ -1,15 +1,22 @@
 package ru.practicum.shareit.exception;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.validation.ConstraintViolationException;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.TransactionTimedOutException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import java.time.LocalDateTime;
+import java.util.Locale;
 
 @RestControllerAdvice
 @Slf4j
@@ -18,6 +25,11 @@ public class CustomExceptionHandler {
     private static final String HTTP_STATUS_NOT_FOUND = "HttpStatus.NOT_FOUND";
     private static final String HTTP_STATUS_BAD_REQUEST = "HttpStatus.BAD_REQUEST";
     private static final String HTTP_STATUS_CONFLICT = "HttpStatus.CONFLICT";
+    private static final String HTTP_STATUS_GATEWAY_TIMEOUT = "HttpStatus.GATEWAY_TIMEOUT";
+    private static final String DEADLINE_EXCEEDED = "Время ожидания запроса истекло";
+    private static final String USER_ALREADY_EXISTS = "Пользователь с такими данными существует";
+    // users_email_lower_uindex в PostgreSQL, ограничение на users(email) в H2
+    private static final String EMAIL_CONSTRAINT = "email";
 
     @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
@@ -26,6 +38,13 @@ public class CustomExceptionHandler {
         return new ResponseError(HTTP_STATUS_BAD_REQUEST, e.getMessage());
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ResponseError constraintViolationHandle(final ConstraintViolationException e) {
+        log.warn(e.getMessage());
+        return new ResponseError(HTTP_STATUS_BAD_REQUEST, e.getMessage());
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public ResponseError notFoundHandle(final NotFoundException e) {
@@ -36,10 +55,23 @@ public class CustomExceptionHandler {
     @ExceptionHandler
     @ResponseStatus(HttpStatus.CONFLICT)
     public ResponseError userAlreadyExistsHandler(final UserAlreadyExistsException e) {
-        log.error(e.getMessage());
+        log.warn(e.getMessage());
         return new ResponseError(HTTP_STATUS_CONFLICT, e.getMessage());
     }
 
+    // проверка email до записи не исключает гонку двух запросов: проигравший упирается в уникальный индекс
+    @ExceptionHandler
+    public ResponseEntity<ResponseError> dataIntegrityViolationHandler(final DataIntegrityViolationException e) {
+        if (isEmailViolation(e)) {
+            log.warn(e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ResponseError(HTTP_STATUS_CONFLICT, USER_ALREADY_EXISTS));
+        }
+        log.error(e.getMessage(), e);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ResponseError("HttpStatus.INTERNAL_SERVER_ERROR", "Нарушена целостность данных"));
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ResponseError unsupportedStatusHandler(final UnsupportedStatusException e) {
@@ -61,6 +93,40 @@ public class CustomExceptionHandler {
         return new ResponseError(HTTP_STATUS_CONFLICT, e.getMessage());
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public ResponseError preconditionFailedHandler(final PreconditionFailedException e) {
+        log.warn(e.getMessage());
+        return new ResponseError("HttpStatus.PRECONDITION_FAILED", e.getMessage());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ResponseError optimisticLockingHandler(final OptimisticLockingFailureException e) {
+        log.warn(e.getMessage());
+        return new ResponseError(HTTP_STATUS_CONFLICT, "Данные были изменены другим запросом, повторите попытку");
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.GATEWAY_TIMEOUT)
+    public ResponseError transactionTimedOutHandler(final TransactionTimedOutException e) {
+        log.warn(e.getMessage());
+        return new ResponseError(HTTP_STATUS_GATEWAY_TIMEOUT, DEADLINE_EXCEEDED);
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.GATEWAY_TIMEOUT)
+    public ResponseError queryTimeoutHandler(final QueryTimeoutException e) {
+        log.warn(e.getMessage());
+        return new ResponseError(HTTP_STATUS_GATEWAY_TIMEOUT, DEADLINE_EXCEEDED);
+    }
+
+    private static boolean isEmailViolation(final DataIntegrityViolationException e) {
+        return e.getCause() instanceof org.hibernate.exception.ConstraintViolationException violation &&
+               violation.getConstraintName() != null &&
+               violation.getConstraintName().toLowerCase(Locale.ROOT).contains(EMAIL_CONSTRAINT);
+    }
+
     @Getter
     @RequiredArgsConstructor
     public static class ResponseError {
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.exception;
+
+import java.io.Serial;
+
+public class PreconditionFailedException extends RuntimeException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public PreconditionFailedException(final String message) {
+        super(message, null, false, false);
+    }
+}
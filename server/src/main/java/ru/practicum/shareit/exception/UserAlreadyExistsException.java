@@ -10,6 +10,10 @@ public class UserAlreadyExistsException extends RuntimeException {
     @Serial
     private static final long serialVersionUID = 1L;
 
+    public UserAlreadyExistsException(final String message) {
+        super(message, null, false, false);
+    }
+
     public UserAlreadyExistsException(final String message, final Exception error) {
         super(message);
         log.error(message);
@@ -1,10 +1,33 @@
 package ru.practicum.shareit.item;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.item.model.Comment;
 
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
     List<Comment> findAllByItemId(Long itemId);
+
+    @Modifying
+    @Query(value = "update comments set deleted = true " +
+                   "where item_id = :itemId and deleted = false", nativeQuery = true)
+    int softDeleteAllByItemId(Long itemId);
+
+    // комментарии пользователя и комментарии к его вещам
+    @Modifying
+    @Query(value = "update comments set deleted = true " +
+                   "where deleted = false and (author_id = :userId " +
+                   "or item_id in (select i.item_id from items i where i.owner_id = :userId))", nativeQuery = true)
+    int softDeleteAllOfUser(Long userId);
+
+    @Modifying
+    @Transactional
+    @Query(value = "delete from comments where comment_id in (" +
+                   "select c.comment_id from comments c " +
+                   "where c.deleted = true " +
+                   "limit :batchSize)", nativeQuery = true)
+    int purgeOfDeleted(int batchSize);
 }
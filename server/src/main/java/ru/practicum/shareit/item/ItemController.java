@@ -8,6 +8,8 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -18,10 +20,13 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.config.SparseFields;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/items")
@@ -105,10 +110,12 @@ public class ItemController {
                     required = true,
                     content = @Content(schema = @Schema(implementation = ItemDto.class))
             )
-            @RequestBody final ItemDto itemDto
+            @RequestBody final ItemDto itemDto,
+            @Parameter(description = "ETag, полученный при чтении; при несовпадении версии вернётся 412")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) final String ifMatch
     ) {
         log.debug("PATCH /items/{} — обновление вещи", itemId);
-        return itemService.update(itemDto, itemId, userId);
+        return itemService.update(itemDto, itemId, userId, ifMatch);
     }
 
     @Operation(
@@ -135,14 +142,27 @@ public class ItemController {
                     content = @Content(schema = @Schema(implementation = ItemDto.class)))
     )
     @GetMapping("/{itemId}")
-    public ItemDto getItemById(
+    public ResponseEntity<ItemDto> getItemById(
             @Parameter(description = "ID пользователя, запрашивающего вещь", required = true)
             @RequestHeader(HEADER) final Long userId,
             @Parameter(description = "ID вещи", required = true)
-            @PathVariable final Long itemId
+            @PathVariable final Long itemId,
+            @Parameter(description = "Поля ответа через запятую, например id,name,available", example = "id,name,available")
+            @RequestParam(name = SparseFields.PARAM, required = false) final String fields,
+            final WebRequest webRequest
     ) {
         log.info("GET /items/{} — получение вещи пользователем ID={}", itemId, userId);
-        return itemService.getItemById(userId, itemId);
+        final Set<String> fieldSet = SparseFields.parse(fields);
+        // If-None-Match сверяется по одной версии строки, до загрузки комментариев и бронирований
+        final String eTag = itemService.getItemETag(userId, itemId, fieldSet);
+        if (eTag != null && webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        final ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (eTag != null) {
+            response.eTag(eTag);
+        }
+        return response.body(itemService.getItemById(userId, itemId, fieldSet));
     }
 
     @Operation(
@@ -157,10 +177,12 @@ public class ItemController {
             @Parameter(description = "Номер первой записи (пагинация)", example = "0")
             @RequestParam(required = false, defaultValue = "0") final int from,
             @Parameter(description = "Количество записей на странице", example = "20")
-            @RequestParam(required = false, defaultValue = "20") final int size
+            @RequestParam(required = false, defaultValue = "20") final int size,
+            @Parameter(description = "Поля ответа через запятую, например id,name,available", example = "id,name,available")
+            @RequestParam(name = SparseFields.PARAM, required = false) final String fields
     ) {
         log.info("GET /items — получение всех вещей владельца ID={}", userId);
-        return itemService.getItemsByOwnerId(userId, from, size);
+        return itemService.getItemsByOwnerId(userId, from, size, SparseFields.parse(fields));
     }
 
     @Operation(
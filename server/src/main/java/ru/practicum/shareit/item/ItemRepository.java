@@ -1,20 +1,33 @@
 package ru.practicum.shareit.item;
 
 import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.ItemRequest;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
     List<Item> findAllByOwnerId(Long ownerId, Pageable pageable);
 
+    @Query("select i.version as version, i.owner.id as ownerId from Item i where i.id = :itemId")
+    Optional<VersionView> findVersionById(Long itemId);
+
+    // новый комментарий меняет карточку вещи, поэтому её версия растёт вместе с ним
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("select i from Item i where i.id = :itemId")
+    Optional<Item> findForUpdateById(Long itemId);
+
     @Query("select i from Item i " +
            "where upper(i.name) like upper(concat('%', ?1, '%')) " +
            "or upper(i.description) like upper(concat('%', ?1, '%'))" +
@@ -24,4 +37,52 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
     List<Item> findAllByItemRequestId(Long userid);
 
     List<Item> findAllByItemRequestIn(Collection<ItemRequest> itemRequests);
+
+    @Modifying
+    @Query(value = "update items set deleted = true, version = version + 1 " +
+                   "where item_id = :itemId and deleted = false", nativeQuery = true)
+    int softDelete(Long itemId);
+
+    @Modifying
+    @Query(value = "update items set deleted = true, version = version + 1 " +
+                   "where owner_id = :ownerId and deleted = false", nativeQuery = true)
+    int softDeleteAllByOwnerId(Long ownerId);
+
+    // имя автора комментария входит в карточку вещи
+    @Modifying
+    @Query(value = "update items set version = version + 1 " +
+                   "where item_id in (select c.item_id from comments c where c.author_id = :authorId)", nativeQuery = true)
+    int touchByCommentAuthorId(Long authorId);
+
+    // удалённый запрос не должен остаться в карточках чужих вещей, созданных по нему
+    @Modifying
+    @Query(value = "update items set request_id = null, version = version + 1 " +
+                   "where request_id in (select r.request_id from requests r where r.requestor_id = :requestorId)",
+            nativeQuery = true)
+    int detachFromRequestsOf(Long requestorId);
+
+    @Modifying
+    @Transactional
+    @Query(value = "update items set request_id = null where item_id in (" +
+                   "select i.item_id from items i " +
+                   "join requests r on r.request_id = i.request_id " +
+                   "where r.deleted = true " +
+                   "limit :batchSize)", nativeQuery = true)
+    int detachDeletedRequests(int batchSize);
+
+    @Modifying
+    @Transactional
+    @Query(value = "delete from items where item_id in (" +
+                   "select i.item_id from items i " +
+                   "where i.deleted = true " +
+                   "and not exists (select 1 from bookings b where b.item_id = i.item_id) " +
+                   "and not exists (select 1 from comments c where c.item_id = i.item_id) " +
+                   "limit :batchSize)", nativeQuery = true)
+    int purgeDeleted(int batchSize);
+
+    interface VersionView {
+        Long getVersion();
+
+        Long getOwnerId();
+    }
 }
@@ -4,6 +4,7 @@ import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
 import java.util.List;
+import java.util.Set;
 
 public interface ItemService {
 
@@ -11,13 +12,15 @@ public interface ItemService {
 
     CommentDto createComment(CommentDto commentDto, Long userId, Long itemId);
 
-    ItemDto getItemById(Long userId, Long itemId);
+    ItemDto getItemById(Long userId, Long itemId, Set<String> fields);
 
-    List<ItemDto> getItemsByOwnerId(Long userId, int from, int size);
+    String getItemETag(Long userId, Long itemId, Set<String> fields);
+
+    List<ItemDto> getItemsByOwnerId(Long userId, int from, int size, Set<String> fields);
 
     List<ItemDto> getItemsBySearchQuery(String searchText, int from, int size);
 
-    ItemDto update(ItemDto itemDto, Long itemId, Long userId);
+    ItemDto update(ItemDto itemDto, Long itemId, Long userId, String ifMatch);
 
     void delete(Long itemId);
 
@@ -8,6 +8,9 @@ import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.config.EntityTags;
+import ru.practicum.shareit.config.ServerTiming;
+import ru.practicum.shareit.config.SparseFields;
 import ru.practicum.shareit.exception.ItemAlreadyExistsException;
 import ru.practicum.shareit.exception.ItemForbiddenException;
 import ru.practicum.shareit.exception.NotFoundException;
@@ -18,7 +21,7 @@ import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.request.ItemRequestRepository;
-import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserExistenceCache;
 import ru.practicum.shareit.user.UserRepository;
 
 import java.time.LocalDateTime;
@@ -27,12 +30,12 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class ItemServiceImpl implements ItemService {
 
-    private static final String USER_NOT_FOUND = "Пользователь не найден";
     private static final String REQUEST_NOT_FOUND = "Запрос не найден";
     private static final String ITEM_NOT_FOUND = "Вещь не найдена";
 
@@ -40,19 +43,19 @@ public class ItemServiceImpl implements ItemService {
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
     private final UserRepository userRepository;
+    private final UserExistenceCache userExistenceCache;
     private final ItemRequestRepository itemRequestRepository;
 
     @Override
     @Transactional
     public ItemDto create(final ItemDto itemDto, final Long userId) {
-        final User user = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException(USER_NOT_FOUND));
+        userExistenceCache.requireExists(userId);
 
         final Item item = ItemMapper.toItem(itemDto);
-        item.setOwner(user);
+        item.setOwner(userRepository.getReferenceById(userId));
 
         if (itemDto.getRequestId() != null) {
-            final ItemRequest itemRequest = itemRequestRepository.findById(itemDto.getRequestId())
+            final ItemRequest itemRequest = itemRequestRepository.findForUpdateById(itemDto.getRequestId())
                     .orElseThrow(() -> new NotFoundException(REQUEST_NOT_FOUND));
             item.setItemRequest(itemRequest);
         }
@@ -63,10 +66,9 @@ public class ItemServiceImpl implements ItemService {
     @Override
     @Transactional
     public CommentDto createComment(final CommentDto commentDto, final Long userId, final Long itemId) {
-        final User user = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException(USER_NOT_FOUND));
+        userExistenceCache.requireExists(userId);
 
-        final Item item = itemRepository.findById(itemId)
+        final Item item = itemRepository.findForUpdateById(itemId)
                 .orElseThrow(() -> new NotFoundException(ITEM_NOT_FOUND));
 
         final Comment comment = CommentMapper.toComment(commentDto);
@@ -75,7 +77,7 @@ public class ItemServiceImpl implements ItemService {
             throw new ValidationException("Комментарии можно оставлять только к тем вещам, на которые было бронирование");
         }
 
-        comment.setAuthor(user);
+        comment.setAuthor(userRepository.getReferenceById(userId));
         comment.setItem(item);
         comment.setCreated(LocalDateTime.now());
 
@@ -84,27 +86,43 @@ public class ItemServiceImpl implements ItemService {
 
     @Override
     @Transactional(readOnly = true)
-    public ItemDto getItemById(final Long userId, final Long itemId) {
+    public ItemDto getItemById(final Long userId, final Long itemId, final Set<String> fields) {
         final Item item = itemRepository.findById(itemId)
                 .orElseThrow(() -> new NotFoundException(ITEM_NOT_FOUND));
         final ItemDto itemDto = ItemMapper.toItemDto(item);
 
-        if (Objects.equals(item.getOwner().getId(), userId)) {
+        if (Objects.equals(item.getOwner().getId(), userId) && needsBookingInfo(fields)) {
             addBookingInfo(itemDto);
         }
 
-        addCommentsInfo(itemDto);
+        if (SparseFields.includes(fields, "comments")) {
+            addCommentsInfo(itemDto);
+        }
 
         return itemDto;
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<ItemDto> getItemsByOwnerId(final Long userId, final int from, final int size) {
+    public String getItemETag(final Long userId, final Long itemId, final Set<String> fields) {
+        final ItemRepository.VersionView version = itemRepository.findVersionById(itemId)
+                .orElseThrow(() -> new NotFoundException(ITEM_NOT_FOUND));
+        // последнее и ближайшее бронирования в ответе владельцу зависят от текущего времени, версии тут мало
+        if (Objects.equals(version.getOwnerId(), userId) && needsBookingInfo(fields)) {
+            return null;
+        }
+        return EntityTags.forVersion(version.getVersion(), fields);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ItemDto> getItemsByOwnerId(final Long userId, final int from, final int size, final Set<String> fields) {
+        final boolean withBookings = needsBookingInfo(fields);
+        final boolean withComments = SparseFields.includes(fields, "comments");
         return itemRepository.findAllByOwnerId(userId, PageRequest.of(from / size, size)).stream()
                 .map(ItemMapper::toItemDto)
-                .map(this::addBookingInfo)
-                .map(this::addCommentsInfo)
+                .map(itemDto -> withBookings ? addBookingInfo(itemDto) : itemDto)
+                .map(itemDto -> withComments ? addCommentsInfo(itemDto) : itemDto)
                 .sorted(Comparator.comparing(ItemDto::getId))
                 .toList();
     }
@@ -122,13 +140,17 @@ public class ItemServiceImpl implements ItemService {
 
     @Override
     @Transactional
-    public ItemDto update(final ItemDto itemDto, final Long itemId, final Long userId) {
+    public ItemDto update(final ItemDto itemDto, final Long itemId, final Long userId, final String ifMatch) {
         final Item item = itemRepository.findById(itemId)
                 .orElseThrow(() -> new NotFoundException(ITEM_NOT_FOUND));
 
         if (!item.getOwner().getId().equals(userId)) {
             throw new ItemForbiddenException("Редактирование вещи доступно только владельцу");
         }
+        EntityTags.checkIfMatch(ifMatch, item.getVersion());
+        if (item.getItemRequest() != null) {
+            itemRequestRepository.findForUpdateById(item.getItemRequest().getId());
+        }
         Optional.ofNullable(itemDto.getName()).ifPresent(item::setName);
         Optional.ofNullable(itemDto.getDescription()).ifPresent(item::setDescription);
         Optional.ofNullable(itemDto.getAvailable()).ifPresent(item::setAvailable);
@@ -143,17 +165,28 @@ public class ItemServiceImpl implements ItemService {
     @Override
     @Transactional
     public void delete(final Long itemId) {
-        itemRepository.deleteById(itemId);
+        itemRequestRepository.touchByItemId(itemId);
+        itemRepository.softDelete(itemId);
+        // бронирования и комментарии ссылались бы на скрытую вещь
+        bookingRepository.softDeleteAllByItemId(itemId);
+        commentRepository.softDeleteAllByItemId(itemId);
+    }
+
+    private static boolean needsBookingInfo(final Set<String> fields) {
+        return SparseFields.includes(fields, "lastBooking") || SparseFields.includes(fields, "nextBooking");
     }
 
     private ItemDto addCommentsInfo(final ItemDto itemDto) {
+        final long start = System.nanoTime();
         itemDto.setComments(commentRepository.findAllByItemId(itemDto.getId()).stream()
                 .map(CommentMapper::toCommentDto)
                 .toList());
+        ServerTiming.recordEnrichment(System.nanoTime() - start);
         return itemDto;
     }
 
     private ItemDto addBookingInfo(final ItemDto itemDto) {
+        final long start = System.nanoTime();
         final List<Booking> bookings = bookingRepository.findAllByItemId(itemDto.getId());
 
         final Booking nextBooking = bookings.stream()
@@ -177,6 +210,7 @@ public class ItemServiceImpl implements ItemService {
                 .bookerId(lastBooking.getUser().getId())
                 .build() : null);
 
+        ServerTiming.recordEnrichment(System.nanoTime() - start);
         return itemDto;
     }
 }
@@ -13,6 +13,7 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.SQLRestriction;
 import ru.practicum.shareit.user.User;
 
 import java.time.LocalDateTime;
@@ -21,6 +22,7 @@ import java.time.LocalDateTime;
 @Setter
 @Getter
 @Table(name = "comments")
+@SQLRestriction("deleted = false")
 @Builder(toBuilder = true)
 @AllArgsConstructor
 @NoArgsConstructor
@@ -44,4 +46,7 @@ public class Comment {
 
     @Column(name = "created_date")
     private LocalDateTime created;  //дата создания комментария
+
+    @Column(name = "deleted", nullable = false)
+    private boolean deleted;        //удалена вещь или автор: запись ждёт фоновой очистки
 }
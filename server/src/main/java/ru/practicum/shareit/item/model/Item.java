@@ -8,16 +8,19 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.SQLRestriction;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.user.User;
 
 @Entity
 @Table(name = "items")
+@SQLRestriction("deleted = false")
 @Builder(toBuilder = true)
 @AllArgsConstructor
 @NoArgsConstructor
@@ -44,4 +47,11 @@ public class Item {
     @JoinColumn(name = "request_id")
     private ItemRequest itemRequest;         //если вещь была создана по запросу другого пользователя, то в этом
     // поле хранится ссылка на соответствующий запрос
+
+    @Column(name = "deleted", nullable = false)
+    private boolean deleted;        //признак мягкого удаления
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;           //версия строки: источник ETag и защита от одновременной правки
 }
@@ -0,0 +1,68 @@
+package ru.practicum.shareit.purge;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.item.CommentRepository;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.util.function.IntUnaryOperator;
+
+@Slf4j
+@Component
+public class DeletedEntityPurgeJob {
+
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final CommentRepository commentRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final int batchSize;
+    private final int maxBatches;
+
+    public DeletedEntityPurgeJob(final UserRepository userRepository,
+                                 final ItemRepository itemRepository,
+                                 final BookingRepository bookingRepository,
+                                 final CommentRepository commentRepository,
+                                 final ItemRequestRepository itemRequestRepository,
+                                 @Value("${shareit.purge.batch-size:1000}") final int batchSize,
+                                 @Value("${shareit.purge.max-batches:100}") final int maxBatches) {
+        this.userRepository = userRepository;
+        this.itemRepository = itemRepository;
+        this.bookingRepository = bookingRepository;
+        this.commentRepository = commentRepository;
+        this.itemRequestRepository = itemRequestRepository;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+    }
+
+    @Scheduled(cron = "${shareit.purge.cron:0 0 3 * * *}")
+    public void purge() {
+        // порядок важен: сначала зависимые строки, затем вещи и пользователи
+        final int comments = drain("комментарии", commentRepository::purgeOfDeleted);
+        final int bookings = drain("бронирования", bookingRepository::purgeOfDeleted);
+        final int detached = drain("ссылки вещей на запросы", itemRepository::detachDeletedRequests);
+        final int requests = drain("запросы", itemRequestRepository::purgeDeleted);
+        final int items = drain("вещи", itemRepository::purgeDeleted);
+        final int users = drain("пользователи", userRepository::purgeDeleted);
+        log.info("Очистка удалённых записей завершена: комментарии={}, бронирования={}, ссылки на запросы={}, " +
+                 "запросы={}, вещи={}, пользователи={}", comments, bookings, detached, requests, items, users);
+    }
+
+    private int drain(final String name, final IntUnaryOperator batch) {
+        int total = 0;
+        for (int i = 0; i < maxBatches; i++) {
+            final int affected = batch.applyAsInt(batchSize);
+            total += affected;
+            if (affected < batchSize) {
+                return total;
+            }
+        }
+        log.warn("Очистка '{}' остановлена по лимиту пакетов, продолжится при следующем запуске", name);
+        return total;
+    }
+}
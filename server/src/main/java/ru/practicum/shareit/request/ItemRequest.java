@@ -8,11 +8,13 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.SQLRestriction;
 import ru.practicum.shareit.user.User;
 
 import java.time.LocalDateTime;
@@ -21,6 +23,7 @@ import java.time.LocalDateTime;
 @Setter
 @Getter
 @Table(name = "requests")
+@SQLRestriction("deleted = false")
 @Builder(toBuilder = true)
 @AllArgsConstructor
 @NoArgsConstructor
@@ -40,4 +43,11 @@ public class ItemRequest {
     @Column(name = "create_date")
     private LocalDateTime created;
 
+    @Column(name = "deleted", nullable = false)
+    private boolean deleted;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
 }
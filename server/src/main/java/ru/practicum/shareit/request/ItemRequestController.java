@@ -7,7 +7,9 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.request.dto.ItemRequestCreateDto;
 import ru.practicum.shareit.request.dto.ItemRequestCreateResponseDto;
 import ru.practicum.shareit.request.dto.ItemRequestGetResponseDto;
@@ -91,12 +93,17 @@ public class ItemRequestController {
             }
     )
     @GetMapping("/{itemRequestId}")
-    public ItemRequestGetResponseDto getById(
+    public ResponseEntity<ItemRequestGetResponseDto> getById(
             @Parameter(description = "ID пользователя, выполняющего запрос", required = true)
             @RequestHeader(HEADER) final Long userId,
             @Parameter(description = "ID запроса на вещь", required = true)
-            @PathVariable final Long itemRequestId
+            @PathVariable final Long itemRequestId,
+            final WebRequest webRequest
     ) {
-        return itemRequestService.getById(userId, itemRequestId);
+        final String eTag = itemRequestService.getETag(itemRequestId);
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).body(itemRequestService.getById(userId, itemRequestId));
     }
 }
@@ -1,12 +1,51 @@
 package ru.practicum.shareit.request;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
     List<ItemRequest> findAllByRequestorIdNotOrderByCreatedDesc(long userId, Pageable pageable);
 
     List<ItemRequest> findAllByRequestorIdOrderByCreatedDesc(long requestorId, Pageable pageable);
+
+    @Query("select r.version from ItemRequest r where r.id = :requestId")
+    Optional<Long> findVersionById(Long requestId);
+
+    // в карточке запроса показываются вещи-ответы, поэтому их изменения поднимают версию запроса
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("select r from ItemRequest r where r.id = :requestId")
+    Optional<ItemRequest> findForUpdateById(Long requestId);
+
+    @Modifying
+    @Query(value = "update requests set version = version + 1 " +
+                   "where request_id in (select i.request_id from items i where i.item_id = :itemId)", nativeQuery = true)
+    int touchByItemId(Long itemId);
+
+    @Modifying
+    @Query(value = "update requests set version = version + 1 " +
+                   "where request_id in (select i.request_id from items i " +
+                   "where i.owner_id = :ownerId and i.deleted = false)", nativeQuery = true)
+    int touchByItemOwnerId(Long ownerId);
+
+    @Modifying
+    @Query(value = "update requests set deleted = true, version = version + 1 " +
+                   "where requestor_id = :requestorId and deleted = false", nativeQuery = true)
+    int softDeleteAllByRequestorId(Long requestorId);
+
+    @Modifying
+    @Transactional
+    @Query(value = "delete from requests where request_id in (" +
+                   "select r.request_id from requests r " +
+                   "where r.deleted = true " +
+                   "and not exists (select 1 from items i where i.request_id = r.request_id) " +
+                   "limit :batchSize)", nativeQuery = true)
+    int purgeDeleted(int batchSize);
 }
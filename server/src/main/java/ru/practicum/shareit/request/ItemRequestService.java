@@ -13,5 +13,7 @@ public interface ItemRequestService {
 
     ItemRequestGetResponseDto getById(Long userId, Long itemRequestId);
 
+    String getETag(Long itemRequestId);
+
     ItemRequestCreateResponseDto create(ItemRequestCreateDto itemRequestCreateDto, Long userId);
 }
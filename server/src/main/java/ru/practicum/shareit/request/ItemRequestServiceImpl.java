@@ -4,13 +4,14 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.config.EntityTags;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.dto.ItemRequestCreateDto;
 import ru.practicum.shareit.request.dto.ItemRequestCreateResponseDto;
 import ru.practicum.shareit.request.dto.ItemRequestGetResponseDto;
-import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserExistenceCache;
 import ru.practicum.shareit.user.UserRepository;
 
 import java.time.LocalDateTime;
@@ -23,12 +24,12 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ItemRequestServiceImpl implements ItemRequestService {
 
-    private static final String USER_NOT_FOUND = "Пользователь не найден";
     private static final String REQUEST_NOT_FOUND = "Запрос не найден";
 
     private final ItemRequestRepository itemRequestRepository;
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
+    private final UserExistenceCache userExistenceCache;
 
     @Override
     @Transactional(readOnly = true)
@@ -66,13 +67,20 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         return responseDto;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public String getETag(final Long itemRequestId) {
+        return itemRequestRepository.findVersionById(itemRequestId)
+                .map(EntityTags::forVersion)
+                .orElseThrow(() -> new NotFoundException(REQUEST_NOT_FOUND));
+    }
+
     @Override
     @Transactional
     public ItemRequestCreateResponseDto create(final ItemRequestCreateDto itemRequestCreateDto, final Long userId) {
-        final User user = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException(USER_NOT_FOUND));
+        userExistenceCache.requireExists(userId);
         final ItemRequest itemRequest = ItemRequestMapper.toItemRequest(itemRequestCreateDto);
-        itemRequest.setRequestor(user);
+        itemRequest.setRequestor(userRepository.getReferenceById(userId));
         itemRequest.setCreated(LocalDateTime.now());
 
         return ItemRequestMapper.toCreateResponseDto(itemRequestRepository.save(itemRequest));
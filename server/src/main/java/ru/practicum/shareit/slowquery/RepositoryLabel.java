@@ -0,0 +1,28 @@
+package ru.practicum.shareit.slowquery;
+
+// метод репозитория, который выполняется в текущем потоке; SQL без метки выполнен вне репозиториев
+public final class RepositoryLabel {
+
+    private static final ThreadLocal<String> LABEL = new ThreadLocal<>();
+
+    private RepositoryLabel() {
+    }
+
+    public static String enter(final String label) {
+        final String previous = LABEL.get();
+        LABEL.set(label);
+        return previous;
+    }
+
+    public static void restore(final String previous) {
+        if (previous == null) {
+            LABEL.remove();
+        } else {
+            LABEL.set(previous);
+        }
+    }
+
+    public static String current() {
+        return LABEL.get();
+    }
+}
@@ -0,0 +1,43 @@
+package ru.practicum.shareit.slowquery;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// помечает SQL именем метода репозитория, например BookingRepository.findAllByItemId
+@Aspect
+@Component
+public class RepositoryLabelAspect {
+
+    private static final String UNKNOWN = "Repository";
+
+    private final Map<Class<?>, String> names = new ConcurrentHashMap<>();
+
+    @Around("execution(* *(..)) && this(org.springframework.data.repository.Repository)")
+    public Object label(final ProceedingJoinPoint joinPoint) throws Throwable {
+        final String previous = RepositoryLabel.enter(
+                names.computeIfAbsent(joinPoint.getThis().getClass(), type -> repositoryName(joinPoint.getThis())) +
+                '.' + joinPoint.getSignature().getName());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            RepositoryLabel.restore(previous);
+        }
+    }
+
+    // save и findById объявлены в интерфейсах Spring Data, поэтому имя берётся у прокси, а не у сигнатуры
+    private static String repositoryName(final Object proxy) {
+        for (final Class<?> type : AopProxyUtils.proxiedUserInterfaces(proxy)) {
+            if (Repository.class.isAssignableFrom(type) && !type.getName().startsWith("org.springframework")) {
+                return type.getSimpleName();
+            }
+        }
+        return UNKNOWN;
+    }
+}
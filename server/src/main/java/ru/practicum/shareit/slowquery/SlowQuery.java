@@ -0,0 +1,19 @@
+package ru.practicum.shareit.slowquery;
+
+import java.time.Instant;
+import java.util.List;
+
+// параметры хранятся только как типы и длины строк: значения пользователей в журнал не попадают
+public record SlowQuery(
+        Instant executedAt,
+        String repositoryMethod,
+        String sql,
+        List<String> parameterShapes,
+        double durationMs,
+        String plan
+) {
+
+    public SlowQuery withPlan(final String explained) {
+        return new SlowQuery(executedAt, repositoryMethod, sql, parameterShapes, durationMs, explained);
+    }
+}
@@ -0,0 +1,114 @@
+package ru.practicum.shareit.slowquery;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.TreeMap;
+
+// замеряет каждое выполнение PreparedStatement и передаёт медленные в SlowQueryLog
+public class SlowQueryDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private static final String PREPARE_STATEMENT = "prepareStatement";
+    private static final String SETTER_PREFIX = "set";
+    private static final String SET_NULL = "setNull";
+    private static final String CLEAR_PARAMETERS = "clearParameters";
+    private static final String EXECUTE_PREFIX = "execute";
+
+    private final SlowQueryLog slowQueryLog;
+
+    public SlowQueryDataSource(final DataSource target, final SlowQueryLog slowQueryLog) {
+        super(target);
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrapOrClose(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(final String username, final String password) throws SQLException {
+        return wrapOrClose(super.getConnection(username, password));
+    }
+
+    // пул закрывается вместе с контекстом, как и без обёртки
+    @Override
+    public void close() throws Exception {
+        if (obtainTargetDataSource() instanceof AutoCloseable) {
+            ((AutoCloseable) obtainTargetDataSource()).close();
+        }
+    }
+
+    // соединение возвращается в пул, если обернуть его не удалось
+    private Connection wrapOrClose(final Connection connection) throws SQLException {
+        try {
+            return wrap(connection);
+        } catch (RuntimeException e) {
+            try (connection) {
+                throw e;
+            }
+        }
+    }
+
+    // интерфейсы java.sql видны загрузчику платформы независимо от загрузчика приложения
+    private Connection wrap(final Connection connection) {
+        return (Connection) Proxy.newProxyInstance(ClassLoader.getPlatformClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    final Object result = invoke(connection, method, args);
+                    if (result instanceof PreparedStatement statement && PREPARE_STATEMENT.equals(method.getName())) {
+                        return Proxy.newProxyInstance(ClassLoader.getPlatformClassLoader(),
+                                new Class<?>[]{PreparedStatement.class}, new TimedStatement(statement, (String) args[0]));
+                    }
+                    return result;
+                });
+    }
+
+    private static Object invoke(final Object target, final Method method, final Object... args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private final class TimedStatement implements InvocationHandler {
+
+        private final PreparedStatement statement;
+        private final String sql;
+        private final Map<Integer, Object> parameters = new TreeMap<>();
+
+        private TimedStatement(final PreparedStatement statement, final String sql) {
+            this.statement = statement;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            final String name = method.getName();
+            if (name.startsWith(SETTER_PREFIX) && args != null && args.length > 1 && args[0] instanceof Integer index) {
+                parameters.put(index, SET_NULL.equals(name) ? null : args[1]);
+            } else if (CLEAR_PARAMETERS.equals(name)) {
+                parameters.clear();
+            } else if (name.startsWith(EXECUTE_PREFIX) && (args == null || args.length == 0)) {
+                final long start = System.nanoTime();
+                try {
+                    return SlowQueryDataSource.invoke(statement, method, args);
+                } finally {
+                    final long elapsed = System.nanoTime() - start;
+                    if (slowQueryLog.isSlow(elapsed)) {
+                        slowQueryLog.record(sql, parameters, elapsed, RepositoryLabel.current(), obtainTargetDataSource());
+                    }
+                }
+            }
+            return SlowQueryDataSource.invoke(statement, method, args);
+        }
+    }
+}
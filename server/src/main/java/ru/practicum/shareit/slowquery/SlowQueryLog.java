@@ -0,0 +1,206 @@
+package ru.practicum.shareit.slowquery;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// последние медленные запросы в кольцевом буфере и план выполнения для каждого различного SQL
+@Slf4j
+@Component
+public class SlowQueryLog {
+
+    private static final int EXPLAIN_QUEUE_SIZE = 16;
+    private static final String POSTGRESQL = "PostgreSQL";
+    private static final String PREPARED_NAME = "shareit_slow_query_plan";
+    private static final char QUOTE = '\'';
+    private static final char PLACEHOLDER = '?';
+
+    private final Deque<SlowQuery> recent = new ArrayDeque<>();
+    private final Map<String, String> plans;
+    private final Set<String> pending = new HashSet<>();
+    private final ExecutorService explainer;
+    private final long thresholdNanos;
+    private final int capacity;
+    private final boolean explainEnabled;
+
+    public SlowQueryLog(@Value("${shareit.slow-queries.threshold:200ms}") final Duration threshold,
+                        @Value("${shareit.slow-queries.capacity:50}") final int capacity,
+                        @Value("${shareit.slow-queries.explain:true}") final boolean explain) {
+        this.thresholdNanos = threshold.toNanos();
+        this.capacity = capacity;
+        this.explainEnabled = explain;
+        this.plans = new LinkedHashMap<>(capacity, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, String> eldest) {
+                return size() > capacity;
+            }
+        };
+        // EXPLAIN не должен отнимать соединения у запросов: один поток, лишние задачи отбрасываются
+        this.explainer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(EXPLAIN_QUEUE_SIZE),
+                runnable -> Thread.ofPlatform().name("slow-query-explain").daemon().unstarted(runnable),
+                new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    public boolean isSlow(final long nanos) {
+        return nanos >= thresholdNanos;
+    }
+
+    // значения параметров не сохраняются и в EXPLAIN не передаются: от них остаются только типы
+    public void record(final String sql, final Map<Integer, Object> parameters, final long nanos, final String label,
+                       final DataSource dataSource) {
+        final SlowQuery query = new SlowQuery(Instant.now(), label != null ? label : "-", sql,
+                parameters.values().stream().map(SlowQueryLog::shapeOf).toList(), nanos / 1_000_000.0, null);
+        final boolean needsPlan;
+        synchronized (this) {
+            recent.addLast(query);
+            if (recent.size() > capacity) {
+                recent.removeFirst();
+            }
+            needsPlan = explainEnabled && isExplainable(sql) && !plans.containsKey(sql) && pending.add(sql);
+        }
+        log.warn("Медленный запрос {} за {} мс: {}", query.repositoryMethod(),
+                String.format(Locale.ROOT, "%.1f", query.durationMs()), sql);
+        if (needsPlan) {
+            final int parameterCount = parameters.size();
+            explainer.execute(() -> explain(sql, parameterCount, dataSource));
+        }
+    }
+
+    // самые медленные сверху
+    public synchronized List<SlowQuery> slowest() {
+        return recent.stream()
+                .map(query -> query.withPlan(plans.get(query.sql())))
+                .sorted(Comparator.comparingDouble(SlowQuery::durationMs).reversed())
+                .toList();
+    }
+
+    public synchronized void clear() {
+        recent.clear();
+        plans.clear();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        explainer.shutdownNow();
+    }
+
+    private void explain(final String sql, final int parameterCount, final DataSource dataSource) {
+        String plan;
+        try (Connection connection = dataSource.getConnection()) {
+            plan = POSTGRESQL.equals(connection.getMetaData().getDatabaseProductName()) ?
+                    explainGeneric(connection, sql, parameterCount) :
+                    explainWithNulls(connection, sql, parameterCount);
+        } catch (SQLException e) {
+            log.debug("Не удалось получить план запроса {}", sql, e);
+            plan = "EXPLAIN не выполнен: " + e.getMessage();
+        }
+        synchronized (this) {
+            pending.remove(sql);
+            plans.put(sql, plan);
+        }
+    }
+
+    // обычный EXPLAIN с привязанными значениями строит custom plan и печатает значения пользователя в условиях;
+    // общий план (force_generic_plan, PostgreSQL 12+) от значений не зависит, поэтому в EXECUTE передаются NULL
+    private static String explainGeneric(final Connection connection, final String sql, final int parameterCount)
+            throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PREPARE " + PREPARED_NAME + " AS " + numbered(sql));
+            try {
+                statement.execute("SET plan_cache_mode = force_generic_plan");
+                final String arguments = parameterCount == 0 ? "" :
+                        "(" + String.join(", ", Collections.nCopies(parameterCount, "NULL")) + ")";
+                try (ResultSet resultSet = statement.executeQuery("EXPLAIN EXECUTE " + PREPARED_NAME + arguments)) {
+                    return readPlan(resultSet);
+                }
+            } finally {
+                // соединение вернётся в пул: настройки сеанса и подготовленный запрос не должны в нём остаться
+                statement.execute("RESET plan_cache_mode");
+                statement.execute("DEALLOCATE " + PREPARED_NAME);
+            }
+        }
+    }
+
+    private static String explainWithNulls(final Connection connection, final String sql, final int parameterCount)
+            throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            for (int index = 1; index <= parameterCount; index++) {
+                statement.setNull(index, Types.NULL);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return readPlan(resultSet);
+            }
+        }
+    }
+
+    private static String readPlan(final ResultSet resultSet) throws SQLException {
+        final StringJoiner lines = new StringJoiner(System.lineSeparator());
+        while (resultSet.next()) {
+            lines.add(resultSet.getString(1));
+        }
+        return lines.toString();
+    }
+
+    // PREPARE понимает только $1, $2, ...; знаки вопроса внутри строковых литералов не трогаем
+    private static String numbered(final String sql) {
+        final StringBuilder result = new StringBuilder(sql.length() + 8);
+        boolean quoted = false;
+        int index = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            final char c = sql.charAt(i);
+            if (c == QUOTE) {
+                quoted = !quoted;
+            }
+            if (c == PLACEHOLDER && !quoted) {
+                index++;
+                result.append('$').append(index);
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    // EXPLAIN без ANALYZE запрос не выполняет, но изменяющие запросы всё равно не трогаем
+    private static boolean isExplainable(final String sql) {
+        final String head = sql.stripLeading().toLowerCase(Locale.ROOT);
+        return head.startsWith("select") || head.startsWith("with");
+    }
+
+    private static String shapeOf(final Object value) {
+        if (value == null) {
+            return "null";
+        }
+        if (value instanceof CharSequence text) {
+            return "String(" + text.length() + ")";
+        }
+        return value.getClass().getSimpleName();
+    }
+}
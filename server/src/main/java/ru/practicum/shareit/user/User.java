@@ -6,16 +6,19 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.SQLRestriction;
 
 @Entity
 @Getter
 @Setter
 @Table(name = "users")
+@SQLRestriction("deleted = false")
 @Builder(toBuilder = true)
 @AllArgsConstructor
 @NoArgsConstructor
@@ -31,4 +34,11 @@ public class User {
 
     @Column(name = "email", unique = true)
     private String email; // адрес электронной почты
+
+    @Column(name = "deleted", nullable = false)
+    private boolean deleted; // признак мягкого удаления
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version; // версия строки для ETag и If-Match
 }
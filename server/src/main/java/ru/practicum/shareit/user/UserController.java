@@ -1,26 +1,43 @@
 package ru.practicum.shareit.user;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
+@Validated
 @RequestMapping(path = "/users")
 @Slf4j
 @RequiredArgsConstructor
@@ -28,6 +45,7 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private final ObjectMapper objectMapper;
 
     @Operation(
             summary = "Создать пользователя",
@@ -69,10 +87,12 @@ public class UserController {
             )
             @RequestBody final UserDto userDto,
             @Parameter(description = "ID пользователя", required = true)
-            @PathVariable final Long userId
+            @PathVariable final Long userId,
+            @Parameter(description = "ETag, полученный при чтении; при несовпадении версии вернётся 412")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) final String ifMatch
     ) {
         log.debug("PATCH /users/{} — обновление пользователя", userId);
-        return userService.update(userDto, userId);
+        return userService.update(userDto, userId, ifMatch);
     }
 
     @Operation(
@@ -93,14 +113,46 @@ public class UserController {
     }
 
     @Operation(
-            summary = "Получить список всех пользователей",
-            description = "Возвращает список всех зарегистрированных пользователей",
+            summary = "Получить страницу пользователей",
+            description = "Возвращает не больше size пользователей, упорядоченных по ID, начиная после указанного ID",
             responses = @ApiResponse(responseCode = "200", description = "Список пользователей получен")
     )
+    @GetMapping(params = {"size", "stream!=true"})
+    public List<UserDto> getUsers(
+            @Parameter(description = "ID последнего пользователя предыдущей страницы", example = "0")
+            @RequestParam(defaultValue = "0") @Min(0) final Long afterId,
+            @Parameter(description = "Количество записей на странице", example = "20", required = true)
+            @RequestParam @Min(1) @Max(1000) final int size
+    ) {
+        log.debug("GET /users — получение списка пользователей после ID={}, size={}", afterId, size);
+        return userService.getUsers(afterId, size);
+    }
+
+    // без size список, как и раньше, содержит всех пользователей, но передаётся потоком, не собираясь в памяти
+    @Operation(
+            summary = "Выгрузить всех пользователей потоком",
+            description = "Без параметра size или с stream=true передаёт всех пользователей, упорядоченных по ID, " +
+                          "JSON-массивом по мере чтения из БД",
+            responses = @ApiResponse(responseCode = "200", description = "Выгрузка пользователей начата")
+    )
     @GetMapping
-    public List<UserDto> getUsers() {
-        log.debug("GET /users — получение списка всех пользователей");
-        return userService.getUsers();
+    public ResponseEntity<StreamingResponseBody> streamUsers(
+            @Parameter(description = "ID, после которого начинается выгрузка", example = "0")
+            @RequestParam(defaultValue = "0") @Min(0) final Long afterId
+    ) {
+        log.debug("GET /users?stream=true — потоковая выгрузка пользователей после ID={}", afterId);
+        final ObjectWriter writer = objectMapper.writerFor(UserDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        final StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                userService.streamUsers(afterId, user -> writeUser(writer, generator, user));
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
     }
 
     @Operation(
@@ -113,11 +165,24 @@ public class UserController {
             }
     )
     @GetMapping("/{userId}")
-    public UserDto getUserById(
+    public ResponseEntity<UserDto> getUserById(
             @Parameter(description = "ID пользователя", required = true)
-            @PathVariable final Long userId
+            @PathVariable final Long userId,
+            final WebRequest webRequest
     ) {
         log.debug("GET /users/{} — получение пользователя", userId);
-        return userService.getUserById(userId);
+        final String eTag = userService.getUserETag(userId);
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).body(userService.getUserById(userId));
+    }
+
+    private static void writeUser(final ObjectWriter writer, final JsonGenerator generator, final UserDto user) {
+        try {
+            writer.writeValue(generator, user);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
@@ -0,0 +1,86 @@
+package ru.practicum.shareit.user;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.exception.NotFoundException;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class UserExistenceCache {
+
+    private static final String USER_NOT_FOUND = "Пользователь не найден";
+
+    private final UserRepository userRepository;
+    private final Map<Long, Long> knownUsers = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final long ttlNanos;
+
+    public UserExistenceCache(final UserRepository userRepository,
+                              @Value("${shareit.user-cache.max-size:100000}") final int maxSize,
+                              @Value("${shareit.user-cache.ttl:30s}") final Duration ttl) {
+        this.userRepository = userRepository;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    public void requireExists(final Long userId) {
+        if (!exists(userId)) {
+            throw new NotFoundException(USER_NOT_FOUND);
+        }
+    }
+
+    public boolean exists(final Long userId) {
+        final Long expiresAt = knownUsers.get(userId);
+        if (expiresAt != null && expiresAt - System.nanoTime() > 0) {
+            return true;
+        }
+        final boolean exists = userRepository.existsById(userId);
+        if (exists) {
+            remember(userId);
+        } else {
+            knownUsers.remove(userId);
+        }
+        return exists;
+    }
+
+    // внутри транзакции кеш меняется только после фиксации: откат не должен оставить в нём пользователя
+    public void remember(final Long userId) {
+        afterCommit(() -> put(userId));
+    }
+
+    public void evict(final Long userId) {
+        knownUsers.remove(userId);
+        // до фиксации удаления параллельная проверка могла снова запомнить пользователя
+        afterCommit(() -> knownUsers.remove(userId));
+    }
+
+    private void put(final Long userId) {
+        if (knownUsers.size() >= maxSize) {
+            final Iterator<Long> iterator = knownUsers.keySet().iterator();
+            if (iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+        knownUsers.put(userId, System.nanoTime() + ttlNanos);
+    }
+
+    private static void afterCommit(final Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
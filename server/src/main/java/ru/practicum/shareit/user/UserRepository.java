@@ -1,6 +1,55 @@
 package ru.practicum.shareit.user;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface UserRepository extends JpaRepository<User, Long> {
+
+    @Query("select count(u) > 0 from User u where lower(u.email) = lower(:email)")
+    boolean existsByEmailIgnoreCase(String email);
+
+    @Query("select count(u) > 0 from User u where lower(u.email) = lower(:email) and u.id <> :id")
+    boolean existsByEmailIgnoreCaseAndIdNot(String email, Long id);
+
+    @Query("select u.version from User u where u.id = :userId")
+    Optional<Long> findVersionById(Long userId);
+
+    List<User> findAllByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new ru.practicum.shareit.user.dto.UserDto(u.id, u.name, u.email) from User u " +
+           "where u.id > :afterId " +
+           "order by u.id")
+    Stream<UserDto> streamAllByIdGreaterThan(Long afterId);
+
+    @Modifying
+    @Query(value = "update users set deleted = true, version = version + 1, email = concat('deleted:', user_id, ':', email) " +
+                   "where user_id = :userId and deleted = false", nativeQuery = true)
+    int softDelete(Long userId);
+
+    @Modifying
+    @Transactional
+    @Query(value = "delete from users where user_id in (" +
+                   "select u.user_id from users u " +
+                   "where u.deleted = true " +
+                   "and not exists (select 1 from items i where i.owner_id = u.user_id) " +
+                   "and not exists (select 1 from bookings b where b.booker_id = u.user_id) " +
+                   "and not exists (select 1 from comments c where c.author_id = u.user_id) " +
+                   "and not exists (select 1 from requests r where r.requestor_id = u.user_id) " +
+                   "limit :batchSize)", nativeQuery = true)
+    int purgeDeleted(int batchSize);
 }
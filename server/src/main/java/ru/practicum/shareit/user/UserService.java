@@ -3,16 +3,21 @@ package ru.practicum.shareit.user;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface UserService {
 
     UserDto create(UserDto userDto);
 
-    UserDto update(UserDto userDto, Long id);
+    UserDto update(UserDto userDto, Long id, String ifMatch);
 
     void delete(Long userId);
 
     UserDto getUserById(Long id);
 
-    List<UserDto> getUsers();
+    String getUserETag(Long id);
+
+    List<UserDto> getUsers(Long afterId, int size);
+
+    void streamUsers(Long afterId, Consumer<UserDto> consumer);
 }
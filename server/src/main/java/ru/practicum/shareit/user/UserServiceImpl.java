@@ -2,16 +2,22 @@ package ru.practicum.shareit.user;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.config.EntityTags;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.UserAlreadyExistsException;
+import ru.practicum.shareit.item.CommentRepository;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.request.ItemRequestRepository;
 import ru.practicum.shareit.user.dto.UserDto;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -21,13 +27,24 @@ public class UserServiceImpl implements UserService {
     private static final String USER_NOT_FOUND = "Пользователь не найден";
 
     private final UserRepository userRepository;
+    private final UserExistenceCache userExistenceCache;
+    private final ItemRepository itemRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final BookingRepository bookingRepository;
+    private final CommentRepository commentRepository;
 
     @Override
     @Transactional
     public UserDto create(final UserDto userDto) {
+        if (userRepository.existsByEmailIgnoreCase(userDto.getEmail())) {
+            throw new UserAlreadyExistsException(USER_ALREADY_EXISTS);
+        }
         final User user = UserMapper.toUser(userDto);
+        // saveAndFlush: нарушение уникального индекса email при гонке ловится здесь, а не при фиксации транзакции
         try {
-            return UserMapper.toUserDto(userRepository.save(user));
+            final User saved = userRepository.saveAndFlush(user);
+            userExistenceCache.remember(saved.getId());
+            return UserMapper.toUserDto(saved);
         } catch (DataIntegrityViolationException e) {
             throw new UserAlreadyExistsException(USER_ALREADY_EXISTS, e);
         }
@@ -35,15 +52,24 @@ public class UserServiceImpl implements UserService {
 
     @Override
     @Transactional
-    public UserDto update(final UserDto userDto, final Long id) {
+    public UserDto update(final UserDto userDto, final Long id, final String ifMatch) {
         final User user = userRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException(USER_NOT_FOUND));
+        EntityTags.checkIfMatch(ifMatch, user.getVersion());
+
+        if (userDto.getEmail() != null && !userDto.getEmail().equalsIgnoreCase(user.getEmail()) &&
+            userRepository.existsByEmailIgnoreCaseAndIdNot(userDto.getEmail(), id)) {
+            throw new UserAlreadyExistsException(USER_ALREADY_EXISTS);
+        }
 
+        if (userDto.getName() != null && !userDto.getName().equals(user.getName())) {
+            itemRepository.touchByCommentAuthorId(id);
+        }
         Optional.ofNullable(userDto.getName()).ifPresent(user::setName);
         Optional.ofNullable(userDto.getEmail()).ifPresent(user::setEmail);
 
         try {
-            return UserMapper.toUserDto(userRepository.save(user));
+            return UserMapper.toUserDto(userRepository.saveAndFlush(user));
         } catch (DataIntegrityViolationException e) {
             throw new UserAlreadyExistsException(USER_ALREADY_EXISTS, e);
         }
@@ -52,7 +78,16 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public void delete(final Long userId) {
-        userRepository.deleteById(userId);
+        userExistenceCache.evict(userId);
+        userRepository.softDelete(userId);
+        itemRequestRepository.touchByItemOwnerId(userId);
+        itemRepository.touchByCommentAuthorId(userId);
+        // зависимые записи скрываются вместе с пользователем, иначе они ссылались бы на скрытые строки
+        bookingRepository.softDeleteAllOfUser(userId);
+        commentRepository.softDeleteAllOfUser(userId);
+        itemRepository.detachFromRequestsOf(userId);
+        itemRequestRepository.softDeleteAllByRequestorId(userId);
+        itemRepository.softDeleteAllByOwnerId(userId);
     }
 
     @Override
@@ -65,9 +100,25 @@ public class UserServiceImpl implements UserService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<UserDto> getUsers() {
-        return userRepository.findAll().stream()
+    public String getUserETag(final Long id) {
+        return userRepository.findVersionById(id)
+                .map(EntityTags::forVersion)
+                .orElseThrow(() -> new NotFoundException(USER_NOT_FOUND));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<UserDto> getUsers(final Long afterId, final int size) {
+        return userRepository.findAllByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, size)).stream()
                 .map(UserMapper::toUserDto)
-                .collect(Collectors.toCollection(ArrayList::new));
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamUsers(final Long afterId, final Consumer<UserDto> consumer) {
+        try (Stream<UserDto> users = userRepository.streamAllByIdGreaterThan(afterId)) {
+            users.forEach(consumer);
+        }
     }
 }
@@ -0,0 +1,9 @@
+-- Индекс не создастся, если в users уже есть адреса, отличающиеся только регистром.
+-- Перед обновлением существующей базы найдите их и объедините или переименуйте учётные записи:
+--   select lower(email), array_agg(user_id) from users group by lower(email) having count(*) > 1;
+create unique index if not exists users_email_lower_uindex on users (lower(email));
+create index if not exists users_deleted_index on users (user_id) where deleted;
+create index if not exists items_deleted_index on items (item_id) where deleted;
+create index if not exists requests_deleted_index on requests (request_id) where deleted;
+create index if not exists bookings_deleted_index on bookings (booking_id) where deleted;
+create index if not exists comments_deleted_index on comments (comment_id) where deleted;
@@ -2,7 +2,9 @@ create table if not exists users
 (
     user_id   bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     user_name VARCHAR(255) NOT NULL,
-    email     VARCHAR(512) NOT NULL UNIQUE
+    email     VARCHAR(512) NOT NULL UNIQUE,
+    deleted   BOOLEAN DEFAULT FALSE NOT NULL,
+    version   BIGINT  DEFAULT 0     NOT NULL
 );
 
 create table if not exists requests
@@ -10,7 +12,9 @@ create table if not exists requests
     request_id          bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     request_description VARCHAR(1024)                     NOT NULL,
     requestor_id        BIGINT REFERENCES users (user_id) NOT NULL,
-    create_date         TIMESTAMP WITHOUT TIME ZONE       NOT NULL
+    create_date         TIMESTAMP WITHOUT TIME ZONE       NOT NULL,
+    deleted             BOOLEAN DEFAULT FALSE             NOT NULL,
+    version             BIGINT  DEFAULT 0                 NOT NULL
 );
 
 create table if not exists items
@@ -20,7 +24,9 @@ create table if not exists items
     description VARCHAR(512)                      NOT NULL,
     available   BOOLEAN                           NOT NULL,
     owner_id    BIGINT REFERENCES users (user_id) NOT NULL,
-    request_id  BIGINT REFERENCES requests (request_id)
+    request_id  BIGINT REFERENCES requests (request_id),
+    deleted     BOOLEAN DEFAULT FALSE             NOT NULL,
+    version     BIGINT  DEFAULT 0                 NOT NULL
 );
 
 create table if not exists bookings
@@ -30,7 +36,9 @@ create table if not exists bookings
     end_date   TIMESTAMP WITHOUT TIME ZONE       NOT NULL,
     item_id    BIGINT REFERENCES items (item_id) NOT NULL,
     booker_id  BIGINT REFERENCES users (user_id) NOT NULL,
-    status     VARCHAR(25)                       NOT NULL
+    status     VARCHAR(25)                       NOT NULL,
+    deleted    BOOLEAN DEFAULT FALSE             NOT NULL,
+    version    BIGINT  DEFAULT 0                 NOT NULL
 );
 
 create table if not exists comments
@@ -39,5 +47,16 @@ create table if not exists comments
     comment_text VARCHAR(1024)                     NOT NULL,
     item_id      BIGINT REFERENCES items (item_id) NOT NULL,
     author_id    BIGINT REFERENCES users (user_id) NOT NULL,
-    created_date TIMESTAMP WITHOUT TIME ZONE       NOT NULL
-);
\ No newline at end of file
+    created_date TIMESTAMP WITHOUT TIME ZONE       NOT NULL,
+    deleted      BOOLEAN DEFAULT FALSE             NOT NULL
+);
+
+alter table users add column if not exists deleted BOOLEAN DEFAULT FALSE NOT NULL;
+alter table items add column if not exists deleted BOOLEAN DEFAULT FALSE NOT NULL;
+alter table requests add column if not exists deleted BOOLEAN DEFAULT FALSE NOT NULL;
+alter table bookings add column if not exists deleted BOOLEAN DEFAULT FALSE NOT NULL;
+alter table comments add column if not exists deleted BOOLEAN DEFAULT FALSE NOT NULL;
+alter table users add column if not exists version BIGINT DEFAULT 0 NOT NULL;
+alter table requests add column if not exists version BIGINT DEFAULT 0 NOT NULL;
+alter table items add column if not exists version BIGINT DEFAULT 0 NOT NULL;
+alter table bookings add column if not exists version BIGINT DEFAULT 0 NOT NULL;
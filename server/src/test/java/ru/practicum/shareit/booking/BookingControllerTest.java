@@ -11,6 +11,7 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.dto.RequestBookingStatus;
@@ -43,6 +44,9 @@ class BookingControllerTest {
     @MockitoBean
     private BookingService bookingService;
 
+    @MockitoBean
+    private BookingEventBroadcaster bookingEventBroadcaster;
+
     @SneakyThrows
     @Test
     void getByIdTest() {
@@ -136,4 +140,19 @@ class BookingControllerTest {
         Mockito.verifyNoMoreInteractions(bookingService);
     }
 
-}
\ No newline at end of file
+    @SneakyThrows
+    @Test
+    void streamTest() {
+
+        Mockito.when(bookingEventBroadcaster.subscribe(Mockito.anyLong())).thenReturn(new SseEmitter());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/bookings/stream")
+                        .header(X_SHARER_USER_ID, USER_ID)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted());
+
+        Mockito.verify(bookingEventBroadcaster).subscribe(USER_ID);
+        Mockito.verifyNoMoreInteractions(bookingService, bookingEventBroadcaster);
+    }
+
+}
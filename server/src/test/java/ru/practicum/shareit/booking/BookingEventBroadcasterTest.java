@@ -0,0 +1,176 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+class BookingEventBroadcasterTest {
+
+    private static final String X_SHARER_USER_ID = "X-Sharer-User-Id";
+    private static final long OWNER_ID = 1L;
+    private static final long BOOKER_ID = 2L;
+
+    private final BookingEventBroadcaster broadcaster = new BookingEventBroadcaster(Duration.ofMinutes(1), 4);
+    private final AtomicBoolean stalled = new AtomicBoolean();
+    private final CountDownLatch released = new CountDownLatch(1);
+    // ответы всех подписчиков, кроме BOOKER_ID, перестают уходить, пока тест не отпустит запись
+    private final MockMvc mockMvc = MockMvcBuilders
+            .standaloneSetup(new BookingController(Mockito.mock(BookingService.class), broadcaster))
+            .addFilters((request, response, chain) -> chain.doFilter(request,
+                    String.valueOf(BOOKER_ID).equals(((HttpServletRequest) request).getHeader(X_SHARER_USER_ID)) ?
+                            response :
+                            new StallingResponse((HttpServletResponse) response)))
+            .build();
+
+    @AfterEach
+    void tearDown() {
+        released.countDown();
+        broadcaster.shutdown();
+    }
+
+    @Test
+    void onBookingEvent_DeliversOnlyToRecipient() throws Exception {
+        final MvcResult owner = subscribe(OWNER_ID);
+        final MvcResult booker = subscribe(BOOKER_ID);
+        Assertions.assertThat(broadcaster.subscriberCount()).isEqualTo(2);
+
+        broadcaster.onBookingEvent(new BookingEvent(BOOKER_ID, BookingResponseDto.builder()
+                .id(7L)
+                .status(Status.APPROVED)
+                .build()));
+        broadcaster.heartbeat();
+
+        awaitContent(booker, ":heartbeat");
+        awaitContent(owner, ":heartbeat");
+        Assertions.assertThat(booker.getResponse().getContentAsString())
+                .contains(":connected", "id:7", "event:booking", "\"status\":\"APPROVED\"");
+        Assertions.assertThat(owner.getResponse().getContentAsString()).doesNotContain("event:booking");
+    }
+
+    @Test
+    void shutdown_CompletesStreams() throws Exception {
+        final MvcResult result = subscribe(OWNER_ID);
+        awaitContent(result, ":connected");
+
+        broadcaster.shutdown();
+
+        result.getAsyncResult(TimeUnit.SECONDS.toMillis(5));
+        Assertions.assertThat(broadcaster.subscriberCount()).isZero();
+    }
+
+    @Test
+    void heartbeat_SlowSubscribersDoNotDelayOthers() throws Exception {
+        final List<MvcResult> slow = new ArrayList<>();
+        for (long userId = 10; userId < 14; userId++) {
+            slow.add(subscribe(userId));
+        }
+        final MvcResult fast = subscribe(BOOKER_ID);
+        for (final MvcResult result : slow) {
+            awaitContent(result, ":connected");
+        }
+        awaitContent(fast, ":connected");
+
+        stalled.set(true);
+        broadcaster.heartbeat();
+
+        awaitContent(fast, ":heartbeat");
+        for (final MvcResult result : slow) {
+            Assertions.assertThat(result.getResponse().getContentAsString()).doesNotContain(":heartbeat");
+        }
+        released.countDown();
+        for (final MvcResult result : slow) {
+            awaitContent(result, ":heartbeat");
+        }
+    }
+
+    private MvcResult subscribe(final long userId) throws Exception {
+        return mockMvc.perform(MockMvcRequestBuilders.get("/bookings/stream")
+                        .header(X_SHARER_USER_ID, userId)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+    }
+
+    // события отправляет поток диспетчера, поэтому ответ дочитывается с ожиданием
+    private static void awaitContent(final MvcResult result, final String expected) throws Exception {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!result.getResponse().getContentAsString().contains(expected) && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        Assertions.assertThat(result.getResponse().getContentAsString()).contains(expected);
+    }
+
+    private final class StallingResponse extends HttpServletResponseWrapper {
+
+        private StallingResponse(final HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            return new StallingOutputStream(super.getOutputStream());
+        }
+    }
+
+    private final class StallingOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream delegate;
+
+        private StallingOutputStream(final ServletOutputStream delegate) {
+            super();
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            if (stalled.get()) {
+                awaitRelease();
+            }
+            delegate.write(b);
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(final WriteListener listener) {
+            delegate.setWriteListener(listener);
+        }
+
+        private void awaitRelease() throws IOException {
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                final InterruptedIOException failure = new InterruptedIOException(e.getMessage());
+                failure.initCause(e);
+                throw failure;
+            }
+        }
+    }
+}
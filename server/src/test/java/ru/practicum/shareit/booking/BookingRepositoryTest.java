@@ -5,9 +5,12 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
 
 import java.time.LocalDateTime;
 
@@ -21,6 +24,12 @@ class BookingRepositoryTest {
     @Autowired
     private BookingRepository bookingRepository;
 
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
     @Test
     void findByItemIdAndUserIdAndExpiredEndDateAndApprovedStatusTest() {
         final LocalDateTime timestamp = LocalDateTime.now();
@@ -107,4 +116,76 @@ class BookingRepositoryTest {
         Assertions.assertThat(bookingRepository
                 .findByItemIdAndUserIdAndExpiredEndDateAndApprovedStatus(item1.getId(), booker1.getId(), timestamp).size()).isEqualTo(2);
     }
+
+    @Test
+    void findById_ItemDeleted() {
+        final User owner = testEntityManager.persist(User.builder().name("Owner").email("owner@user.ru").build());
+        final User booker = testEntityManager.persist(User.builder().name("Booker").email("booker@user.ru").build());
+        final Item item = testEntityManager.persist(Item.builder()
+                .name("Item")
+                .description("Item")
+                .available(true)
+                .owner(owner)
+                .build());
+        final Booking booking = testEntityManager.persist(Booking.builder()
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .item(item)
+                .user(booker)
+                .status(Status.WAITING)
+                .build());
+        testEntityManager.flush();
+
+        itemRepository.softDelete(item.getId());
+        Assertions.assertThat(bookingRepository.softDeleteAllByItemId(item.getId())).isEqualTo(1);
+        testEntityManager.clear();
+
+        Assertions.assertThat(bookingRepository.findById(booking.getId())).isEmpty();
+        Assertions.assertThat(bookingRepository.findAllByUserIdOrderByStartDesc(booker.getId(), PageRequest.of(0, 10)))
+                .isEmpty();
+        Assertions.assertThat(bookingRepository.purgeOfDeleted(10)).isEqualTo(1);
+    }
+
+    @Test
+    void softDeleteAllOfUser_BookerAndOwnedItems() {
+        final User owner = testEntityManager.persist(User.builder().name("Owner").email("owner@user.ru").build());
+        final User booker = testEntityManager.persist(User.builder().name("Booker").email("booker@user.ru").build());
+        final Item ownerItem = testEntityManager.persist(Item.builder()
+                .name("Item1")
+                .description("Item1")
+                .available(true)
+                .owner(owner)
+                .build());
+        final Item bookerItem = testEntityManager.persist(Item.builder()
+                .name("Item2")
+                .description("Item2")
+                .available(true)
+                .owner(booker)
+                .build());
+        testEntityManager.persist(Booking.builder()
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .item(ownerItem)
+                .user(booker)
+                .status(Status.WAITING)
+                .build());
+        testEntityManager.persist(Booking.builder()
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .item(bookerItem)
+                .user(owner)
+                .status(Status.WAITING)
+                .build());
+        testEntityManager.flush();
+
+        userRepository.softDelete(booker.getId());
+        Assertions.assertThat(bookingRepository.softDeleteAllOfUser(booker.getId())).isEqualTo(2);
+        testEntityManager.clear();
+
+        Assertions.assertThat(userRepository.existsById(booker.getId())).isFalse();
+        Assertions.assertThat(bookingRepository.findAllByItemOwnerIdOrderByStartDesc(owner.getId(), PageRequest.of(0, 10)))
+                .isEmpty();
+        Assertions.assertThat(bookingRepository.findAllByUserIdOrderByStartDesc(owner.getId(), PageRequest.of(0, 10)))
+                .isEmpty();
+    }
 }
@@ -4,9 +4,11 @@ import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
@@ -17,6 +19,7 @@ import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserExistenceCache;
 import ru.practicum.shareit.user.UserRepository;
 
 import java.time.LocalDateTime;
@@ -74,19 +77,24 @@ class BookingServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserExistenceCache userExistenceCache;
+
     @Mock
     private ItemRepository itemRepository;
 
     @Mock
     private BookingRepository bookingRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private BookingServiceImpl bookingService;
 
     @BeforeEach
     void setUp() {
         Mockito.when(bookingRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(BOOKING_1));
-        Mockito.when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(OWNER));
 
     }
 
@@ -102,21 +110,20 @@ class BookingServiceTest {
         Assertions.assertThat(responseDto.getItem().getName()).isEqualTo(ITEM_1.getName());
 
         Mockito.verify(bookingRepository, Mockito.times(1)).findById(BOOKING_1.getId());
-        Mockito.verify(userRepository, Mockito.times(1)).findById(OWNER.getId());
+        Mockito.verify(userExistenceCache, Mockito.times(1)).requireExists(OWNER.getId());
         Mockito.verifyNoMoreInteractions(itemRepository, userRepository, bookingRepository);
     }
 
     @Test
     void getByIdTest_UnrelatedUser() {
 
-        Mockito.when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(UNRELATED));
 
         Assertions.assertThatThrownBy(() -> bookingService.getById(BOOKING_1.getId(), UNRELATED.getId()))
                 .isInstanceOf(NotFoundException.class)
                 .hasMessage("Не найдено подходящих бронирований для пользователя " + UNRELATED.getId());
 
         Mockito.verify(bookingRepository).findById(BOOKING_1.getId());
-        Mockito.verify(userRepository).findById(UNRELATED.getId());
+        Mockito.verify(userExistenceCache).requireExists(UNRELATED.getId());
         Mockito.verifyNoMoreInteractions(itemRepository, userRepository, bookingRepository);
     }
 
@@ -135,7 +142,6 @@ class BookingServiceTest {
 
         final List<Booking> bookingList = List.of(booking1, booking2);
 
-        Mockito.when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(BOOKER));
         Mockito.when(bookingRepository.findAllByUserIdOrderByStartDesc(Mockito.anyLong(), Mockito.any())).thenReturn(bookingList);
         Mockito.when(bookingRepository.findAllByUserIdAndEndBeforeOrderByStartDesc(Mockito.anyLong(), Mockito.any(), Mockito.any()))
                 .thenReturn(bookingList);
@@ -159,7 +165,7 @@ class BookingServiceTest {
         Assertions.assertThat(responseDtoList.get(0).getId()).isEqualTo(booking1.getId());
         Assertions.assertThat(responseDtoList.get(1).getId()).isEqualTo(booking2.getId());
 
-        Mockito.verify(userRepository, Mockito.times(6)).findById(BOOKER.getId());
+        Mockito.verify(userExistenceCache, Mockito.times(6)).requireExists(BOOKER.getId());
         Mockito.verify(bookingRepository)
                 .findAllByUserIdOrderByStartDesc(Mockito.eq(BOOKER.getId()), Mockito.any(Pageable.class));
         Mockito.verify(bookingRepository)
@@ -215,7 +221,7 @@ class BookingServiceTest {
         Assertions.assertThat(responseDtoList.get(0).getId()).isEqualTo(booking1.getId());
         Assertions.assertThat(responseDtoList.get(1).getId()).isEqualTo(booking2.getId());
 
-        Mockito.verify(userRepository, Mockito.times(6)).findById(OWNER.getId());
+        Mockito.verify(userExistenceCache, Mockito.times(6)).requireExists(OWNER.getId());
         Mockito.verify(bookingRepository).findAllByItemOwnerIdOrderByStartDesc(Mockito.eq(OWNER.getId()), Mockito.any(Pageable.class));
         Mockito.verify(bookingRepository).findAllByItemOwnerIdAndEndBeforeOrderByStartDesc(Mockito.eq(OWNER.getId()),
                 Mockito.any(LocalDateTime.class), Mockito.any(Pageable.class));
@@ -240,14 +246,13 @@ class BookingServiceTest {
                 .itemId(item.getId())
                 .build();
 
-        Mockito.when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(BOOKER));
         Mockito.when(itemRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(item));
 
         Assertions.assertThatThrownBy(() -> bookingService.create(requestDto, BOOKER.getId()))
                 .isInstanceOf(ValidationException.class)
                 .hasMessage("Вещь не доступна для бронирования");
 
-        Mockito.verify(userRepository).findById(BOOKER.getId());
+        Mockito.verify(userExistenceCache).requireExists(BOOKER.getId());
         Mockito.verify(itemRepository).findById(item.getId());
         Mockito.verifyNoMoreInteractions(itemRepository, userRepository, bookingRepository);
     }
@@ -266,7 +271,7 @@ class BookingServiceTest {
                 .hasMessage("Владелец не может бронировать свою вещь");
 
 
-        Mockito.verify(userRepository).findById(OWNER.getId());
+        Mockito.verify(userExistenceCache).requireExists(OWNER.getId());
         Mockito.verify(itemRepository).findById(ITEM_1.getId());
         Mockito.verifyNoMoreInteractions(itemRepository, userRepository, bookingRepository);
     }
@@ -290,9 +295,16 @@ class BookingServiceTest {
         Assertions.assertThat(responseDto.getItem().getName()).isEqualTo(ITEM_1.getName());
 
         Mockito.verify(bookingRepository).findById(booking.getId());
-        Mockito.verify(userRepository).findById(OWNER.getId());
+        Mockito.verify(userExistenceCache).requireExists(OWNER.getId());
         Mockito.verify(bookingRepository).save(Mockito.any(Booking.class));
-        Mockito.verifyNoMoreInteractions(itemRepository, userRepository, bookingRepository);
+        final ArgumentCaptor<Object> eventCaptor = ArgumentCaptor.forClass(Object.class);
+        Mockito.verify(eventPublisher).publishEvent(eventCaptor.capture());
+        Assertions.assertThat(eventCaptor.getValue())
+                .isInstanceOfSatisfying(BookingEvent.class, event -> {
+                    Assertions.assertThat(event.recipientId()).isEqualTo(BOOKER.getId());
+                    Assertions.assertThat(event.booking().getId()).isEqualTo(booking.getId());
+                });
+        Mockito.verifyNoMoreInteractions(itemRepository, userRepository, bookingRepository, eventPublisher);
     }
 
     @Test
@@ -303,14 +315,13 @@ class BookingServiceTest {
                 .build();
 
         Mockito.when(bookingRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(booking));
-        Mockito.when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(BOOKER));
 
         Assertions.assertThatThrownBy(() -> bookingService.approve(booking.getId(), true, BOOKER.getId()))
                 .isInstanceOf(NotFoundException.class)
                 .hasMessage("Подтверждение доступно только для владельца вещи");
 
         Mockito.verify(bookingRepository).findById(booking.getId());
-        Mockito.verify(userRepository).findById(BOOKER.getId());
+        Mockito.verify(userExistenceCache).requireExists(BOOKER.getId());
         Mockito.verifyNoMoreInteractions(itemRepository, userRepository, bookingRepository);
     }
 
@@ -328,7 +339,7 @@ class BookingServiceTest {
                 .hasMessage("Вещь не ожидает подтверждения");
 
         Mockito.verify(bookingRepository).findById(booking.getId());
-        Mockito.verify(userRepository).findById(OWNER.getId());
+        Mockito.verify(userExistenceCache).requireExists(OWNER.getId());
         Mockito.verifyNoMoreInteractions(itemRepository, userRepository, bookingRepository);
     }
 }
\ No newline at end of file
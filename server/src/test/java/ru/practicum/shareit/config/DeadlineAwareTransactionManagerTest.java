@@ -0,0 +1,51 @@
+package ru.practicum.shareit.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+class DeadlineAwareTransactionManagerTest {
+
+    private final DeadlineAwareTransactionManager transactionManager =
+            new DeadlineAwareTransactionManager(Mockito.mock(EntityManagerFactory.class));
+
+    @AfterEach
+    void tearDown() {
+        RequestDeadline.clear();
+    }
+
+    @Test
+    void determineTimeout_NoDeadline() {
+        Assertions.assertThat(transactionManager.determineTimeout(new DefaultTransactionDefinition()))
+                .isEqualTo(TransactionDefinition.TIMEOUT_DEFAULT);
+    }
+
+    @Test
+    void determineTimeout_FromDeadline() {
+        RequestDeadline.start(2_500);
+
+        Assertions.assertThat(transactionManager.determineTimeout(new DefaultTransactionDefinition()))
+                .isEqualTo(3);
+    }
+
+    @Test
+    void determineTimeout_ExplicitTimeoutIsShorter() {
+        final DefaultTransactionDefinition definition = new DefaultTransactionDefinition();
+        definition.setTimeout(1);
+        RequestDeadline.start(10_000);
+
+        Assertions.assertThat(transactionManager.determineTimeout(definition)).isEqualTo(1);
+    }
+
+    @Test
+    void determineTimeout_DeadlinePassed() {
+        RequestDeadline.start(-1_000);
+
+        Assertions.assertThat(transactionManager.determineTimeout(new DefaultTransactionDefinition()))
+                .isZero();
+    }
+}
@@ -0,0 +1,44 @@
+package ru.practicum.shareit.config;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ServerTimingTest {
+
+    @AfterEach
+    void tearDown() {
+        ServerTiming.clear();
+    }
+
+    @Test
+    void header_NotStarted() {
+        ServerTiming.recordStatement(1_000_000);
+
+        Assertions.assertThat(ServerTiming.headerValue()).isNull();
+    }
+
+    @Test
+    void header_Breakdown() {
+        ServerTiming.start();
+        ServerTiming.recordStatement(1_500_000);
+        ServerTiming.recordStatement(500_000);
+        ServerTiming.recordEnrichment(3_000_000);
+        ServerTiming.recordSerialization(250_000);
+
+        Assertions.assertThat(ServerTiming.headerValue())
+                .startsWith("db;dur=2.00;desc=\"2 statements\", enrich;dur=3.00, ser;dur=0.25, app;dur=");
+        Assertions.assertThat(ServerTiming.isWritten()).isTrue();
+        Assertions.assertThat(ServerTiming.headerValue()).isNull();
+    }
+
+    @Test
+    void header_BeforeSerialization() {
+        ServerTiming.start();
+        ServerTiming.recordStatement(1_000_000);
+
+        Assertions.assertThat(ServerTiming.headerValue())
+                .startsWith("db;dur=1.00;desc=\"1 statements\", enrich;dur=0.00, app;dur=")
+                .doesNotContain("ser;");
+    }
+}
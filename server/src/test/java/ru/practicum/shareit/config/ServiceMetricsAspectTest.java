@@ -0,0 +1,39 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+
+class ServiceMetricsAspectTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void time_RecordsOutcomeAndException() {
+        final UserService target = Mockito.mock(UserService.class);
+        Mockito.when(target.getUserById(1L)).thenReturn(UserDto.builder().id(1L).build());
+        Mockito.when(target.getUserById(2L)).thenThrow(new NotFoundException("Пользователь не найден"));
+
+        final AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.addAspect(new ServiceMetricsAspect(meterRegistry));
+        final UserService service = factory.getProxy();
+
+        service.getUserById(1L);
+        Assertions.assertThatThrownBy(() -> service.getUserById(2L)).isInstanceOf(NotFoundException.class);
+
+        final Timer success = meterRegistry.get(ServiceMetricsAspect.METRIC)
+                .tags("method", "getUserById", "outcome", "success", "exception", "none")
+                .timer();
+        final Timer error = meterRegistry.get(ServiceMetricsAspect.METRIC)
+                .tags("method", "getUserById", "outcome", "error", "exception", "NotFoundException")
+                .timer();
+        Assertions.assertThat(success.count()).isEqualTo(1);
+        Assertions.assertThat(error.count()).isEqualTo(1);
+    }
+}
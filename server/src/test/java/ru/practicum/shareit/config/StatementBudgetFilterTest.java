@@ -0,0 +1,91 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+
+class StatementBudgetFilterTest {
+
+    private static final String SQL = "select c1_0.id from comments c1_0 where c1_0.item_id=?";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/items");
+
+    @BeforeEach
+    void setUp() {
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/items");
+        ServerTiming.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ServerTiming.clear();
+    }
+
+    @Test
+    void doFilter_WithinBudget() throws Exception {
+        final StatementBudgetFilter filter = filter(true);
+
+        filter.doFilter(request, new MockHttpServletResponse(), executing(3));
+
+        Assertions.assertThat(meterRegistry.get("shareit.db.statements").tags("method", "GET", "uri", "/items")
+                .summary().totalAmount()).isEqualTo(3);
+        Assertions.assertThat(meterRegistry.find("shareit.db.budget.exceeded").counter()).isNull();
+    }
+
+    @Test
+    void doFilter_ExceededFailsWhenConfigured() {
+        final StatementBudgetFilter filter = filter(true);
+
+        Assertions.assertThatThrownBy(() -> filter.doFilter(request, new MockHttpServletResponse(), executing(4)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("GET /items - 4")
+                .hasMessageContaining("4 x " + SQL);
+        Assertions.assertThat(meterRegistry.get("shareit.db.budget.exceeded").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void doFilter_ExceededOnlyLogged() throws Exception {
+        final StatementBudgetFilter filter = filter(false);
+
+        filter.doFilter(request, new MockHttpServletResponse(), executing(4));
+
+        Assertions.assertThat(meterRegistry.get("shareit.db.budget.exceeded").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void doFilter_WithoutMeterRegistry() throws Exception {
+        final StatementBudgetFilter filter = new StatementBudgetFilter(new StaticListableBeanFactory()
+                .getBeanProvider(MeterRegistry.class), 3, Duration.ofSeconds(1), false);
+
+        filter.doFilter(request, new MockHttpServletResponse(), executing(4));
+
+        Assertions.assertThat(meterRegistry.getMeters()).isEmpty();
+    }
+
+    private StatementBudgetFilter filter(final boolean failOnExceed) {
+        final StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("meterRegistry", meterRegistry);
+        return new StatementBudgetFilter(beanFactory.getBeanProvider(MeterRegistry.class), 3, Duration.ofSeconds(1),
+                failOnExceed);
+    }
+
+    private static FilterChain executing(final int statements) {
+        return (req, res) -> {
+            for (int i = 0; i < statements; i++) {
+                ServerTiming.recordSql(SQL);
+                ServerTiming.recordStatement(1_000);
+            }
+        };
+    }
+}
@@ -0,0 +1,83 @@
+package ru.practicum.shareit.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+class TimedMessageConvertersTest {
+
+    private final MappingJackson2HttpMessageConverter converter = TimedMessageConverters.json(new ObjectMapper());
+    private final TrailerResponse response = new TrailerResponse();
+
+    @BeforeEach
+    void setUp() {
+        ServerTiming.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ServerTiming.clear();
+    }
+
+    @Test
+    void write_HeaderBeforeBodyAndSerializationInTrailer() throws Exception {
+        try (ServletServerHttpResponse output = new ServletServerHttpResponse(response)) {
+            converter.write(Map.of("id", 1), MediaType.APPLICATION_JSON, output);
+        }
+
+        Assertions.assertThat(response.getContentAsString()).isEqualTo("{\"id\":1}");
+        Assertions.assertThat(response.getHeader(ServerTiming.HEADER)).startsWith("db;dur=").doesNotContain("ser;");
+        // тело не буферизуется, поэтому длина заранее не известна
+        Assertions.assertThat(response.getHeader("Content-Length")).isNull();
+        Assertions.assertThat(response.trailers.get()).containsKey(ServerTiming.HEADER);
+        Assertions.assertThat(response.trailers.get().get(ServerTiming.HEADER)).startsWith("ser;dur=");
+        Assertions.assertThat(ServerTiming.isWritten()).isTrue();
+    }
+
+    @Test
+    void write_HeaderAlreadySent() throws Exception {
+        ServerTiming.headerValue();
+        try (ServletServerHttpResponse output = new ServletServerHttpResponse(response)) {
+            converter.write(Map.of("id", 1), MediaType.APPLICATION_JSON, output);
+        }
+
+        Assertions.assertThat(response.getContentAsString()).isEqualTo("{\"id\":1}");
+        Assertions.assertThat(response.getHeader(ServerTiming.HEADER)).isNull();
+        Assertions.assertThat(response.trailers).isNull();
+    }
+
+    @Test
+    void write_TrailersUnsupported() throws Exception {
+        final MockHttpServletResponse plain = new MockHttpServletResponse() {
+            @Override
+            public void setTrailerFields(final Supplier<Map<String, String>> supplier) {
+                throw new IllegalStateException("HTTP/1.0");
+            }
+        };
+        try (ServletServerHttpResponse output = new ServletServerHttpResponse(plain)) {
+            converter.write(Map.of("id", 1), MediaType.APPLICATION_JSON, output);
+        }
+
+        Assertions.assertThat(plain.getContentAsString()).isEqualTo("{\"id\":1}");
+        Assertions.assertThat(plain.getHeader(ServerTiming.HEADER)).startsWith("db;dur=");
+    }
+
+    private static final class TrailerResponse extends MockHttpServletResponse {
+
+        private Supplier<Map<String, String>> trailers;
+
+        @Override
+        public void setTrailerFields(final Supplier<Map<String, String>> supplier) {
+            this.trailers = supplier;
+        }
+    }
+}
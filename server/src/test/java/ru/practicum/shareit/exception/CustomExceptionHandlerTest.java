@@ -1,8 +1,14 @@
 package ru.practicum.shareit.exception;
 
 import org.assertj.core.api.Assertions;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.sql.SQLException;
 
 class CustomExceptionHandlerTest {
 
@@ -42,6 +48,27 @@ class CustomExceptionHandlerTest {
         Assertions.assertThat(response.getError()).isEqualTo("User already exists");
     }
 
+    @Test
+    void shouldHandleEmailUniqueViolationAsConflict() {
+        final DataIntegrityViolationException exception = new DataIntegrityViolationException("duplicate key",
+                new ConstraintViolationException("duplicate key", new SQLException("23505"), "USERS_EMAIL_LOWER_UINDEX"));
+        final ResponseEntity<CustomExceptionHandler.ResponseError> response =
+                handler.dataIntegrityViolationHandler(exception);
+
+        Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        Assertions.assertThat(response.getBody().getMessage()).isEqualTo("HttpStatus.CONFLICT");
+    }
+
+    @Test
+    void shouldHandleOtherIntegrityViolationAsServerError() {
+        final DataIntegrityViolationException exception = new DataIntegrityViolationException("fk violation",
+                new ConstraintViolationException("fk violation", new SQLException("23503"), "ITEMS_OWNER_FK"));
+        final ResponseEntity<CustomExceptionHandler.ResponseError> response =
+                handler.dataIntegrityViolationHandler(exception);
+
+        Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
     @Test
     void shouldHandleUnsupportedStatusException() {
         final UnsupportedStatusException exception = new UnsupportedStatusException("Unsupported status");
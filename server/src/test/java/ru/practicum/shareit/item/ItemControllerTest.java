@@ -6,23 +6,29 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import ru.practicum.shareit.config.SparseFieldsModule;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Set;
 
 @WebMvcTest(controllers = ItemController.class)
+@Import(SparseFieldsModule.class)
 class ItemControllerTest {
 
     private static final String X_SHARER_USER_ID = "X-Sharer-User-Id";
     private static final Long USER_ID = 1L;
     private static final Long ITEM_ID = 10L;
+    private static final String ETAG = "\"v3\"";
 
     private static final CommentDto REQUEST_DTO = CommentDto.builder()
             .text("Комментарий")
@@ -88,14 +94,56 @@ class ItemControllerTest {
 
         final ItemDto responseDto = getItemResponseDto(ITEM_ID);
 
-        Mockito.when(itemService.getItemById(Mockito.anyLong(), Mockito.anyLong())).thenReturn(responseDto);
+        Mockito.when(itemService.getItemETag(Mockito.anyLong(), Mockito.anyLong(), Mockito.anySet())).thenReturn(ETAG);
+        Mockito.when(itemService.getItemById(Mockito.anyLong(), Mockito.anyLong(), Mockito.anySet())).thenReturn(responseDto);
 
         mockMvc.perform(MockMvcRequestBuilders.get("/items/" + responseDto.getId())
                         .header(X_SHARER_USER_ID, USER_ID))
                 .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, ETAG))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(responseDto.getId()));
 
-        Mockito.verify(itemService).getItemById(Mockito.eq(USER_ID), Mockito.eq(ITEM_ID));
+        Mockito.verify(itemService).getItemETag(Mockito.eq(USER_ID), Mockito.eq(ITEM_ID), Mockito.eq(Set.of()));
+        Mockito.verify(itemService).getItemById(Mockito.eq(USER_ID), Mockito.eq(ITEM_ID), Mockito.eq(Set.of()));
+        Mockito.verifyNoMoreInteractions(itemService);
+    }
+
+    @SneakyThrows
+    @Test
+    void getItemByIdNotModifiedTest() {
+        Mockito.when(itemService.getItemETag(Mockito.anyLong(), Mockito.anyLong(), Mockito.anySet())).thenReturn(ETAG);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/items/" + ITEM_ID)
+                        .header(X_SHARER_USER_ID, USER_ID)
+                        .header(HttpHeaders.IF_NONE_MATCH, ETAG))
+                .andExpect(MockMvcResultMatchers.status().isNotModified());
+
+        Mockito.verify(itemService).getItemETag(Mockito.eq(USER_ID), Mockito.eq(ITEM_ID), Mockito.eq(Set.of()));
+        Mockito.verifyNoMoreInteractions(itemService);
+    }
+
+    @SneakyThrows
+    @Test
+    void getItemByIdSparseFieldsTest() {
+
+        final ItemDto responseDto = getItemResponseDto(ITEM_ID).toBuilder()
+                .name("Item")
+                .description("Description")
+                .build();
+
+        Mockito.when(itemService.getItemById(Mockito.anyLong(), Mockito.anyLong(), Mockito.anySet())).thenReturn(responseDto);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/items/" + responseDto.getId())
+                        .param("fields", "id,name")
+                        .header(X_SHARER_USER_ID, USER_ID))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(responseDto.getId()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.name").value(responseDto.getName()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.description").doesNotExist())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.comments").doesNotExist());
+
+        Mockito.verify(itemService).getItemETag(Mockito.eq(USER_ID), Mockito.eq(ITEM_ID), Mockito.eq(Set.of("id", "name")));
+        Mockito.verify(itemService).getItemById(Mockito.eq(USER_ID), Mockito.eq(ITEM_ID), Mockito.eq(Set.of("id", "name")));
         Mockito.verifyNoMoreInteractions(itemService);
     }
 
@@ -106,14 +154,14 @@ class ItemControllerTest {
 
         final List<ItemDto> responseDtoList = List.of(responseDto1);
 
-        Mockito.when(itemService.getItemsByOwnerId(Mockito.anyLong(), Mockito.anyInt(), Mockito.anyInt())).thenReturn(responseDtoList);
+        Mockito.when(itemService.getItemsByOwnerId(Mockito.anyLong(), Mockito.anyInt(), Mockito.anyInt(), Mockito.anySet())).thenReturn(responseDtoList);
 
         mockMvc.perform(MockMvcRequestBuilders.get("/items")
                         .header(X_SHARER_USER_ID, USER_ID))
                 .andExpect(MockMvcResultMatchers.status().isOk())
                 .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(responseDto1.getId()));
 
-        Mockito.verify(itemService).getItemsByOwnerId(Mockito.eq(USER_ID), Mockito.anyInt(), Mockito.anyInt());
+        Mockito.verify(itemService).getItemsByOwnerId(Mockito.eq(USER_ID), Mockito.anyInt(), Mockito.anyInt(), Mockito.eq(Set.of()));
         Mockito.verifyNoMoreInteractions(itemService);
     }
 
@@ -141,10 +189,11 @@ class ItemControllerTest {
         final ItemDto requestDto = getRequestDto();
         final ItemDto responseDto = getItemResponseDto(ITEM_ID);
 
-        Mockito.when(itemService.update(Mockito.any(), Mockito.anyLong(), Mockito.anyLong())).thenReturn(responseDto);
+        Mockito.when(itemService.update(Mockito.any(), Mockito.anyLong(), Mockito.anyLong(), Mockito.any())).thenReturn(responseDto);
 
         mockMvc.perform(MockMvcRequestBuilders.patch("/items/" + ITEM_ID)
                         .header(X_SHARER_USER_ID, USER_ID)
+                        .header(HttpHeaders.IF_MATCH, ETAG)
                         .content(objectMapper.writeValueAsString(requestDto))
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -152,7 +201,7 @@ class ItemControllerTest {
                 .andExpect(MockMvcResultMatchers.status().isOk())
                 .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(responseDto.getId()));
 
-        Mockito.verify(itemService).update(Mockito.any(ItemDto.class), Mockito.eq(ITEM_ID), Mockito.eq(USER_ID));
+        Mockito.verify(itemService).update(Mockito.any(ItemDto.class), Mockito.eq(ITEM_ID), Mockito.eq(USER_ID), Mockito.eq(ETAG));
         Mockito.verifyNoMoreInteractions(itemService);
     }
 
@@ -62,4 +62,29 @@ class ItemRepositoryTest {
         Assertions.assertThat(itemRepository.findBySearchText("Про", pageable)).size().isEqualTo(3);
         Assertions.assertThat(itemRepository.findBySearchText("профессионал", pageable)).size().isEqualTo(2);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testSoftDeleteAndPurge() {
+        final User owner = testEntityManager.persist(User.builder()
+                .name("Owner")
+                .email("owner@user.ru")
+                .build());
+
+        final Item item = testEntityManager.persist(Item.builder()
+                .name("Палатка")
+                .description("Туристическая")
+                .available(true)
+                .owner(owner)
+                .build());
+        testEntityManager.flush();
+
+        Assertions.assertThat(itemRepository.softDelete(item.getId())).isEqualTo(1);
+        testEntityManager.clear();
+
+        Assertions.assertThat(itemRepository.findById(item.getId())).isEmpty();
+        Assertions.assertThat(itemRepository.findBySearchText("палатка", PageRequest.of(0, 10))).isEmpty();
+
+        Assertions.assertThat(itemRepository.purgeDeleted(10)).isEqualTo(1);
+        Assertions.assertThat(itemRepository.purgeDeleted(10)).isZero();
+    }
+}
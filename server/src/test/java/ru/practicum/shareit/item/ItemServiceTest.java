@@ -12,6 +12,7 @@ import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.exception.ItemAlreadyExistsException;
 import ru.practicum.shareit.exception.ItemForbiddenException;
+import ru.practicum.shareit.exception.PreconditionFailedException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
@@ -20,12 +21,14 @@ import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.request.ItemRequestRepository;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserExistenceCache;
 import ru.practicum.shareit.user.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @ExtendWith(SpringExtension.class)
 class ItemServiceTest {
@@ -59,6 +62,9 @@ class ItemServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserExistenceCache userExistenceCache;
+
     @Mock
     private BookingRepository bookingRepository;
 
@@ -83,8 +89,7 @@ class ItemServiceTest {
                 .requestId(ITEM_REQUEST.getId())
                 .build();
 
-        Mockito.when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(USER));
-        Mockito.when(itemRequestRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(ITEM_REQUEST));
+        Mockito.when(itemRequestRepository.findForUpdateById(Mockito.anyLong())).thenReturn(Optional.of(ITEM_REQUEST));
         Mockito.when(itemRepository.save(Mockito.any())).thenReturn(item);
 
         final ItemDto resultDto = itemService.create(createDto, USER.getId());
@@ -94,8 +99,9 @@ class ItemServiceTest {
                 .extracting(ItemDto::getId, ItemDto::getName, ItemDto::getDescription, ItemDto::getAvailable, ItemDto::getRequestId)
                 .containsExactly(item.getId(), item.getName(), item.getDescription(), item.getAvailable(), ITEM_REQUEST.getId());
 
-        Mockito.verify(userRepository).findById(USER.getId());
-        Mockito.verify(itemRequestRepository).findById(ITEM_REQUEST.getId());
+        Mockito.verify(userExistenceCache).requireExists(USER.getId());
+        Mockito.verify(userRepository).getReferenceById(USER.getId());
+        Mockito.verify(itemRequestRepository).findForUpdateById(ITEM_REQUEST.getId());
         Mockito.verify(itemRepository).save(Mockito.any(Item.class));
         Mockito.verifyNoMoreInteractions(itemRequestRepository, userRepository, itemRepository);
     }
@@ -107,8 +113,8 @@ class ItemServiceTest {
                 .author(USER)
                 .build();
 
-        Mockito.when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(USER));
-        Mockito.when(itemRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(ITEM));
+        Mockito.when(userRepository.getReferenceById(Mockito.anyLong())).thenReturn(USER);
+        Mockito.when(itemRepository.findForUpdateById(Mockito.anyLong())).thenReturn(Optional.of(ITEM));
         Mockito.when(bookingRepository.findByItemIdAndUserIdAndExpiredEndDateAndApprovedStatus(Mockito.anyLong(), Mockito.anyLong(), Mockito.any()))
                 .thenReturn(List.of(new Booking()));
         Mockito.when(commentRepository.save(Mockito.any())).thenReturn(comment);
@@ -120,8 +126,9 @@ class ItemServiceTest {
                 .extracting(CommentDto::getId, CommentDto::getText, CommentDto::getAuthorName)
                 .containsExactly(comment.getId(), comment.getText(), USER.getName());
 
-        Mockito.verify(userRepository).findById(USER.getId());
-        Mockito.verify(itemRepository).findById(ITEM.getId());
+        Mockito.verify(userExistenceCache).requireExists(USER.getId());
+        Mockito.verify(userRepository).getReferenceById(USER.getId());
+        Mockito.verify(itemRepository).findForUpdateById(ITEM.getId());
         Mockito.verify(bookingRepository).findByItemIdAndUserIdAndExpiredEndDateAndApprovedStatus(
                 Mockito.eq(ITEM.getId()), Mockito.eq(USER.getId()), Mockito.any(LocalDateTime.class));
         Mockito.verify(commentRepository).save(Mockito.any(Comment.class));
@@ -131,8 +138,7 @@ class ItemServiceTest {
     @Test
     void createCommentTest_NoBookings() {
 
-        Mockito.when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(USER));
-        Mockito.when(itemRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(ITEM));
+        Mockito.when(itemRepository.findForUpdateById(Mockito.anyLong())).thenReturn(Optional.of(ITEM));
         Mockito.when(bookingRepository.findByItemIdAndUserIdAndExpiredEndDateAndApprovedStatus(Mockito.anyLong(), Mockito.anyLong(), Mockito.any()))
                 .thenReturn(new ArrayList<>());
 
@@ -154,7 +160,7 @@ class ItemServiceTest {
         Mockito.when(itemRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(item));
 
         Assertions.assertThatThrownBy(() ->
-                        itemService.update(ITEM_DTO, item.getId(), notOwner.getId()))
+                        itemService.update(ITEM_DTO, item.getId(), notOwner.getId(), null))
                 .isInstanceOf(ItemForbiddenException.class)
                 .hasMessage("Редактирование вещи доступно только владельцу");
     }
@@ -169,15 +175,79 @@ class ItemServiceTest {
         Mockito.when(itemRepository.save(Mockito.any())).thenThrow(new DataIntegrityViolationException("DataIntegrityViolationException"));
 
         Assertions.assertThatThrownBy(() ->
-                        itemService.update(ITEM_DTO, item.getId(), USER.getId()))
+                        itemService.update(ITEM_DTO, item.getId(), USER.getId(), null))
                 .isInstanceOf(ItemAlreadyExistsException.class)
                 .hasMessage("DataIntegrityViolationException");
     }
 
+    @Test
+    void updateItemTest_VersionMismatch() {
+        final Item item = ITEM.toBuilder()
+                .owner(USER)
+                .version(2L)
+                .build();
+
+        Mockito.when(itemRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(item));
+
+        Assertions.assertThatThrownBy(() ->
+                        itemService.update(ITEM_DTO, item.getId(), USER.getId(), "\"v1\""))
+                .isInstanceOf(PreconditionFailedException.class);
+        Mockito.verify(itemRepository).findById(item.getId());
+        Mockito.verifyNoMoreInteractions(itemRepository);
+    }
+
+    @Test
+    void getItemETag_OwnerWithBookingsNotTagged() {
+        Mockito.when(itemRepository.findVersionById(Mockito.anyLong())).thenReturn(Optional.of(versionView(4L, USER.getId())));
+
+        Assertions.assertThat(itemService.getItemETag(USER.getId(), ITEM.getId(), Set.of())).isNull();
+        Assertions.assertThat(itemService.getItemETag(2L, ITEM.getId(), Set.of())).isEqualTo("\"v4\"");
+        Assertions.assertThat(itemService.getItemETag(USER.getId(), ITEM.getId(), Set.of("id", "name")))
+                .startsWith("\"v4-f");
+    }
+
+    @Test
+    void getItemsByOwnerId_SparseFieldsSkipEnrichment() {
+        Mockito.when(itemRepository.findAllByOwnerId(Mockito.anyLong(), Mockito.any())).thenReturn(List.of(ITEM));
+
+        final List<ItemDto> result = itemService.getItemsByOwnerId(USER.getId(), 0, 20, Set.of("id", "name", "available"));
+
+        Assertions.assertThat(result).extracting(ItemDto::getId).containsExactly(ITEM.getId());
+        Mockito.verify(itemRepository).findAllByOwnerId(Mockito.eq(USER.getId()), Mockito.any());
+        Mockito.verifyNoInteractions(bookingRepository, commentRepository);
+    }
+
+    @Test
+    void getItemsByOwnerId_AllFieldsEnriched() {
+        Mockito.when(itemRepository.findAllByOwnerId(Mockito.anyLong(), Mockito.any())).thenReturn(List.of(ITEM));
+
+        itemService.getItemsByOwnerId(USER.getId(), 0, 20, Set.of());
+
+        Mockito.verify(bookingRepository).findAllByItemId(ITEM.getId());
+        Mockito.verify(commentRepository).findAllByItemId(ITEM.getId());
+    }
+
     @Test
     void deleteItemTest() {
         itemService.delete(1L);
-        Mockito.verify(itemRepository).deleteById(1L);
+        Mockito.verify(itemRequestRepository).touchByItemId(1L);
+        Mockito.verify(itemRepository).softDelete(1L);
+        Mockito.verify(bookingRepository).softDeleteAllByItemId(1L);
+        Mockito.verify(commentRepository).softDeleteAllByItemId(1L);
         Mockito.verifyNoMoreInteractions(itemRepository, userRepository, bookingRepository, commentRepository, itemRequestRepository);
     }
+
+    private static ItemRepository.VersionView versionView(final Long version, final Long ownerId) {
+        return new ItemRepository.VersionView() {
+            @Override
+            public Long getVersion() {
+                return version;
+            }
+
+            @Override
+            public Long getOwnerId() {
+                return ownerId;
+            }
+        };
+    }
 }
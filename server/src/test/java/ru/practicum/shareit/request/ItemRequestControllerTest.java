@@ -74,13 +74,16 @@ class ItemRequestControllerTest {
     @Test
     void getByIdTest() {
 
+        Mockito.when(itemRequestService.getETag(Mockito.anyLong())).thenReturn("\"v1\"");
         Mockito.when(itemRequestService.getById(Mockito.anyLong(), Mockito.anyLong())).thenReturn(ITEM_REQUEST_GET_RESPONSE_DTO);
 
         mockMvc.perform(MockMvcRequestBuilders.get("/requests/" + ITEM_REQUEST_GET_RESPONSE_DTO.getId())
                         .header(X_SHARER_USER_ID, USER_ID))
                 .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"v1\""))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(ITEM_REQUEST_GET_RESPONSE_DTO.getId()));
 
+        Mockito.verify(itemRequestService).getETag(ITEM_REQUEST_GET_RESPONSE_DTO.getId());
         Mockito.verify(itemRequestService).getById(Mockito.eq(USER_ID), Mockito.anyLong());
         Mockito.verifyNoMoreInteractions(itemRequestService);
     }
@@ -14,6 +14,7 @@ import ru.practicum.shareit.request.dto.ItemRequestCreateDto;
 import ru.practicum.shareit.request.dto.ItemRequestCreateResponseDto;
 import ru.practicum.shareit.request.dto.ItemRequestGetResponseDto;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserExistenceCache;
 import ru.practicum.shareit.user.UserRepository;
 
 import java.util.List;
@@ -59,6 +60,9 @@ class ItemRequestServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserExistenceCache userExistenceCache;
+
     @Mock
     private ItemRepository itemRepository;
 
@@ -180,7 +184,6 @@ class ItemRequestServiceTest {
 
     @Test
     void createTest() {
-        Mockito.when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(OWNER));
         Mockito.when(itemRequestRepository.save(Mockito.any())).thenReturn(ITEM_REQUEST);
 
         final ItemRequestCreateResponseDto actual = itemRequestService.create(ITEM_REQUEST_CREATE_DTO, OWNER.getId());
@@ -188,7 +191,8 @@ class ItemRequestServiceTest {
         Assertions.assertThat(actual.getId()).isEqualTo(ITEM_REQUEST.getId());
         Assertions.assertThat(actual.getDescription()).isEqualTo(ITEM_REQUEST.getDescription());
 
-        Mockito.verify(userRepository).findById(OWNER.getId());
+        Mockito.verify(userExistenceCache).requireExists(OWNER.getId());
+        Mockito.verify(userRepository).getReferenceById(OWNER.getId());
         Mockito.verify(itemRequestRepository).save(Mockito.any(ItemRequest.class));
         Mockito.verifyNoMoreInteractions(itemRequestRepository, userRepository, itemRepository);
     }
@@ -0,0 +1,75 @@
+package ru.practicum.shareit.slowquery;
+
+import org.assertj.core.api.Assertions;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+class SlowQueryDataSourceTest {
+
+    private static final String SQL = "select x from system_range(1, 10) where x = ?";
+
+    private final SlowQueryLog slowQueryLog = new SlowQueryLog(Duration.ZERO, 10, false);
+    private final Connection pooled = Mockito.mock(Connection.class);
+    private final SlowQueryDataSource dataSource = new SlowQueryDataSource(h2DataSource(), slowQueryLog);
+
+    @AfterEach
+    void tearDown() {
+        slowQueryLog.shutdown();
+    }
+
+    @Test
+    void execute_RecordedWithRepositoryLabel() throws Exception {
+        final String previous = RepositoryLabel.enter("ItemRepository.findById");
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(SQL)) {
+            statement.setString(1, "abc");
+            statement.clearParameters();
+            statement.setLong(1, 5L);
+            final List<Long> values = new ArrayList<>();
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    values.add(resultSet.getLong(1));
+                }
+            }
+            Assertions.assertThat(values).containsExactly(5L);
+        } finally {
+            RepositoryLabel.restore(previous);
+        }
+
+        Assertions.assertThat(RepositoryLabel.current()).isNull();
+        Assertions.assertThat(slowQueryLog.slowest()).singleElement().satisfies(query -> {
+            Assertions.assertThat(query.sql()).isEqualTo(SQL);
+            Assertions.assertThat(query.repositoryMethod()).isEqualTo("ItemRepository.findById");
+            Assertions.assertThat(query.parameterShapes()).containsExactly("Long");
+        });
+    }
+
+    @Test
+    void close_ClosesUnderlyingConnection() throws Exception {
+        final DataSource target = Mockito.mock(DataSource.class);
+        Mockito.when(target.getConnection()).thenReturn(pooled);
+
+        try (Connection connection = new SlowQueryDataSource(target, slowQueryLog).getConnection()) {
+            Assertions.assertThat(connection).isNotSameAs(pooled);
+        }
+
+        Mockito.verify(pooled).close();
+    }
+
+    private static JdbcDataSource h2DataSource() {
+        final JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:slowquerydatasource;DB_CLOSE_DELAY=-1");
+        h2.setUser("sa");
+        return h2;
+    }
+}
@@ -0,0 +1,127 @@
+package ru.practicum.shareit.slowquery;
+
+import org.assertj.core.api.Assertions;
+import org.h2.jdbcx.JdbcDataSource;
+import org.h2.tools.SimpleResultSet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class SlowQueryLogTest {
+
+    private static final String SQL = "select i1_0.id from items i1_0 where i1_0.name like ?";
+
+    private static final String PLAN = "Seq Scan on items i1_0";
+
+    private final DataSource dataSource = Mockito.mock(DataSource.class);
+    private final Connection connection = Mockito.mock(Connection.class);
+    private final DatabaseMetaData metaData = Mockito.mock(DatabaseMetaData.class);
+    private final PreparedStatement preparedStatement = Mockito.mock(PreparedStatement.class);
+    private final Statement statement = Mockito.mock(Statement.class);
+    private final SimpleResultSet plan = new SimpleResultSet();
+    private SlowQueryLog slowQueryLog;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        Mockito.when(dataSource.getConnection()).thenReturn(connection);
+        Mockito.when(connection.getMetaData()).thenReturn(metaData);
+        plan.addColumn("PLAN", Types.VARCHAR, 0, 0);
+        plan.addRow(PLAN);
+    }
+
+    @AfterEach
+    void tearDown() {
+        slowQueryLog.shutdown();
+    }
+
+    @Test
+    void record_KeepsSlowestWithinCapacity() {
+        slowQueryLog = new SlowQueryLog(Duration.ofMillis(100), 2, false);
+
+        slowQueryLog.record(SQL, Map.of(1, "%обруч%"), 300_000_000, "ItemRepository.findBySearchText", null);
+        slowQueryLog.record(SQL, Map.of(1, "%мяч%"), 500_000_000, "ItemRepository.findBySearchText", null);
+        slowQueryLog.record(SQL, Map.of(1, LocalDateTime.now()), 400_000_000, null, null);
+
+        final List<SlowQuery> slowest = slowQueryLog.slowest();
+        Assertions.assertThat(slowest).extracting(SlowQuery::durationMs).containsExactly(500.0, 400.0);
+        Assertions.assertThat(slowest).extracting(SlowQuery::repositoryMethod)
+                .containsExactly("ItemRepository.findBySearchText", "-");
+        Assertions.assertThat(slowest.getFirst().parameterShapes()).containsExactly("String(5)");
+        Assertions.assertThat(slowest.get(1).parameterShapes()).containsExactly("LocalDateTime");
+        Assertions.assertThat(slowQueryLog.isSlow(99_000_000)).isFalse();
+    }
+
+    @Test
+    void record_CapturesPlan() throws InterruptedException {
+        slowQueryLog = new SlowQueryLog(Duration.ofMillis(100), 10, true);
+        final JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:slowquery;DB_CLOSE_DELAY=-1");
+        final Map<Integer, Object> parameters = new HashMap<>();
+        parameters.put(1, 1);
+
+        slowQueryLog.record("select x from system_range(1, 10) where x = ?", parameters, 200_000_000, null, dataSource);
+
+        for (int i = 0; i < 50 && slowQueryLog.slowest().getFirst().plan() == null; i++) {
+            Thread.sleep(100);
+        }
+        Assertions.assertThat(slowQueryLog.slowest().getFirst().plan())
+                .isNotBlank()
+                .doesNotStartWith("EXPLAIN не выполнен");
+    }
+
+    @Test
+    void record_ExplainsWithoutParameterValues() throws Exception {
+        slowQueryLog = new SlowQueryLog(Duration.ofMillis(100), 10, true);
+        Mockito.when(metaData.getDatabaseProductName()).thenReturn("H2");
+        Mockito.when(connection.prepareStatement("EXPLAIN " + SQL)).thenReturn(preparedStatement);
+        Mockito.when(preparedStatement.executeQuery()).thenReturn(plan);
+
+        slowQueryLog.record(SQL, Map.of(1, "%секрет%"), 200_000_000, null, dataSource);
+
+        awaitPlan();
+        Mockito.verify(preparedStatement).setNull(1, Types.NULL);
+        Mockito.verify(preparedStatement, Mockito.never()).setObject(Mockito.anyInt(), Mockito.any());
+    }
+
+    @Test
+    void record_ExplainsGenericPlanOnPostgresql() throws Exception {
+        slowQueryLog = new SlowQueryLog(Duration.ofMillis(100), 10, true);
+        Mockito.when(metaData.getDatabaseProductName()).thenReturn("PostgreSQL");
+        Mockito.when(connection.createStatement()).thenReturn(statement);
+        Mockito.when(statement.executeQuery(Mockito.anyString())).thenReturn(plan);
+
+        slowQueryLog.record("select i1_0.id from items i1_0 where i1_0.name like ? and i1_0.description <> '?' "
+                + "and i1_0.owner_id = ?", Map.of(1, "%секрет%", 2, 7L), 200_000_000, null, dataSource);
+
+        awaitPlan();
+        Assertions.assertThat(slowQueryLog.slowest().getFirst().plan()).isEqualTo(PLAN);
+        final InOrder order = Mockito.inOrder(statement);
+        order.verify(statement).execute("PREPARE shareit_slow_query_plan AS select i1_0.id from items i1_0 "
+                + "where i1_0.name like $1 and i1_0.description <> '?' and i1_0.owner_id = $2");
+        order.verify(statement).execute("SET plan_cache_mode = force_generic_plan");
+        order.verify(statement).executeQuery("EXPLAIN EXECUTE shareit_slow_query_plan(NULL, NULL)");
+        order.verify(statement).execute("RESET plan_cache_mode");
+        order.verify(statement).execute("DEALLOCATE shareit_slow_query_plan");
+    }
+
+    private void awaitPlan() throws InterruptedException {
+        for (int i = 0; i < 50 && slowQueryLog.slowest().getFirst().plan() == null; i++) {
+            Thread.sleep(100);
+        }
+    }
+}
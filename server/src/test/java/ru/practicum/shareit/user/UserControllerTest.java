@@ -1,7 +1,10 @@
 package ru.practicum.shareit.user;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import lombok.SneakyThrows;
+import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mockito;
@@ -11,12 +14,14 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.function.Consumer;
 
 @ExtendWith(SpringExtension.class)
 @WebMvcTest(controllers = UserController.class)
@@ -59,7 +64,7 @@ class UserControllerTest {
     @Test
     void updateUserTest() {
 
-        Mockito.when(userService.update(Mockito.any(), Mockito.anyLong())).thenReturn(USER_DTO);
+        Mockito.when(userService.update(Mockito.any(), Mockito.anyLong(), Mockito.any())).thenReturn(USER_DTO);
 
         mockMvc.perform(MockMvcRequestBuilders.patch("/users/" + USER_DTO.getId())
                         .content(objectMapper.writeValueAsString(USER_DTO))
@@ -69,10 +74,27 @@ class UserControllerTest {
                 .andExpect(MockMvcResultMatchers.status().isOk())
                 .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(USER_DTO.getId()));
 
-        Mockito.verify(userService).update(Mockito.any(UserDto.class), Mockito.eq(USER_DTO.getId()));
+        Mockito.verify(userService).update(Mockito.any(UserDto.class), Mockito.eq(USER_DTO.getId()), Mockito.isNull());
         Mockito.verifyNoMoreInteractions(userService);
     }
 
+    @SneakyThrows
+    @Test
+    void getUserByIdSmileTest() {
+        final MediaType smile = MediaType.parseMediaType("application/x-jackson-smile");
+        Mockito.when(userService.getUserETag(Mockito.anyLong())).thenReturn("\"v1\"");
+        Mockito.when(userService.getUserById(Mockito.anyLong())).thenReturn(USER_DTO);
+
+        final MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.get("/users/" + USER_DTO.getId())
+                        .accept(smile, MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentTypeCompatibleWith(smile))
+                .andReturn();
+
+        final JsonNode result = new SmileMapper().readTree(mvcResult.getResponse().getContentAsByteArray());
+        Assertions.assertThat(result.get("email").asText()).isEqualTo(USER_DTO.getEmail());
+    }
+
     @Test
     @SneakyThrows
     void deleteUserTest() {
@@ -87,13 +109,75 @@ class UserControllerTest {
     @Test
     void getUsersTest() {
 
-        Mockito.when(userService.getUsers()).thenReturn(List.of(USER_DTO));
+        Mockito.when(userService.getUsers(Mockito.anyLong(), Mockito.anyInt())).thenReturn(List.of(USER_DTO));
 
-        mockMvc.perform(MockMvcRequestBuilders.get("/users"))
+        mockMvc.perform(MockMvcRequestBuilders.get("/users")
+                        .param("size", "20"))
                 .andExpect(MockMvcResultMatchers.status().isOk())
                 .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(USER_DTO.getId()));
 
-        Mockito.verify(userService).getUsers();
+        Mockito.verify(userService).getUsers(0L, 20);
+        Mockito.verifyNoMoreInteractions(userService);
+    }
+
+    @SneakyThrows
+    @Test
+    void getUsersInvalidSizeTest() {
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/users")
+                        .param("size", "0"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        mockMvc.perform(MockMvcRequestBuilders.get("/users")
+                        .param("size", "1001"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        Mockito.verifyNoInteractions(userService);
+    }
+
+    @SneakyThrows
+    @Test
+    void getUsersWithoutSizeTest() {
+
+        Mockito.doAnswer(invocation -> {
+            final Consumer<UserDto> consumer = invocation.getArgument(1);
+            consumer.accept(USER_DTO);
+            return null;
+        }).when(userService).streamUsers(Mockito.anyLong(), Mockito.any());
+
+        final MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.get("/users"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(USER_DTO.getId()));
+
+        Mockito.verify(userService).streamUsers(Mockito.eq(0L), Mockito.any());
+        Mockito.verifyNoMoreInteractions(userService);
+    }
+
+    @SneakyThrows
+    @Test
+    void streamUsersTest() {
+
+        Mockito.doAnswer(invocation -> {
+            final Consumer<UserDto> consumer = invocation.getArgument(1);
+            consumer.accept(USER_DTO);
+            return null;
+        }).when(userService).streamUsers(Mockito.anyLong(), Mockito.any());
+
+        final MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.get("/users")
+                        .param("stream", "true")
+                        .param("afterId", "0"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(USER_DTO.getId()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].email").value(USER_DTO.getEmail()));
+
+        Mockito.verify(userService).streamUsers(Mockito.eq(0L), Mockito.any());
         Mockito.verifyNoMoreInteractions(userService);
     }
 
@@ -101,12 +185,15 @@ class UserControllerTest {
     @Test
     void getUserByIdTest() {
 
+        Mockito.when(userService.getUserETag(Mockito.anyLong())).thenReturn("\"v1\"");
         Mockito.when(userService.getUserById(Mockito.anyLong())).thenReturn(USER_DTO);
 
         mockMvc.perform(MockMvcRequestBuilders.get("/users/" + USER_DTO.getId()))
                 .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"v1\""))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(USER_DTO.getId()));
 
+        Mockito.verify(userService).getUserETag(USER_DTO.getId());
         Mockito.verify(userService).getUserById(USER_DTO.getId());
         Mockito.verifyNoMoreInteractions(userService);
     }
@@ -0,0 +1,118 @@
+package ru.practicum.shareit.user;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import ru.practicum.shareit.exception.NotFoundException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+class UserExistenceCacheTest {
+
+    private static final Long USER_ID = 1L;
+
+    private UserRepository userRepository;
+    private UserExistenceCache userExistenceCache;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = Mockito.mock(UserRepository.class);
+        userExistenceCache = new UserExistenceCache(userRepository, 10, Duration.ofMinutes(5));
+    }
+
+    @Test
+    void requireExists_CachedAfterFirstLookup() {
+        Mockito.when(userRepository.existsById(USER_ID)).thenReturn(true);
+
+        userExistenceCache.requireExists(USER_ID);
+        userExistenceCache.requireExists(USER_ID);
+
+        Mockito.verify(userRepository).existsById(USER_ID);
+        Mockito.verifyNoMoreInteractions(userRepository);
+    }
+
+    @Test
+    void requireExists_NotFound() {
+        Mockito.when(userRepository.existsById(USER_ID)).thenReturn(false);
+
+        Assertions.assertThatThrownBy(() -> userExistenceCache.requireExists(USER_ID))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessage("Пользователь не найден");
+    }
+
+    @Test
+    void remember_SkipsRepository() {
+        userExistenceCache.remember(USER_ID);
+
+        Assertions.assertThat(userExistenceCache.exists(USER_ID)).isTrue();
+        Mockito.verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void evict_ForcesLookup() {
+        userExistenceCache.remember(USER_ID);
+        userExistenceCache.evict(USER_ID);
+
+        Assertions.assertThat(userExistenceCache.exists(USER_ID)).isFalse();
+        Mockito.verify(userRepository).existsById(USER_ID);
+    }
+
+    @Test
+    void remember_AppliedAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            userExistenceCache.remember(USER_ID);
+
+            Assertions.assertThat(userExistenceCache.exists(USER_ID)).isFalse();
+            TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        Assertions.assertThat(userExistenceCache.exists(USER_ID)).isTrue();
+    }
+
+    @Test
+    void remember_DiscardedOnRollback() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            userExistenceCache.remember(USER_ID);
+            TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+                    TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        Assertions.assertThat(userExistenceCache.exists(USER_ID)).isFalse();
+    }
+
+    @Test
+    void evict_RepeatedAfterCommit() {
+        userExistenceCache.remember(USER_ID);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            userExistenceCache.evict(USER_ID);
+            // параллельная проверка в другом потоке до фиксации удаления
+            CompletableFuture.runAsync(() -> userExistenceCache.remember(USER_ID)).join();
+            TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        Assertions.assertThat(userExistenceCache.exists(USER_ID)).isFalse();
+    }
+
+    @Test
+    void exists_ExpiredEntryRechecked() {
+        final UserExistenceCache shortLived = new UserExistenceCache(userRepository, 10, Duration.ZERO);
+        shortLived.remember(USER_ID);
+
+        Assertions.assertThat(shortLived.exists(USER_ID)).isFalse();
+        Mockito.verify(userRepository).existsById(USER_ID);
+    }
+}
@@ -7,12 +7,20 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.exception.UserAlreadyExistsException;
+import ru.practicum.shareit.item.CommentRepository;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.request.ItemRequestRepository;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @ExtendWith(SpringExtension.class)
 class UserServiceTest {
@@ -29,13 +37,28 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserExistenceCache userExistenceCache;
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private ItemRequestRepository itemRequestRepository;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private CommentRepository commentRepository;
+
     @InjectMocks
     private UserServiceImpl userService;
 
     @Test
     void createUser_Ok() {
 
-        Mockito.when(userRepository.save(Mockito.any())).thenReturn(USER);
+        Mockito.when(userRepository.saveAndFlush(Mockito.any())).thenReturn(USER);
 
         final UserDto createUserDto = userService.create(USER_DTO);
 
@@ -47,24 +70,43 @@ class UserServiceTest {
                     Assertions.assertThat(dto.getEmail()).isEqualTo(USER.getEmail());
                 });
 
-        Mockito.verify(userRepository).save(Mockito.any(User.class));
-        Mockito.verifyNoMoreInteractions(userRepository);
+        Mockito.verify(userRepository).existsByEmailIgnoreCase(USER_DTO.getEmail());
+        Mockito.verify(userRepository).saveAndFlush(Mockito.any(User.class));
+        Mockito.verify(userExistenceCache).remember(USER.getId());
+        Mockito.verifyNoMoreInteractions(userRepository, userExistenceCache);
     }
 
     @Test
     void createUser_Conflict() {
 
-        Mockito.when(userRepository.save(Mockito.any()))
+        Mockito.when(userRepository.saveAndFlush(Mockito.any()))
                 .thenThrow(new DataIntegrityViolationException("Пользователь с такими данными существует"));
 
         Assertions.assertThatThrownBy(() -> userService.create(USER_DTO))
                 .isInstanceOf(UserAlreadyExistsException.class)
                 .hasMessage("Пользователь с такими данными существует");
 
-        Mockito.verify(userRepository).save(Mockito.any(User.class));
+        Mockito.verify(userRepository).existsByEmailIgnoreCase(USER_DTO.getEmail());
+        Mockito.verify(userRepository).saveAndFlush(Mockito.any(User.class));
         Mockito.verifyNoMoreInteractions(userRepository);
     }
 
+    @Test
+    void createUser_EmailTaken() {
+        final UserDto userDto = UserDto.builder()
+                .email(USER.getEmail().toUpperCase(Locale.ROOT))
+                .build();
+
+        Mockito.when(userRepository.existsByEmailIgnoreCase(Mockito.anyString())).thenReturn(true);
+
+        Assertions.assertThatThrownBy(() -> userService.create(userDto))
+                .isInstanceOf(UserAlreadyExistsException.class)
+                .hasMessage("Пользователь с такими данными существует");
+
+        Mockito.verify(userRepository).existsByEmailIgnoreCase(userDto.getEmail());
+        Mockito.verifyNoMoreInteractions(userRepository, userExistenceCache);
+    }
+
     @Test
     void getUserById_Ok() {
 
@@ -87,9 +129,10 @@ class UserServiceTest {
     @Test
     void getAllUsers_Ok() {
 
-        Mockito.when(userRepository.findAll()).thenReturn(List.of(USER));
+        Mockito.when(userRepository.findAllByIdGreaterThanOrderByIdAsc(Mockito.anyLong(), Mockito.any()))
+                .thenReturn(List.of(USER));
 
-        final List<UserDto> getUsersListDto = userService.getUsers();
+        final List<UserDto> getUsersListDto = userService.getUsers(0L, 20);
 
         Assertions.assertThat(getUsersListDto)
                 .hasSize(1)
@@ -100,7 +143,22 @@ class UserServiceTest {
                     Assertions.assertThat(dto.getEmail()).isEqualTo(USER.getEmail());
                 });
 
-        Mockito.verify(userRepository).findAll();
+        Mockito.verify(userRepository).findAllByIdGreaterThanOrderByIdAsc(Mockito.eq(0L), Mockito.any(Pageable.class));
+        Mockito.verifyNoMoreInteractions(userRepository);
+    }
+
+    @Test
+    void streamUsers_Ok() {
+
+        final UserDto userDto = UserMapper.toUserDto(USER);
+        Mockito.when(userRepository.streamAllByIdGreaterThan(Mockito.anyLong())).thenReturn(Stream.of(userDto));
+
+        final List<UserDto> streamed = new ArrayList<>();
+        userService.streamUsers(0L, streamed::add);
+
+        Assertions.assertThat(streamed).containsExactly(userDto);
+
+        Mockito.verify(userRepository).streamAllByIdGreaterThan(0L);
         Mockito.verifyNoMoreInteractions(userRepository);
     }
 
@@ -108,9 +166,9 @@ class UserServiceTest {
     void updateUser_Ok() {
 
         Mockito.when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(USER));
-        Mockito.when(userRepository.save(Mockito.any())).thenReturn(USER);
+        Mockito.when(userRepository.saveAndFlush(Mockito.any())).thenReturn(USER);
 
-        final UserDto updateUserDto = userService.update(USER_DTO, USER.getId());
+        final UserDto updateUserDto = userService.update(USER_DTO, USER.getId(), null);
 
         Assertions.assertThat(updateUserDto)
                 .isNotNull()
@@ -121,7 +179,7 @@ class UserServiceTest {
                 });
 
         Mockito.verify(userRepository).findById(USER.getId());
-        Mockito.verify(userRepository).save(Mockito.any(User.class));
+        Mockito.verify(userRepository).saveAndFlush(Mockito.any(User.class));
         Mockito.verifyNoMoreInteractions(userRepository);
     }
 
@@ -129,15 +187,33 @@ class UserServiceTest {
     void updateUser_Conflict() {
 
         Mockito.when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(USER));
-        Mockito.when(userRepository.save(Mockito.any()))
+        Mockito.when(userRepository.saveAndFlush(Mockito.any()))
                 .thenThrow(new DataIntegrityViolationException("Пользователь с такими данными существует"));
 
-        Assertions.assertThatThrownBy(() -> userService.update(USER_DTO, USER.getId()))
+        Assertions.assertThatThrownBy(() -> userService.update(USER_DTO, USER.getId(), null))
                 .isInstanceOf(UserAlreadyExistsException.class)
                 .hasMessage("Пользователь с такими данными существует");
 
         Mockito.verify(userRepository).findById(USER.getId());
-        Mockito.verify(userRepository).save(Mockito.any(User.class));
+        Mockito.verify(userRepository).saveAndFlush(Mockito.any(User.class));
+        Mockito.verifyNoMoreInteractions(userRepository);
+    }
+
+    @Test
+    void updateUser_EmailTaken() {
+        final UserDto userDto = UserDto.builder()
+                .email("other@test.ru")
+                .build();
+
+        Mockito.when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(USER));
+        Mockito.when(userRepository.existsByEmailIgnoreCaseAndIdNot(Mockito.anyString(), Mockito.anyLong())).thenReturn(true);
+
+        Assertions.assertThatThrownBy(() -> userService.update(userDto, USER.getId(), null))
+                .isInstanceOf(UserAlreadyExistsException.class)
+                .hasMessage("Пользователь с такими данными существует");
+
+        Mockito.verify(userRepository).findById(USER.getId());
+        Mockito.verify(userRepository).existsByEmailIgnoreCaseAndIdNot(userDto.getEmail(), USER.getId());
         Mockito.verifyNoMoreInteractions(userRepository);
     }
 
@@ -146,7 +222,16 @@ class UserServiceTest {
 
         userService.delete(USER_ID);
 
-        Mockito.verify(userRepository).deleteById(USER_ID);
-        Mockito.verifyNoMoreInteractions(userRepository);
+        Mockito.verify(userExistenceCache).evict(USER_ID);
+        Mockito.verify(userRepository).softDelete(USER_ID);
+        Mockito.verify(itemRequestRepository).touchByItemOwnerId(USER_ID);
+        Mockito.verify(itemRepository).touchByCommentAuthorId(USER_ID);
+        Mockito.verify(bookingRepository).softDeleteAllOfUser(USER_ID);
+        Mockito.verify(commentRepository).softDeleteAllOfUser(USER_ID);
+        Mockito.verify(itemRepository).detachFromRequestsOf(USER_ID);
+        Mockito.verify(itemRequestRepository).softDeleteAllByRequestorId(USER_ID);
+        Mockito.verify(itemRepository).softDeleteAllByOwnerId(USER_ID);
+        Mockito.verifyNoMoreInteractions(userRepository, userExistenceCache, itemRepository, itemRequestRepository,
+                bookingRepository, commentRepository);
     }
 }